@@ -0,0 +1,176 @@
+package org.rest.Respector.Benchmarks;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.apache.commons.lang3.tuple.Pair;
+import org.rest.Respector.AppMain.Main;
+import org.rest.Respector.EndPointRecog.EndPointMethodInfo;
+import org.rest.Respector.EndPointRecog.PreprocessFramework;
+import org.rest.Respector.MyPassBase.CallGraphProvider;
+import org.rest.Respector.MyPassBase.MyTransformBase;
+import org.rest.Respector.PathCondExtract.ConditionPred;
+import org.rest.Respector.PathCondExtract.EndpointAnalysis;
+import org.rest.Respector.PathCondExtract.PathConstraint;
+import org.rest.Respector.PathCondExtract.PathNode;
+import org.rest.Respector.PathRecord.PathRecord;
+import org.rest.Respector.PathRecord.PathRecordBase;
+import org.rest.Respector.PathRecord.SymStore;
+import org.rest.Respector.Simplification.SimplificationResult;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import soot.Body;
+import soot.BriefUnitPrinter;
+import soot.PackManager;
+import soot.Scene;
+import soot.Transform;
+import soot.Value;
+import soot.jimple.internal.JAssignStmt;
+import soot.jimple.toolkits.ide.icfg.JimpleBasedInterproceduralCFG;
+
+/**
+ * The scene of one dataset app and the intermediate results of one of its endpoints, built once per JVM.
+ * Set up the same way as MainTransform, so the benchmarks run on the data a real run produces.
+ */
+public class AnalysisFixture extends MyTransformBase {
+  public static final int PATH_LIMIT=5000;
+
+  // "" picks the endpoint with the smallest body among those with parameters
+  final String endpointName;
+
+  public EndPointMethodInfo EPInfo;
+
+  public ArrayList<PathConstraint> validPaths=new ArrayList<>();
+  public ArrayList<PathConstraint> invalidPaths=new ArrayList<>();
+  // conditions of all feasible paths, loop header conditions excluded
+  public ArrayList<ConditionPred> conds=new ArrayList<>();
+  // C_epp and C_g of the valid paths
+  public ArrayList<HashSet<ArrayList<ConditionPred>>> disjunctions=new ArrayList<>();
+  // right hand sides of assignments on the valid paths, with the symStore they were rewritten with
+  public ArrayList<Pair<Value, SymStore>> rhsAndStores=new ArrayList<>();
+
+  private static Logger logger = LoggerFactory.getLogger(AnalysisFixture.class);
+
+  static AnalysisFixture fixture=null;
+  static String fixtureKey=null;
+
+  AnalysisFixture(PreprocessFramework preprocessReuslt, String endpointName) {
+    super(preprocessReuslt, false);
+    this.endpointName=endpointName;
+  }
+
+  // Soot is a singleton, so is the fixture
+  public static synchronized AnalysisFixture get(String classDir, String endpointName){
+    String key=classDir+"#"+endpointName;
+    if(fixture!=null){
+      if(!fixtureKey.equals(key)){
+        throw new RuntimeException(String.format("fixture of %s already loaded, run %s in another fork", fixtureKey, key));
+      }
+      return fixture;
+    }
+
+    Main.loadScene(Arrays.asList(classDir.split(":")));
+
+    PreprocessFramework endPointInfoWithData=PreprocessFramework.getEndPointInfo(Scene.v());
+
+    AnalysisFixture f=new AnalysisFixture(endPointInfoWithData, endpointName);
+    CallGraphProvider.configure(CallGraphProvider.Algorithm.CHA, endPointInfoWithData);
+    PackManager.v().getPack("wjtp").add(new Transform("wjtp.Fixture", f));
+    PackManager.v().runPacks();
+
+    if(f.EPInfo==null){
+      throw new RuntimeException(String.format("no endpoint %s in %s", endpointName, classDir));
+    }
+
+    fixture=f;
+    fixtureKey=key;
+    return f;
+  }
+
+  public EndpointAnalysis newAnalysis(){
+    return new EndpointAnalysis(EPInfo, this, PATH_LIMIT);
+  }
+
+  EndPointMethodInfo pickEndpoint(){
+    EndPointMethodInfo best=null;
+    int bestSize=Integer.MAX_VALUE;
+
+    for(EndPointMethodInfo info: this.preprocessReuslt.endPointMethodData){
+      if(!info.method.hasActiveBody() || info.requestMethod.isEmpty()){
+        continue;
+      }
+
+      if(!endpointName.isEmpty()){
+        if(info.method.getName().equals(endpointName)){
+          return info;
+        }
+        continue;
+      }
+
+      int size=info.method.getActiveBody().getUnits().size();
+      if(!info.parameterInfo.isEmpty() && size<bestSize){
+        best=info;
+        bestSize=size;
+      }
+    }
+
+    return best;
+  }
+
+  @Override
+  protected void internalTransform(String phaseName, Map<String, String> options) {
+    icfg = new JimpleBasedInterproceduralCFG();
+    printerSet = new HashMap<Body, BriefUnitPrinter>();
+    bodyToLoopInfoCache = new ConcurrentHashMap<>();
+
+    loadCallGraph();
+    Scene.v().getActiveHierarchy();
+
+    EPInfo=pickEndpoint();
+    if(EPInfo==null){
+      return;
+    }
+
+    EndpointAnalysis pass=newAnalysis();
+    while(true){
+      boolean hasNextChunk=pass.buildPaths();
+      validPaths.addAll(pass.getValidPathsAndClear());
+      invalidPaths.addAll(pass.getInvalidPathsAndClear());
+      if(!hasNextChunk){
+        break;
+      }
+    }
+
+    for(ArrayList<PathConstraint> paths: Arrays.asList(validPaths, invalidPaths)){
+      for(PathConstraint p: paths){
+        for(ConditionPred pred: p.conds){
+          if(!pred.inLoopHeader){
+            conds.add(pred);
+          }
+        }
+      }
+    }
+
+    SimplificationResult S=SimplificationResult.doSimplification(validPaths);
+    disjunctions.addAll(S.C_epp.values());
+    disjunctions.addAll(S.C_g.values());
+
+    for(PathConstraint p: validPaths){
+      for(PathNode n=p.path;n!=null;n=n.prev){
+        PathRecordBase rec=n.rec;
+        if(rec instanceof PathRecord && ((PathRecord) rec).stmt instanceof JAssignStmt){
+          PathRecord r=(PathRecord) rec;
+          rhsAndStores.add(Pair.of(((JAssignStmt) r.stmt).getRightOp(), r.symStore));
+        }
+      }
+    }
+
+    logger.info(String.format("fixture %s: %d valid paths, %d invalid paths, %d conditions, %d disjunctions, %d assignments",
+      EPInfo.method.getSignature(), validPaths.size(), invalidPaths.size(), conds.size(), disjunctions.size(), rhsAndStores.size()));
+  }
+}
@@ -0,0 +1,28 @@
+package org.rest.Respector.Benchmarks;
+
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Chooses the dataset app and the endpoint of the fixture, e.g.
+ * -p classDir=../../dataset/features-service/target/classes -p endpoint=addFeatureToProduct
+ */
+@State(Scope.Benchmark)
+public class FixtureState {
+  // ':' separated, like the process dirs given to Main
+  @Param({"../../dataset/restcountries/target/classes"})
+  public String classDir;
+
+  // method name of the endpoint, "" for the smallest endpoint with parameters
+  @Param({""})
+  public String endpoint;
+
+  public AnalysisFixture fixture;
+
+  @Setup
+  public void setup(){
+    fixture=AnalysisFixture.get(classDir, endpoint);
+  }
+}
@@ -0,0 +1,68 @@
+package org.rest.Respector.Benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.apache.commons.lang3.tuple.Pair;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.rest.Respector.PathCondExtract.EndpointAnalysis;
+import org.rest.Respector.PathCondExtract.PathConstraint;
+import org.rest.Respector.PathCondExtract.RhsRewrite;
+import org.rest.Respector.PathRecord.SymStore;
+
+import soot.Value;
+import soot.grimp.internal.ExprBox;
+
+/**
+ * Path exploration of the fixture endpoint: the symbolic store updates of every step and a full run.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PathBenchmarks {
+  @Benchmark
+  public void rewriteRHS(FixtureState state, Blackhole bh){
+    for(Pair<Value, SymStore> kv: state.fixture.rhsAndStores){
+      try{
+        bh.consume(RhsRewrite.rewriteRHS(kv.getLeft(), kv.getRight()));
+      }
+      catch(RuntimeException e){
+        // unsupported right hand side, the analysis handles it elsewhere
+      }
+    }
+  }
+
+  // the store update after an assignment, what every handled assignment pays
+  @Benchmark
+  public void putIntoSymStore(FixtureState state, Blackhole bh){
+    for(Pair<Value, SymStore> kv: state.fixture.rhsAndStores){
+      bh.consume(kv.getRight().put(kv.getLeft(), new ExprBox(kv.getLeft())));
+    }
+  }
+
+  @Benchmark
+  @OutputTimeUnit(TimeUnit.MILLISECONDS)
+  public void buildPaths(FixtureState state, Blackhole bh){
+    EndpointAnalysis pass=state.fixture.newAnalysis();
+    while(true){
+      boolean hasNextChunk=pass.buildPaths();
+      for(PathConstraint p: pass.getValidPathsAndClear()){
+        bh.consume(p);
+      }
+      for(PathConstraint p: pass.getInvalidPathsAndClear()){
+        bh.consume(p);
+      }
+      if(!hasNextChunk){
+        break;
+      }
+    }
+  }
+}
@@ -0,0 +1,61 @@
+package org.rest.Respector.Benchmarks;
+
+import java.util.ArrayList;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.rest.Respector.PathCondExtract.PathConstraint;
+import org.rest.Respector.Simplification.SimplificationResult;
+
+/**
+ * Grouping the conditions of the valid paths by endpoint parameter and global, as MainTransform does per chunk.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SimplificationBenchmarks {
+  // the valid paths split in two chunks, merge() modifies its receiver so both results are rebuilt per invocation
+  @State(Scope.Thread)
+  public static class Chunks {
+    ArrayList<PathConstraint> first;
+    ArrayList<PathConstraint> second;
+    SimplificationResult s1;
+    SimplificationResult s2;
+
+    @Setup(Level.Trial)
+    public void split(FixtureState state){
+      ArrayList<PathConstraint> paths=state.fixture.validPaths;
+      first=new ArrayList<>(paths.subList(0, paths.size()/2));
+      second=new ArrayList<>(paths.subList(paths.size()/2, paths.size()));
+    }
+
+    @Setup(Level.Invocation)
+    public void simplify(){
+      s1=SimplificationResult.doSimplification(first);
+      s2=SimplificationResult.doSimplification(second);
+    }
+  }
+
+  @Benchmark
+  public SimplificationResult doSimplification(FixtureState state){
+    return SimplificationResult.doSimplification(state.fixture.validPaths);
+  }
+
+  @Benchmark
+  public SimplificationResult merge(Chunks chunks){
+    chunks.s1.merge(chunks.s2);
+    return chunks.s1;
+  }
+}
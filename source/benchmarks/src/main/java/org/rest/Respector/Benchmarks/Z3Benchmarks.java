@@ -0,0 +1,93 @@
+package org.rest.Respector.Benchmarks;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.rest.Respector.PathCondExtract.ConditionPred;
+import org.rest.Respector.PathCondExtract.PathConstraint;
+import org.rest.Respector.Simplification.DisjunctOverConjuncSimpl;
+import org.rest.Respector.Simplification.PathFeasibility;
+import org.rest.Respector.Simplification.QuickFeasibility;
+import org.rest.Respector.Simplification.SootToZ3;
+
+/**
+ * Translation to Z3 and the Z3 queries, over all conditions and paths of the fixture endpoint.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class Z3Benchmarks {
+  // a converter reused by the invocations of one iteration, as conditions of one endpoint share variables
+  @State(Scope.Thread)
+  public static class Converter {
+    SootToZ3 conv;
+
+    @Setup(Level.Iteration)
+    public void setup(){
+      conv=new SootToZ3();
+    }
+
+    @TearDown(Level.Iteration)
+    public void tearDown(){
+      conv.closeCtx();
+    }
+  }
+
+  @Benchmark
+  public void toZ3Expr(FixtureState state, Converter converter, Blackhole bh){
+    for(ConditionPred pred: state.fixture.conds){
+      try{
+        bh.consume(converter.conv.toZ3Expr(pred.uniCond));
+      }
+      catch(RuntimeException e){
+        // not convertible, the analysis skips it too
+      }
+      converter.conv.getAndClearAuxiliaryExprs();
+    }
+  }
+
+  @Benchmark
+  public void pathFeasibilityCheck(FixtureState state, Blackhole bh){
+    for(ArrayList<PathConstraint> paths: Arrays.asList(state.fixture.validPaths, state.fixture.invalidPaths)){
+      for(PathConstraint p: paths){
+        bh.consume(new PathFeasibility(p).check());
+      }
+    }
+  }
+
+  // the same paths without Z3, a path QuickFeasibility can not decide costs its attempt only
+  @Benchmark
+  public void quickFeasibilityCheck(FixtureState state, Blackhole bh){
+    for(ArrayList<PathConstraint> paths: Arrays.asList(state.fixture.validPaths, state.fixture.invalidPaths)){
+      for(PathConstraint p: paths){
+        bh.consume(QuickFeasibility.decide(p.conds.lastToFirst()));
+      }
+    }
+  }
+
+  @Benchmark
+  public void disjunctOverConjuncSimpl(FixtureState state, Blackhole bh){
+    for(HashSet<ArrayList<ConditionPred>> disjunction: state.fixture.disjunctions){
+      DisjunctOverConjuncSimpl simpl=new DisjunctOverConjuncSimpl(disjunction);
+      bh.consume(simpl.simplifiedGoals.size());
+      simpl.closeCtx();
+    }
+  }
+}
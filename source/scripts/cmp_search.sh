@@ -0,0 +1,27 @@
+#!/bin/bash
+
+# runs Respector once per path search strategy under the same path limit and prints the coverage of each run
+# usage: bash ./scripts/cmp_search.sh OUTPUT_DIR PATH_LIMIT CLASS_DIR...
+
+OUTPUT_DIR=$1
+PATH_LIMIT=$2
+CLASS_DIRS=${@:3}
+
+
+if [ -z "$Z3_HOME" ]; then
+    echo "Z3_HOME is not set. Exiting the script."
+    exit 1
+else
+    echo "Z3_HOME is set to $Z3_HOME"
+fi
+
+mkdir -p $OUTPUT_DIR
+
+for search in dfs bfs coverage random; do
+    { time java  -Djava.library.path=$Z3_HOME/build/  -cp ./target/Respector-0.1-SNAPSHOT.jar:$Z3_HOME/build/com.microsoft.z3.jar org.rest.Respector.AppMain.Main --search=$search --path-limit=$PATH_LIMIT $CLASS_DIRS $OUTPUT_DIR/$search.json ; }  &> $OUTPUT_DIR/$search.log
+
+    echo "----------$search--------"
+    grep -o "coverage: .*" $OUTPUT_DIR/$search.log
+    grep "^real" $OUTPUT_DIR/$search.log
+    echo "$(wc -l < $OUTPUT_DIR/$search.json) lines in $OUTPUT_DIR/$search.json"
+done
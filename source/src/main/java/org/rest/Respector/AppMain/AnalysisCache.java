@@ -0,0 +1,237 @@
+package org.rest.Respector.AppMain;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.rest.Respector.EndPointRecog.EndPointMethodInfo;
+import org.rest.Respector.EndPointRecog.EndPointParamInfo;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonParseException;
+
+import soot.ArrayType;
+import soot.FoundFile;
+import soot.MethodOrMethodContext;
+import soot.RefType;
+import soot.SootClass;
+import soot.SootField;
+import soot.SootMethod;
+import soot.SourceLocator;
+import soot.Type;
+import soot.ValueBox;
+import soot.jimple.StaticFieldRef;
+import soot.jimple.toolkits.callgraph.CallGraph;
+import soot.jimple.toolkits.callgraph.ReachableMethods;
+import soot.util.queue.QueueReader;
+
+/**
+ * Content-addressed directory of CachedEndpoints.
+ * The key of an endpoint hashes its endpoint info and the class files of every class
+ * declaring a method reachable from it, declaring a static field one of those methods reads,
+ * or reachable from its parameter and return types over field types, so an endpoint is
+ * analyzed again as soon as any class it may execute, take its examples or schemas from changes.
+ * Bump FORMAT when the analysis itself changes.
+ */
+public class AnalysisCache {
+  static final String FORMAT="respector-endpoint-cache-9";
+
+  public final Path dir;
+  final CallGraph cg;
+  final String optionsKey;
+
+  final Gson gson=new Gson();
+  final ConcurrentHashMap<SootClass, String> classHashes=new ConcurrentHashMap<>();
+
+  // load may be called from the workers
+  public final AtomicInteger hits=new AtomicInteger();
+  public final AtomicInteger misses=new AtomicInteger();
+
+  private static Logger logger = LoggerFactory.getLogger(AnalysisCache.class);
+
+  public AnalysisCache(String dir, CallGraph cg, AnalysisOptions options) {
+    this.dir=Paths.get(dir);
+    this.cg=cg;
+    // only the options that change the output
+    this.optionsKey=String.format("calleeSummaries=%b pathLimit=%d livePathLimit=%d search=%s callGraph=%s sceneSlice=%b mergePaths=%b skipCallees=%b pruneBranches=%b loopSummaries=%b loopUnroll=%d simplifyTimeoutMs=%d simplifyRlimit=%d simplifyChunk=%d solver=%s solverTimeoutMs=%d", options.calleeSummaries, options.pathLimit, options.livePathLimit, options.search, options.callGraph, options.sceneSlice, options.mergePaths, options.skipCallees, options.pruneBranches, options.loopSummaries, options.loopUnroll, options.simplifyTimeoutMs, options.simplifyRlimit, options.simplifyChunk, options.solver, options.solver.equals("process")?options.solverTimeoutMs:0);
+  }
+
+  static MessageDigest newDigest(){
+    try {
+      return MessageDigest.getInstance("SHA-256");
+    } catch (NoSuchAlgorithmException e) {
+      throw new RuntimeException(e);
+    }
+  }
+
+  static String toHex(byte[] bytes){
+    StringBuilder sb=new StringBuilder();
+    for(byte b: bytes){
+      sb.append(String.format("%02x", b));
+    }
+    return sb.toString();
+  }
+
+  String hashClass(SootClass c){
+    MessageDigest md=newDigest();
+
+    FoundFile file=SourceLocator.v().lookupInClassPath(c.getName().replace('.', '/')+".class");
+    if(file!=null){
+      try(InputStream in=file.inputStream()){
+        md.update(in.readAllBytes());
+      }
+      catch(IOException e){
+        throw new RuntimeException(e);
+      }
+      finally{
+        file.close();
+      }
+    }
+    else{
+      // no class file, e.g. a phantom or generated class, hash what the analysis reads instead
+      for(SootMethod m: c.getMethods()){
+        md.update(m.getSignature().getBytes(StandardCharsets.UTF_8));
+        if(m.hasActiveBody()){
+          md.update(m.getActiveBody().toString().getBytes(StandardCharsets.UTF_8));
+        }
+      }
+    }
+
+    return toHex(md.digest());
+  }
+
+  public String keyOf(EndPointMethodInfo EPInfo){
+    MessageDigest md=newDigest();
+    StringBuilder sb=new StringBuilder();
+
+    sb.append(FORMAT).append('\n');
+    sb.append(optionsKey).append('\n');
+    sb.append(EPInfo.method.getSignature()).append('\n');
+    sb.append(EPInfo.name).append('\n');
+    sb.append(EPInfo.requestMethod).append('\n');
+    sb.append(EPInfo.classMappingPath).append('\n');
+    sb.append(EPInfo.methodMappingPath).append('\n');
+    sb.append(EPInfo.responseStatus).append('\n');
+    for(EndPointParamInfo pI: EPInfo.parameterInfo){
+      sb.append(String.format("%d %s %s %s %s %s\n", pI.index, pI.name, pI.in, pI.required, pI.defaultValue, pI.type));
+    }
+
+    // sorted, so the key does not depend on the order the closure is visited in
+    TreeMap<String, String> closureHashes=new TreeMap<>();
+
+    ReachableMethods closure=new ReachableMethods(cg, Arrays.asList(EPInfo.method));
+    QueueReader<MethodOrMethodContext> qReader = closure.listener();
+    closure.update();
+
+    HashSet<SootClass> classes=new HashSet<>();
+    while(qReader.hasNext()){
+      SootMethod m=qReader.next().method();
+      classes.add(m.getDeclaringClass());
+
+      // the <clinit> of the declaring class gives the examples of a static field
+      if(m.hasActiveBody()){
+        for(ValueBox vb: m.getActiveBody().getUseAndDefBoxes()){
+          if(vb.getValue() instanceof StaticFieldRef){
+            classes.add(((StaticFieldRef) vb.getValue()).getFieldRef().declaringClass());
+          }
+        }
+      }
+    }
+
+    // the request and response schemas read the fields of these, which may never be called
+    for(Type t: EPInfo.method.getParameterTypes()){
+      addSchemaClasses(t, classes);
+    }
+    addSchemaClasses(EPInfo.method.getReturnType(), classes);
+
+    for(SootClass c: classes){
+      closureHashes.computeIfAbsent(c.getName(), n -> classHashes.computeIfAbsent(c, this::hashClass));
+    }
+
+    for(Map.Entry<String, String> kv: closureHashes.entrySet()){
+      sb.append(kv.getKey()).append('=').append(kv.getValue()).append('\n');
+    }
+
+    md.update(sb.toString().getBytes(StandardCharsets.UTF_8));
+    return toHex(md.digest());
+  }
+
+  // the class of t and the classes of its fields, transitively, leaving out the JDK
+  static void addSchemaClasses(Type t, HashSet<SootClass> classes){
+    if(t instanceof ArrayType){
+      t=((ArrayType) t).baseType;
+    }
+    if(!(t instanceof RefType)){
+      return;
+    }
+
+    SootClass c=((RefType) t).getSootClass();
+    if(c.isPhantom() || c.isJavaLibraryClass() || !classes.add(c)){
+      return;
+    }
+    for(SootField f: c.getFields()){
+      addSchemaClasses(f.getType(), classes);
+    }
+  }
+
+  Path pathOf(String key){
+    return dir.resolve(key.substring(0, 2)).resolve(key+".json");
+  }
+
+  // null if not cached or not readable
+  public CachedEndpoint load(String key){
+    Path p=pathOf(key);
+    if(!Files.exists(p)){
+      misses.incrementAndGet();
+      return null;
+    }
+
+    try(Reader reader=Files.newBufferedReader(p, StandardCharsets.UTF_8)){
+      CachedEndpoint rec=gson.fromJson(reader, CachedEndpoint.class);
+      if(rec==null || !rec.fieldsResolve()){
+        misses.incrementAndGet();
+        return null;
+      }
+      hits.incrementAndGet();
+      return rec;
+    }
+    catch(IOException | JsonParseException e){
+      logger.warn(String.format("ignoring unreadable cache entry %s: %s", p, e.getMessage()));
+      misses.incrementAndGet();
+      return null;
+    }
+  }
+
+  public void store(String key, CachedEndpoint rec){
+    Path p=pathOf(key);
+    try{
+      Files.createDirectories(p.getParent());
+
+      // write aside and move, so a killed run never leaves a truncated entry
+      Path tmp=Files.createTempFile(p.getParent(), key, ".tmp");
+      try(Writer writer=Files.newBufferedWriter(tmp, StandardCharsets.UTF_8)){
+        gson.toJson(rec, writer);
+      }
+      Files.move(tmp, p, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+    catch(IOException e){
+      logger.warn(String.format("failed to write cache entry %s: %s", p, e.getMessage()));
+    }
+  }
+}
@@ -0,0 +1,228 @@
+package org.rest.Respector.AppMain;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.rest.Respector.LoopInfo.MethodLoopInfo;
+import org.rest.Respector.MyPassBase.CallGraphProvider;
+import org.rest.Respector.PathCondExtract.PathSearchStrategy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Options given as "--name=value" on the command line, before the class paths and the output file.
+ */
+public class AnalysisOptions {
+  // number of endpoint methods analyzed concurrently, 1 means the serial analysis
+  public int threads=1;
+
+  // instantiate cached callee summaries at call sites instead of inlining callees
+  public boolean calleeSummaries=false;
+
+  // directory of the on-disk cache of endpoint analyses, null disables it
+  public String cacheDir=null;
+
+  // exploration limits of each endpoint method, 0 means unlimited
+  public int pathLimit=5000;
+  public int livePathLimit=0;
+  public long endpointTimeoutMs=0;
+  public long solverBudgetMs=0;
+  // for the analysis of all endpoint methods, endpoints left when it passes keep what they found so far
+  public long deadlineMs=0;
+
+  // limits of each simplification tactic chain, see SimplificationBudget, 0 means unlimited
+  public int simplifyTimeoutMs=10000;
+  public int simplifyRlimit=0;
+  // disjuncts of a parameter constraint simplified together
+  public int simplifyChunk=64;
+
+  // order of resuming unfinished paths, see PathSearchStrategy.of
+  public String search="dfs";
+
+  // write <spec>.metrics.json and <spec>.metrics.csv next to the spec
+  public boolean metrics=true;
+
+  // the one call graph of the run: cha, rta, vta or spark
+  public CallGraphProvider.Algorithm callGraph=CallGraphProvider.Algorithm.CHA;
+
+  // Jimplify only the application classes the endpoints can reach, see SceneSlicer
+  public boolean sceneSlice=true;
+
+  // where the feasibility checks are solved: jni in the analysis JVM, or process in z3 processes, see Z3ProcessPool
+  public String solver="jni";
+  public String z3Path="z3";
+  // 0 means one per thread
+  public int solverProcesses=0;
+  // of each check in a z3 process, 0 means unlimited
+  public long solverTimeoutMs=10000;
+
+  // decide the trivial path conditions without Z3, see QuickFeasibility
+  public boolean quickFeasibility=true;
+  // check the branches of an if or switch with assumption literals in one solver session
+  public boolean batchSiblings=true;
+
+  // fold the paths of an if statement that meet again a few statements later, see PathMerger
+  public boolean mergePaths=false;
+
+  // chunks of paths waiting for simplification while exploration goes on, 0 to simplify on the exploring thread
+  public int pipelineDepth=4;
+
+  // do not enter the application callees that can not change the outcome of a path, see MethodEffects
+  public boolean skipCallees=true;
+
+  // do not fork on the ifs whose branches do not matter to the spec, see BranchRegion
+  public boolean pruneBranches=true;
+
+  // step over the loops that LoopSummary can summarize
+  public boolean loopSummaries=true;
+  // how often a path may pass the header of a loop that is not summarized
+  public int loopUnroll=MethodLoopInfo.maxOccurForHeader;
+
+  public List<String> positionalArgs=new ArrayList<>();
+
+  private static Logger logger = LoggerFactory.getLogger(AnalysisOptions.class);
+
+  public static AnalysisOptions parse(String[] args) {
+    AnalysisOptions options=new AnalysisOptions();
+
+    for(String arg: args){
+      if(!arg.startsWith("--")){
+        options.positionalArgs.add(arg);
+        continue;
+      }
+
+      int eq=arg.indexOf('=');
+      String name=eq<0?arg.substring(2):arg.substring(2, eq);
+      String value=eq<0?"true":arg.substring(eq+1);
+
+      switch (name) {
+        case "threads":
+          options.threads=Integer.parseInt(value);
+          if(options.threads<=0){
+            options.threads=Runtime.getRuntime().availableProcessors();
+          }
+          break;
+
+        case "callee-summaries":
+          options.calleeSummaries=Boolean.parseBoolean(value);
+          break;
+
+        case "cache-dir":
+          options.cacheDir=value;
+          break;
+
+        case "path-limit":
+          options.pathLimit=Integer.parseInt(value);
+          break;
+
+        case "live-path-limit":
+          options.livePathLimit=Integer.parseInt(value);
+          break;
+
+        // seconds
+        case "endpoint-timeout":
+          options.endpointTimeoutMs=(long) (Double.parseDouble(value)*1000);
+          break;
+
+        case "solver-budget":
+          options.solverBudgetMs=(long) (Double.parseDouble(value)*1000);
+          break;
+
+        case "deadline":
+          options.deadlineMs=(long) (Double.parseDouble(value)*1000);
+          break;
+
+        case "simplify-timeout":
+          options.simplifyTimeoutMs=(int) (Double.parseDouble(value)*1000);
+          break;
+
+        case "simplify-rlimit":
+          options.simplifyRlimit=Integer.parseInt(value);
+          break;
+
+        case "simplify-chunk":
+          options.simplifyChunk=Integer.parseInt(value);
+          break;
+
+        case "search":
+          // fail early on a typo
+          PathSearchStrategy.of(value);
+          options.search=value;
+          break;
+
+        case "metrics":
+          options.metrics=Boolean.parseBoolean(value);
+          break;
+
+        case "call-graph":
+          options.callGraph=CallGraphProvider.parse(value);
+          break;
+
+        case "scene-slice":
+          options.sceneSlice=Boolean.parseBoolean(value);
+          break;
+
+        case "solver":
+          if(!value.equals("jni") && !value.equals("process")){
+            throw new IllegalArgumentException(String.format("--solver must be jni or process, not %s", value));
+          }
+          options.solver=value;
+          break;
+
+        case "z3-path":
+          options.z3Path=value;
+          break;
+
+        case "solver-processes":
+          options.solverProcesses=Integer.parseInt(value);
+          break;
+
+        case "solver-timeout":
+          options.solverTimeoutMs=(long) (Double.parseDouble(value)*1000);
+          break;
+
+        case "quick-feasibility":
+          options.quickFeasibility=Boolean.parseBoolean(value);
+          break;
+
+        case "batch-siblings":
+          options.batchSiblings=Boolean.parseBoolean(value);
+          break;
+
+        case "merge-paths":
+          options.mergePaths=Boolean.parseBoolean(value);
+          break;
+
+        case "pipeline-depth":
+          options.pipelineDepth=Integer.parseInt(value);
+          break;
+
+        case "skip-callees":
+          options.skipCallees=Boolean.parseBoolean(value);
+          break;
+
+        case "prune-branches":
+          options.pruneBranches=Boolean.parseBoolean(value);
+          break;
+
+        case "loop-summaries":
+          options.loopSummaries=Boolean.parseBoolean(value);
+          break;
+
+        case "loop-unroll":
+          options.loopUnroll=Integer.parseInt(value);
+          if(options.loopUnroll<1){
+            throw new IllegalArgumentException(String.format("--loop-unroll must be at least 1, not %d", options.loopUnroll));
+          }
+          break;
+
+        default:
+          throw new IllegalArgumentException(String.format("unknown option --%s", name));
+      }
+
+      logger.info(String.format("option %s=%s", name, value));
+    }
+
+    return options;
+  }
+}
@@ -0,0 +1,236 @@
+package org.rest.Respector.AppMain;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.TreeMap;
+
+import org.rest.Respector.PathCondExtract.ConditionPred;
+import org.rest.Respector.PathCondExtract.EndPointParameter;
+import org.rest.Respector.Simplification.DisjunctOverConjuncSimpl;
+import org.rest.Respector.SpecGen.Spec.Path.EndPointOp.Parameters.ParameterObj;
+import org.rest.Respector.SpecGen.Spec.Path.EndPointOp.Parameters.Schema.ParamSchemaObj;
+import org.rest.Respector.Z3ToOAS.ToParamKeyword;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonElement;
+import com.microsoft.z3.BoolExpr;
+
+import soot.Scene;
+import soot.SootField;
+import soot.Value;
+
+/**
+ * What MainTransform merges into the spec for one endpoint, as plain data.
+ * Built from an EndpointAnalysisResult on the merge thread (the Z3 translation to parameter
+ * keywords happens here), and stored as JSON in the AnalysisCache.
+ */
+public class CachedEndpoint {
+  public static class Response {
+    public int code;
+    public boolean valid;
+    public JsonElement schema;
+
+    public Response(int code, boolean valid, JsonElement schema) {
+      this.code = code;
+      this.valid = valid;
+      this.schema = schema;
+    }
+  }
+
+  public static class Example {
+    public String name;
+    public JsonElement value;
+
+    public Example(String name, JsonElement value) {
+      this.name = name;
+      this.value = value;
+    }
+  }
+
+  // the schema keywords ToParamKeyword can set
+  public static class Param {
+    public int idx;
+    public ArrayList<Example> examples=new ArrayList<>();
+    public ArrayList<String> constraints=new ArrayList<>();
+
+    public boolean required;
+    public Integer maxLength;
+    public Integer minLength;
+    public Number maximum;
+    public Boolean exclusiveMaximum;
+    public Number minimum;
+    public Boolean exclusiveMinimum;
+    public Integer multipleOf;
+
+    void readKeywords(ParameterObj parameterObj){
+      ParamSchemaObj s=parameterObj.schema;
+      this.required=parameterObj.isRequired();
+      this.maxLength=s.maxLength;
+      this.minLength=s.minLength;
+      this.maximum=s.maximum;
+      this.exclusiveMaximum=s.exclusiveMaximum;
+      this.minimum=s.minimum;
+      this.exclusiveMinimum=s.exclusiveMinimum;
+      this.multipleOf=s.multipleOf;
+    }
+
+    // keywords and untranslated constraints, the measure of spec coverage logged by MainTransform
+    public int numConstraints(){
+      int n=constraints.size();
+      for(Object kw: new Object[]{maxLength, minLength, maximum, exclusiveMaximum, minimum, exclusiveMinimum, multipleOf}){
+        if(kw!=null){
+          ++n;
+        }
+      }
+      return n;
+    }
+
+    public void writeKeywords(ParameterObj parameterObj){
+      ParamSchemaObj s=parameterObj.schema;
+      parameterObj.setRequired(this.required);
+      s.maxLength=this.maxLength;
+      s.minLength=this.minLength;
+      // gson reads numbers back as LazilyParsedNumber, keep them integers like ToParamKeyword does
+      s.maximum=this.maximum==null?null:this.maximum.intValue();
+      s.exclusiveMaximum=this.exclusiveMaximum;
+      s.minimum=this.minimum==null?null:this.minimum.intValue();
+      s.exclusiveMinimum=this.exclusiveMinimum;
+      s.multipleOf=this.multipleOf;
+    }
+  }
+
+  public static class Global {
+    // SootField signature
+    public String field;
+    public ArrayList<JsonElement> examples=new ArrayList<>();
+    public ArrayList<String> constraints=new ArrayList<>();
+
+    public Global(String field) {
+      this.field = field;
+    }
+  }
+
+  // see EndpointAnalysis.truncatedBy
+  public String truncated=null;
+
+  public TreeMap<Integer, String> paramNames=new TreeMap<>();
+  public ArrayList<Response> responses=new ArrayList<>();
+  public ArrayList<ArrayList<String>> rawValid=new ArrayList<>();
+  public ArrayList<ArrayList<String>> rawInvalid=new ArrayList<>();
+  public ArrayList<String> validConds=new ArrayList<>();
+  public ArrayList<Param> params=new ArrayList<>();
+
+  // SootField signatures, in the order the analysis found them
+  public ArrayList<String> globalReads=new ArrayList<>();
+  public ArrayList<String> globalWriteFields=new ArrayList<>();
+  public ArrayList<ArrayList<String>> globalWriteValues=new ArrayList<>();
+  public ArrayList<Global> globals=new ArrayList<>();
+
+  private static Logger logger = LoggerFactory.getLogger(CachedEndpoint.class);
+
+  // a cached record naming a field that is no longer in the scene can not be merged
+  public boolean fieldsResolve(){
+    ArrayList<String> fields=new ArrayList<>(globalReads);
+    fields.addAll(globalWriteFields);
+    for(Global global: globals){
+      fields.add(global.field);
+    }
+
+    for(String sig: fields){
+      if(Scene.v().grabField(sig)==null){
+        return false;
+      }
+    }
+    return true;
+  }
+
+  // translates the simplified constraints of the endpoint parameters into paramSMap,
+  // the schema keywords are then read back from it
+  public static CachedEndpoint of(EndpointAnalysisResult result, Map<Integer, ParameterObj> paramSMap){
+    Gson gson=new Gson();
+    CachedEndpoint rec=new CachedEndpoint();
+
+    rec.truncated=result.pass.truncatedBy;
+    rec.paramNames.putAll(result.pass.paramNames);
+
+    for(Map.Entry<Integer, ArrayList<JsonElement>> kw: result.validStatusCode.entrySet()){
+      rec.responses.add(new Response(kw.getKey(), true, kw.getValue().get(0)));
+    }
+    for(Map.Entry<Integer, ArrayList<JsonElement>> kw: result.invalidStatusCode.entrySet()){
+      rec.responses.add(new Response(kw.getKey(), false, kw.getValue().get(0)));
+    }
+
+    rec.rawValid.addAll(result.rawValid);
+    rec.rawInvalid.addAll(result.rawInvalid);
+    rec.validConds.addAll(result.validConds);
+
+    for(Map.Entry<EndPointParameter, HashSet<ArrayList<ConditionPred>>> kv: result.simplification.C_epp.entrySet()){
+      EndPointParameter epp=kv.getKey();
+
+      if(!epp.isEPP){
+        continue;
+      }
+
+      ParameterObj parameterObj=paramSMap.get(epp.idx);
+
+      if(parameterObj==null){
+        logger.debug(String.format("constraints on Request Body Parameter %s", epp.getName()));
+        continue;
+      }
+
+      Param param=new Param();
+      param.idx=epp.idx;
+
+      for(Object eg: result.eppExamples.get(epp)){
+        param.examples.add(new Example(eg.toString(), gson.toJsonTree(eg)));
+      }
+
+      DisjunctOverConjuncSimpl disjunctOverConjuncSimpl=result.eppSimpl.get(epp);
+      ArrayList<BoolExpr> simplifedCepp=disjunctOverConjuncSimpl.simplifiedGoals;
+
+      if(!simplifedCepp.isEmpty()){
+        ArrayList<BoolExpr> notTranslated=ToParamKeyword.translate(simplifedCepp, epp, parameterObj, disjunctOverConjuncSimpl);
+
+        for(BoolExpr expr: notTranslated){
+          param.constraints.add(expr.toString());
+        }
+      }
+
+      param.readKeywords(parameterObj);
+      rec.params.add(param);
+    }
+
+    for(SootField g: result.pass.globalVarRead){
+      rec.globalReads.add(g.getSignature());
+    }
+
+    for(Map.Entry<SootField, ArrayList<Value>> kv: result.pass.gloablVarWrite.entrySet()){
+      rec.globalWriteFields.add(kv.getKey().getSignature());
+
+      ArrayList<String> vals=new ArrayList<>();
+      for(Value v: kv.getValue()){
+        vals.add(v.toString());
+      }
+      rec.globalWriteValues.add(vals);
+    }
+
+    for(SootField g: result.simplification.C_g.keySet()){
+      Global global=new Global(g.getSignature());
+
+      for(Object eg: result.globalExamples.get(g)){
+        global.examples.add(gson.toJsonTree(eg));
+      }
+
+      for(BoolExpr expr: result.globalSimpl.get(g).simplifiedGoals){
+        global.constraints.add(expr.toString());
+      }
+
+      rec.globals.add(global);
+    }
+
+    return rec;
+  }
+}
@@ -0,0 +1,59 @@
+package org.rest.Respector.AppMain;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+
+import org.rest.Respector.PathCondExtract.EndPointParameter;
+import org.rest.Respector.PathCondExtract.EndpointAnalysis;
+import org.rest.Respector.Simplification.DisjunctOverConjuncSimpl;
+import org.rest.Respector.Simplification.SimplificationResult;
+
+import com.google.gson.JsonElement;
+
+import soot.SootField;
+
+/**
+ * Everything computed for one endpoint method that does not touch the SpecObj.
+ * It can be produced on a worker thread and is merged into the spec in endpoint order.
+ * The Z3 contexts of the simplifications stay open until closeCtx() is called by the merge.
+ */
+public class EndpointAnalysisResult {
+  public final EndpointAnalysis pass;
+
+  public HashMap<Integer, ArrayList<JsonElement>> validStatusCode = new HashMap<>();
+  public HashMap<Integer, ArrayList<JsonElement>> invalidStatusCode = new HashMap<>();
+
+  public ArrayList<ArrayList<String>> rawValid=new ArrayList<>();
+  public ArrayList<ArrayList<String>> rawInvalid=new ArrayList<>();
+
+  public SimplificationResult simplification=null;
+
+  // conjunctions of the simplified commonPreds clusters
+  public ArrayList<String> validConds=new ArrayList<>();
+
+  public LinkedHashMap<EndPointParameter, HashSet<Object>> eppExamples=new LinkedHashMap<>();
+  public LinkedHashMap<EndPointParameter, DisjunctOverConjuncSimpl> eppSimpl=new LinkedHashMap<>();
+
+  public LinkedHashMap<SootField, HashSet<Object>> globalExamples=new LinkedHashMap<>();
+  public LinkedHashMap<SootField, DisjunctOverConjuncSimpl> globalSimpl=new LinkedHashMap<>();
+
+  public RunMetrics.EndpointMetrics metrics=null;
+
+  public EndpointAnalysisResult(EndpointAnalysis pass) {
+    this.pass = pass;
+  }
+
+  public void closeCtx() {
+    for(DisjunctOverConjuncSimpl s: eppSimpl.values()){
+      s.closeCtx();
+    }
+    for(DisjunctOverConjuncSimpl s: globalSimpl.values()){
+      s.closeCtx();
+    }
+
+    eppSimpl.clear();
+    globalSimpl.clear();
+  }
+}
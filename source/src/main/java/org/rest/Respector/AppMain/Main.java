@@ -5,6 +5,8 @@ import java.util.Arrays;
 import java.util.List;
 
 import org.rest.Respector.EndPointRecog.PreprocessFramework;
+import org.rest.Respector.MyPassBase.CallGraphProvider;
+import org.rest.Respector.MyPassBase.SceneSlicer;
 
 import soot.*;
 import soot.Scene;
@@ -12,12 +14,46 @@ import soot.options.Options;
 
 public class Main {
   public static void main(String[] args) {
-    assert args.length>=2;
-    List<String> argsList=Arrays.asList(args);
-    List<String> process_dir=argsList.subList(0, args.length-1);
+    AnalysisOptions analysisOptions=AnalysisOptions.parse(args);
+
+    List<String> argsList=analysisOptions.positionalArgs;
+    assert argsList.size()>=2;
+    List<String> process_dir=argsList.subList(0, argsList.size()-1);
+    
+    String outputFile=argsList.get(argsList.size()-1);
+
+    long t0=System.nanoTime();
+    loadScene(process_dir);
+    double loadMs=RunMetrics.msSince(t0);
+
+    t0=System.nanoTime();
+    PreprocessFramework endPointInfoWithData=PreprocessFramework.getEndPointInfo(Scene.v());
+    double recogMs=RunMetrics.msSince(t0);
+
+    t0=System.nanoTime();
+    if(analysisOptions.sceneSlice){
+      SceneSlicer.slice(endPointInfoWithData);
+    }
+    double sliceMs=RunMetrics.msSince(t0);
     
-    String outputFile=argsList.get(args.length-1);
+    Options.v().set_output_format(Options.output_format_jimple);
+
+    MainTransform mainTransform=new MainTransform(endPointInfoWithData, outputFile, analysisOptions);
+    mainTransform.metrics.addPhase("soot-loading", loadMs);
+    mainTransform.metrics.addPhase("endpoint-recognition", recogMs);
+    mainTransform.metrics.addPhase("scene-slicing", sliceMs);
+
+    Transform MyApp1=new Transform("wjtp.MyApp", mainTransform);
+    PackManager.v().getPack("wjtp").add(MyApp1);
+
+    CallGraphProvider.configure(analysisOptions.callGraph, endPointInfoWithData);
 
+    mainTransform.packsStartNanos=System.nanoTime();
+    PackManager.v().runPacks();
+  }
+
+  // the Soot setup of every Respector run, also used by the benchmarks
+  public static void loadScene(List<String> process_dir) {
     String sourceDirectory = System.getProperty("user.dir");
 
     G.reset();
@@ -44,7 +80,7 @@ public class Main {
     Options.v().set_write_local_annotations(true);
 
     Options.v().set_whole_program(true);
-    // Call-graph options
+    // Call-graph options, the algorithm and the entry points are set by CallGraphProvider.configure
     Options.v().setPhaseOption("cg", "library:any-subtype");
     // Options.v().setPhaseOption("cg", "safe-newinstance:true");
     Options.v().setPhaseOption("cg", "all-reachable");
@@ -67,14 +103,5 @@ public class Main {
     Options.v().set_no_bodies_for_excluded(true);
     // Options.v().set_app(true);
     Scene.v().loadNecessaryClasses();
-
-    PreprocessFramework endPointInfoWithData=PreprocessFramework.getEndPointInfo(Scene.v());
-    
-    Options.v().set_output_format(Options.output_format_jimple);
-
-    Transform MyApp1=new Transform("wjtp.MyApp", new MainTransform(endPointInfoWithData, outputFile));
-    PackManager.v().getPack("wjtp").add(MyApp1);
-
-    PackManager.v().runPacks();
   }
 }
@@ -10,6 +10,7 @@ import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
@@ -18,6 +19,11 @@ import java.util.Optional;
 import java.util.Set;
 import java.util.TreeMap;
 import java.util.Map.Entry;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.function.Function;
 import java.util.stream.Collectors;
 
@@ -74,7 +80,9 @@ import org.rest.Respector.MyPassBase.MyTransformBase;
 import org.rest.Respector.PathCondExtract.ConditionPred;
 import org.rest.Respector.PathCondExtract.EndPointParameter;
 import org.rest.Respector.PathCondExtract.EndpointAnalysis;
+import org.rest.Respector.PathCondExtract.ExplorationBudget;
 import org.rest.Respector.PathCondExtract.PathConstraint;
+import org.rest.Respector.PathCondExtract.PathSearchStrategy;
 import org.rest.Respector.PathRecord.MethodEntryRecord;
 import org.rest.Respector.PathRecord.ParamInfo;
 import org.rest.Respector.PathRecord.PathRecord;
@@ -82,6 +90,10 @@ import org.rest.Respector.PathRecord.PathRecordBase;
 import org.rest.Respector.PathRecord.PathRecordBase.RecordType;
 import org.rest.Respector.Simplification.ClusterSimpl;
 import org.rest.Respector.Simplification.DisjunctOverConjuncSimpl;
+import org.rest.Respector.Simplification.FeasibilityCache;
+import org.rest.Respector.Simplification.SimplificationBudget;
+import org.rest.Respector.Simplification.Z3ProcessPool;
+import org.rest.Respector.Simplification.Z3ContextPool;
 import org.rest.Respector.Simplification.PathFeasibility;
 import org.rest.Respector.Simplification.SimplificationResult;
 import org.rest.Respector.Simplification.SootToZ3;
@@ -114,9 +126,15 @@ import org.slf4j.LoggerFactory;
 
 public class MainTransform extends MyTransformBase {
   public MainTransform(PreprocessFramework preprocessReuslt, String outputFilePath) {
+    this(preprocessReuslt, outputFilePath, new AnalysisOptions());
+  }
+
+  public MainTransform(PreprocessFramework preprocessReuslt, String outputFilePath, AnalysisOptions analysisOptions) {
     super(preprocessReuslt, false);
 
     this.outputFile=Paths.get(outputFilePath);
+    this.analysisOptions=analysisOptions;
+    this.simplificationBudget=new SimplificationBudget(analysisOptions.simplifyTimeoutMs, analysisOptions.simplifyRlimit, analysisOptions.simplifyChunk);
   }
 
   // protected int globalUIDCnt = 0;
@@ -128,6 +146,18 @@ public class MainTransform extends MyTransformBase {
 
   public Path outputFile;
 
+  public final AnalysisOptions analysisOptions;
+
+  boolean printRaw = false;
+
+  // System.nanoTime() of the global deadline, 0 if none
+  long deadlineNanos=0;
+
+  public final RunMetrics metrics=new RunMetrics();
+  final SimplificationBudget simplificationBudget;
+  // set by Main, when Soot starts the packs that build the call graph before this transform
+  public long packsStartNanos=0;
+
   protected int operationIdCnt=0;
   String getNewOperationId(){
     return String.format("em%d", this.operationIdCnt++);
@@ -151,7 +181,7 @@ public class MainTransform extends MyTransformBase {
   TreeMap<Integer, ParameterObj> createParams(ArrayList<EndPointParamInfo> paramInfo, EndPointOperationObj endPointOperationObj, EndPointMethodInfo EPInfo){
     TreeMap<Integer, ParameterObj> paramSMap=new TreeMap<>();
     for(EndPointParamInfo pI: paramInfo){
-      if(pI.in==paramLoction.formData || pI.in==paramLoction.body){
+      if(!hasParameterObj(pI)){
         endPointOperationObj.createRequestBodyParamObj(pI);
         continue;
       }
@@ -166,7 +196,7 @@ public class MainTransform extends MyTransformBase {
 
     logger.info("total number of endpoint parameters for this method detected: " + paramInfo.size());
 
-    ArrayList<String> reqParams=ExtractParamFromReq.extractParamFromRequest(Scene.v().getCallGraph(), EPInfo);
+    ArrayList<String> reqParams=ExtractParamFromReq.extractParamFromRequest(this.CG, EPInfo);
     for(String paramName: reqParams){
       endPointOperationObj.createRequestBodyParamObj(paramName, "string");
     }
@@ -286,18 +316,402 @@ public class MainTransform extends MyTransformBase {
     return allPotentialStatusCodes;
   }
 
+  static boolean hasParameterObj(EndPointParamInfo pI){
+    return pI.in!=paramLoction.formData && pI.in!=paramLoction.body;
+  }
+
+  // the part of analyzeEndpoint after each buildPaths, on the thread of the PathChunkPipeline
+  void consumeChunk(EndpointAnalysisResult result, PathChunkPipeline.Chunk chunk){
+    RunMetrics.EndpointMetrics m=result.metrics;
+
+    ArrayList<PathConstraint> validPaths=chunk.validPaths;
+
+    for (PathConstraint p : validPaths) {
+      result.validStatusCode.computeIfAbsent(p.HTTPStatusCode, e -> new ArrayList<>()).add(p.responseSchema);
+
+
+      if (printRaw) {
+        ArrayList<String> condStr = new ArrayList<>();
+        for (ConditionPred pred : p.conds) {
+          if (pred.inLoopHeader) {
+            continue;
+          }
+          condStr.add(String.format("%s", pred.uniCond.toString()));
+        }
+
+        if (!condStr.isEmpty()) {
+          result.rawValid.add(condStr);
+        }
+      }
+    }
+
+    long t0=System.nanoTime();
+    SimplificationResult s1 = SimplificationResult.doSimplification(validPaths);
+    
+    if(result.simplification==null){
+      result.simplification=s1;
+    }
+    else{
+      result.simplification.merge(s1);
+    }
+    m.simplificationMs+=RunMetrics.msSince(t0);
+    m.validPaths+=validPaths.size();
+
+    ArrayList<PathConstraint> invalidPaths = chunk.invalidPaths;
+    m.invalidPaths+=invalidPaths.size();
+
+    for (PathConstraint p : invalidPaths) {
+      result.invalidStatusCode.computeIfAbsent(p.HTTPStatusCode, e -> new ArrayList<>()).add(p.responseSchema);
+
+      if (printRaw) {
+        ArrayList<String> condStr = new ArrayList<>();
+        for (ConditionPred pred : p.conds) {
+          if (pred.inLoopHeader) {
+            continue;
+          }
+
+          condStr.add(String.format("%s", pred.uniCond));
+        }
+
+        if (!condStr.isEmpty()) {
+          result.rawInvalid.add(condStr);
+        }
+      }
+
+    }
+  }
+
+  // explores the paths of one endpoint method and simplifies their constraints
+  // runs on a worker thread when options.threads>1, so it must not touch specObj, globalMap or operation ids
+  EndpointAnalysisResult analyzeEndpoint(EndPointMethodInfo EPInfo){
+    return analyzeEndpoint(EPInfo, EndpointAnalysis.paramNamesOf(EPInfo));
+  }
+
+  EndpointAnalysisResult analyzeEndpoint(EndPointMethodInfo EPInfo, TreeMap<Integer, String> paramNames){
+    int pathLimit=this.analysisOptions.pathLimit>0?this.analysisOptions.pathLimit:Integer.MAX_VALUE;
+    EndpointAnalysis pass = new EndpointAnalysis(EPInfo, this, pathLimit, paramNames);
+    pass.budget=new ExplorationBudget(this.analysisOptions.endpointTimeoutMs*1000000, this.analysisOptions.solverBudgetMs*1000000,
+      this.analysisOptions.livePathLimit, this.deadlineNanos);
+    pass.setSearchStrategy(PathSearchStrategy.of(this.analysisOptions.search));
+    pass.mergePaths=this.analysisOptions.mergePaths;
+    pass.quickFeasibility=this.analysisOptions.quickFeasibility;
+    pass.batchSiblings=this.analysisOptions.batchSiblings;
+    pass.pruneBranches=this.analysisOptions.pruneBranches;
+    pass.loopSummaries=this.analysisOptions.loopSummaries;
+    pass.loopUnroll=this.analysisOptions.loopUnroll;
+    EndpointAnalysisResult result = new EndpointAnalysisResult(pass);
+    RunMetrics.EndpointMetrics m=new RunMetrics.EndpointMetrics(EPInfo.method.getSignature());
+    result.metrics=m;
+    long tStart=System.nanoTime();
+
+    // simplifies the chunks on its own thread while exploration goes on
+    PathChunkPipeline pipeline=new PathChunkPipeline(String.format("simplify %s", EPInfo.method.getSignature()),
+      this.analysisOptions.pipelineDepth, chunk -> consumeChunk(result, chunk));
+
+    try{
+      while (true) {
+        long t0=System.nanoTime();
+        boolean hasNextChunk= pass.buildPaths();
+        m.buildPathsMs+=RunMetrics.msSince(t0);
+
+        pipeline.put(new PathChunkPipeline.Chunk(pass.getValidPathsAndClear(), pass.getInvalidPathsAndClear()));
+
+        if(!hasNextChunk){
+          break;
+        }
+      }
+    }
+    finally{
+      pass.releaseFeasibilitySolver();
+      pipeline.finish();
+      m.pipelineWaitMs=pipeline.waitNanos/1e6;
+    }
+
+    SimplificationResult S_tmp=result.simplification;
+
+    if(S_tmp==null){
+      logger.error("S_tmp is null");
+      throw new RuntimeException();
+    }
+
+    long tSimpl=System.nanoTime();
+
+    // the contexts of the simplifications made so far go back to the pool when a later one fails
+    try{
+      logger.debug(String.format("%d clusters in commonPreds", S_tmp.commonPreds.size()));
+
+      for(HashSet<ConditionPred> predCluster: S_tmp.commonPreds.values()){
+        try(ClusterSimpl cSimpl=new ClusterSimpl(predCluster, simplificationBudget)){
+          ArrayList<ConditionPred> output=cSimpl.output;
+          ArrayList<String> conjunction=new ArrayList<>();
+          for(ConditionPred pred: output){
+            conjunction.add(String.format("( %s )", pred.uniCond.toString()));
+          }
+          result.validConds.add(String.join(" && ", conjunction));
+        }
+      }
+
+      // request body parameters get no ParameterObj, see createParams
+      HashSet<Integer> paramObjIndices=new HashSet<>();
+      for(EndPointParamInfo pI: EPInfo.parameterInfo){
+        if(hasParameterObj(pI)){
+          paramObjIndices.add(pI.index);
+        }
+      }
+
+      for(Map.Entry<EndPointParameter, HashSet<ArrayList<ConditionPred>>> kv:S_tmp.C_epp.entrySet()){
+        EndPointParameter epp=kv.getKey();
+
+        if(!epp.isEPP || !paramObjIndices.contains(epp.idx)){
+          continue;
+        }
+
+        HashSet<ArrayList<ConditionPred>> disjunction=kv.getValue();
+
+        result.eppExamples.put(epp, ConstraintToExamples.extractExamplesFromCepp(disjunction, epp));
+        result.eppSimpl.put(epp, new DisjunctOverConjuncSimpl(disjunction, simplificationBudget));
+      }
+
+      for(Map.Entry<SootField, HashSet<ArrayList<ConditionPred>>> kv:S_tmp.C_g.entrySet()){
+        SootField g=kv.getKey();
+
+        HashSet<ArrayList<ConditionPred>> disjunction=kv.getValue();
+
+        result.globalExamples.put(g, ConstraintToExamples.extractExamplesFromCg(disjunction, g));
+        result.globalSimpl.put(g, new DisjunctOverConjuncSimpl(disjunction, simplificationBudget));
+      }
+    }
+    catch(RuntimeException e){
+      result.closeCtx();
+      throw e;
+    }
+
+    m.simplificationMs+=RunMetrics.msSince(tSimpl);
+    m.analysisMs=RunMetrics.msSince(tStart);
+    m.truncated=pass.truncatedBy;
+    m.feasibilityMs=pass.budget.getSolverUsedNanos()/1e6;
+    m.pathsExplored=pass.totalPaths;
+    m.feasiblePaths=m.validPaths+m.invalidPaths;
+    m.solverCalls=pass.numSolverCalls;
+    m.feasibilityCacheHits=pass.numFeasibilityCacheHits;
+    m.quickDecisions=pass.numQuickDecisions;
+    m.batchedChecks=pass.numBatchedChecks;
+    m.peakLivePaths=pass.peakLivePaths;
+    m.mergedRegions=pass.numMergedRegions;
+    m.loopsSummarized=pass.numLoopsSummarized;
+    m.prunedBranches=pass.numPrunedBranches;
+    m.skippedCalls=pass.numSkippedCalls;
+    m.z3Contexts=pass.numZ3Contexts+S_tmp.commonPreds.size()+result.eppSimpl.size()+result.globalSimpl.size();
+
+    return result;
+  }
+
+  void submitEndpoint(ExecutorService workers, ArrayList<Future<EndpointAnalysisResult>> pending, ArrayList<CachedEndpoint> cachedRecs, int iEP){
+    EndPointMethodInfo EPInfo =this.preprocessReuslt.endPointMethodData.get(iEP);
+
+    if(!isAnalyzed(EPInfo) || cachedRecs.get(iEP)!=null){
+      return;
+    }
+
+    // the names as of the submission, the merges on this thread update the empty ones
+    TreeMap<Integer, String> paramNames=EndpointAnalysis.paramNamesOf(EPInfo);
+    int nEP=this.preprocessReuslt.endPointMethodData.size();
+    pending.set(iEP, workers.submit(() -> {
+      logger.info(String.format("%d/%d analyzing endpoint method %s on a worker", iEP+1, nEP, EPInfo.method.getSignature()));
+      return analyzeEndpoint(EPInfo, paramNames);
+    }));
+  }
+
+  // the endpoints internalTransform analyzes, the others are skipped before their paths are bound
+  static boolean isAnalyzed(EndPointMethodInfo EPInfo){
+    return EPInfo.method.hasActiveBody() && !EPInfo.requestMethod.isEmpty();
+  }
+
+  EndpointAnalysisResult takeEndpointResult(ArrayList<Future<EndpointAnalysisResult>> pending, int iEP){
+    Future<EndpointAnalysisResult> f=pending.get(iEP);
+    pending.set(iEP, null);
+
+    if(f==null){
+      return null;
+    }
+
+    try {
+      return f.get();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new RuntimeException(e);
+    } catch (ExecutionException e) {
+      throw new RuntimeException(e.getCause());
+    }
+  }
+
+  // adds the analysis of one endpoint to its operation and to the globals, in the serial order of internalTransform
+  void mergeEndpoint(CachedEndpoint rec, EndPointMethodInfo EPInfo, EndPointOperationObj endPointOperationObj, TreeMap<Integer, ParameterObj> paramSMap,
+      ArrayList<Integer> allPotentialStatusCodes, HashMap<GlobalVarInfo, ArrayList<EndPointMethodInfo>> globalToReaders,
+      HashMap<GlobalVarInfo, ArrayList<EndPointMethodInfo>> globalToWriters){
+
+    endPointOperationObj.truncated=rec.truncated;
+
+    for(ArrayList<String> condStr: rec.rawValid){
+      endPointOperationObj.addRawValid(condStr);
+    }
+
+    for(ArrayList<String> condStr: rec.rawInvalid){
+      endPointOperationObj.addRawInvalid(condStr);
+    }
+
+    updataEmptyEndPointParamName(EPInfo.parameterInfo, rec.paramNames, paramSMap);
+
+    TreeMap<Integer, StaticResponseInfo> resMap=this.preprocessReuslt.frameworkData.statusCodeToResponse;
+    for(CachedEndpoint.Response res: rec.responses){
+      Integer code = res.code;
+      StaticResponseInfo resInfo=resMap.get(code);
+      String description=resInfo!=null?resInfo.name:"";
+      endPointOperationObj.addResponse(new ResponseObj(code.toString(), description, res.schema));
+    }
+
+    for(Integer code: allPotentialStatusCodes){
+      if(!endPointOperationObj.responses.containsKey(code.toString())){
+        endPointOperationObj.addResponse(new ResponseObj(code.toString()));
+      }
+    }
+
+    for(String conjunction: rec.validConds){
+      endPointOperationObj.addValidCond(conjunction);
+    }
+
+    logger.debug(String.format("%d EPP has constraints", rec.params.size()));
+
+    for(CachedEndpoint.Param param: rec.params){
+      ParameterObj parameterObj=paramSMap.get(param.idx);
+
+      for(CachedEndpoint.Example eg: param.examples){
+        ExampleObj egObj=new ExampleObj(eg.value);
+
+        if(parameterObj.containsExampleName(eg.name)){
+          logger.debug(String.format("key %s already in examples", eg.name));
+
+          parameterObj.addExample(egObj);
+        }
+        else{
+          parameterObj.addExample(eg.name, egObj);
+        }
+      }
+
+      param.writeKeywords(parameterObj);
+
+      for(String exprStr: param.constraints){
+        parameterObj.schema.addConstraint(exprStr);
+      }
+    }
+
+    HashMap<SootField, GlobalRefObj> endPointGlobalRefMap=new HashMap<>();
+
+    Function<SootField, GlobalVarInfo> makeNewGlobalVar= (g -> {
+      int uid=UIDToGlobal.size();
+      UIDToGlobal.add(g);
+      return new GlobalVarInfo(g.getName(), uid, g.getDeclaringClass().getFilePath());
+    });
+
+    for (String sig : rec.globalReads) {
+      SootField g=Scene.v().getField(sig);
+      assert endPointGlobalRefMap.containsKey(g)==false;
+
+      GlobalVarInfo gInfo=globalMap.computeIfAbsent(g, makeNewGlobalVar);
+
+      GlobalRefObj gRefObj=new GlobalRefObj(gInfo);
+      endPointOperationObj.addGlobalRefObj(gRefObj);
+
+      endPointGlobalRefMap.put(g, gRefObj);
+
+      ArrayList<EndPointMethodInfo> readerList = globalToReaders.computeIfAbsent(gInfo, c -> new ArrayList<>());
+      readerList.add(EPInfo);
+    }
+
+    logger.debug(String.format("%d global var written", rec.globalWriteFields.size()));
+    for(int i=0;i<rec.globalWriteFields.size();++i){
+      SootField g=Scene.v().getField(rec.globalWriteFields.get(i));
+
+      GlobalVarInfo gInfo=globalMap.computeIfAbsent(g, makeNewGlobalVar);
+
+      GlobalWriteObj gWrObj=new GlobalWriteObj(gInfo);
+      endPointOperationObj.addGlobalWriteObj(gWrObj);
+
+      for(String v: rec.globalWriteValues.get(i)){
+        gWrObj.addValue(v);
+      }
+
+      ArrayList<EndPointMethodInfo> writerList = globalToWriters.computeIfAbsent(gInfo, c -> new ArrayList<>());
+      writerList.add(EPInfo);
+    }
+
+    logger.debug(String.format("%d globals has constraints", rec.globals.size()));
+
+    for(CachedEndpoint.Global global: rec.globals){
+      if(global.examples.isEmpty() && global.constraints.isEmpty()){
+        continue;
+      }
+
+      SootField g=Scene.v().getField(global.field);
+
+      GlobalRefObj gRefObj=endPointGlobalRefMap.get(g);
+      if(gRefObj==null){
+        GlobalVarInfo gInfo=globalMap.computeIfAbsent(g, makeNewGlobalVar);
+
+        gRefObj=new GlobalRefObj(gInfo);
+        endPointOperationObj.addGlobalRefObj(gRefObj);
+
+        endPointGlobalRefMap.put(g, gRefObj);
+      }
+
+      for(JsonElement eg: global.examples){
+        gRefObj.addExample(eg);
+      }
+
+      for(String exprStr: global.constraints){
+        gRefObj.addConstraint(exprStr);
+      }
+    }
+  }
+
   @Override
   protected void internalTransform(String phaseName, Map<String, String> options) {
 
+    if(this.analysisOptions.deadlineMs>0){
+      deadlineNanos=System.nanoTime()+this.analysisOptions.deadlineMs*1000000;
+      // 0 means no deadline
+      if(deadlineNanos==0){
+        deadlineNanos=1;
+      }
+    }
+
+    if(packsStartNanos!=0){
+      this.metrics.addPhase("call-graph", RunMetrics.msSince(packsStartNanos));
+    }
+
     icfg = new JimpleBasedInterproceduralCFG();
     printerSet = new HashMap<Body, BriefUnitPrinter>();
     // hierarchy = Scene.v().getActiveHierarchy();
-    bodyToLoopInfoCache = new HashMap<>();
+    bodyToLoopInfoCache = new ConcurrentHashMap<>();
 
-    buildCHACallGraph();
+    loadCallGraph();
+
+    // Soot creates the hierarchy lazily, do it before any worker asks for it
+    Scene.v().getActiveHierarchy();
+
+    if(this.analysisOptions.calleeSummaries){
+      calleeSummaries=new ConcurrentHashMap<>();
+    }
+    if(this.analysisOptions.skipCallees){
+      methodEffects=new ConcurrentHashMap<>();
+    }
+    if(this.analysisOptions.solver.equals("process")){
+      int n=this.analysisOptions.solverProcesses>0?this.analysisOptions.solverProcesses:this.analysisOptions.threads;
+      solverProcesses=new Z3ProcessPool(this.analysisOptions.z3Path, n, this.analysisOptions.solverTimeoutMs);
+      logger.info(String.format("feasibility checks go to %d %s processes", n, this.analysisOptions.z3Path));
+    }
 
     // int sum=0;
-    boolean printRaw = false;
     // boolean translateKeyword = true;
 
     SpecObj specObj = new SpecObj();
@@ -310,7 +724,58 @@ public class MainTransform extends MyTransformBase {
 
     HashMap<EndPointMethodInfo, ArrayList<Triple<String, String, String>>> endpointToPathsToCopies=new HashMap<>();
 
+    ArrayList<String> truncatedEndpoints=new ArrayList<>();
+    // what the analysis found, to compare search strategies and limits
+    int nResponses=0, nParamConstraints=0, nExamples=0;
+
+    // endpoints whose classes did not change since they were cached are not analyzed again
+    AnalysisCache cache=null;
+    ArrayList<String> cacheKeys=new ArrayList<>(Collections.nCopies(nEP, null));
+    ArrayList<CachedEndpoint> cachedRecs=new ArrayList<>(Collections.nCopies(nEP, null));
+
+    long tPhase;
+    if(this.analysisOptions.cacheDir!=null){
+      tPhase=System.nanoTime();
+      cache=new AnalysisCache(this.analysisOptions.cacheDir, this.CG, this.analysisOptions);
+
+      for(int iEP=0;iEP<nEP;++iEP){
+        EndPointMethodInfo EPInfo =this.preprocessReuslt.endPointMethodData.get(iEP);
+        if(!isAnalyzed(EPInfo)){
+          continue;
+        }
+
+        String key=cache.keyOf(EPInfo);
+        cacheKeys.set(iEP, key);
+        cachedRecs.set(iEP, cache.load(key));
+      }
+
+      logger.info(String.format("analysis cache %s: %d hits, %d misses", cache.dir, cache.hits.get(), cache.misses.get()));
+      this.metrics.addPhase("cache-lookup", RunMetrics.msSince(tPhase));
+    }
+
+    tPhase=System.nanoTime();
+
+    // endpoints are analyzed ahead on the workers, but merged into specObj in the serial order below,
+    // so that operation ids, global ids and the spec are the same as in a serial run
+    ExecutorService workers=null;
+    ArrayList<Future<EndpointAnalysisResult>> pending=new ArrayList<>(Collections.nCopies(nEP, null));
+    int window=2*this.analysisOptions.threads;
+    int nextSubmit=0;
+
+    if(this.analysisOptions.threads>1){
+      logger.info(String.format("analyzing endpoint methods with %d threads", this.analysisOptions.threads));
+      workers=Executors.newFixedThreadPool(this.analysisOptions.threads);
+    }
+
+    try{
+
     for (int iEP=0;iEP<nEP;++iEP) {
+      if(workers!=null){
+        for(;nextSubmit<nEP && nextSubmit<=iEP+window;++nextSubmit){
+          submitEndpoint(workers, pending, cachedRecs, nextSubmit);
+        }
+      }
+
       EndPointMethodInfo EPInfo =this.preprocessReuslt.endPointMethodData.get(iEP);
       SootMethod m = EPInfo.method;
 
@@ -332,18 +797,13 @@ public class MainTransform extends MyTransformBase {
       // }
       logger.info(String.format("%d/%d analyzing endpoint method %s", iEP+1, nEP, m.getSignature()));
 
-      if(!m.hasActiveBody()){
-        logger.debug(String.format("endpoint %s has no active body", m.getSignature()));
+      if(!isAnalyzed(EPInfo)){
+        logger.debug(String.format("endpoint %s has no active body or no HTTP method", m.getSignature()));
         continue;
       }
       
+      // may still be empty without mappings, then the loop below finds no binding
       ArrayList<Triple<String, ArrayList<EndPointParamInfo>, String>> allPathsBound=EPInfo.getPathAndParentPathParamAndOpTuple();
-
-      if(allPathsBound.isEmpty()){
-        logger.debug(String.format("endpoint %s has no HTTP method", m.getSignature()));
-
-        continue;
-      }
       
 
       EndPointOperationObj endPointOperationObj=null;
@@ -364,6 +824,11 @@ public class MainTransform extends MyTransformBase {
       if(firstBind==nPaths 
         || endPointOperationObj==null //subsumed by the first condition
       ){
+        // analyzed ahead by a worker, but all its bindings are taken
+        EndpointAnalysisResult unused=takeEndpointResult(pending, iEP);
+        if(unused!=null){
+          unused.closeCtx();
+        }
         continue;
       }
 
@@ -380,286 +845,47 @@ public class MainTransform extends MyTransformBase {
         // && 
         // !paramInfo.isEmpty()
         ) {
-        EndpointAnalysis pass = new EndpointAnalysis(EPInfo, this, 5000);
-       
-        HashMap<Integer, ArrayList<JsonElement>> validStatusCode = new HashMap<>();
-        HashMap<Integer, ArrayList<JsonElement>> invalidStatusCode = new HashMap<>();
-
-
-        SimplificationResult S_tmp=null;
-
-        while (true) {
-          boolean hasNextChunk= pass.buildPaths();
-
-          ArrayList<PathConstraint> validPaths=pass.getValidPathsAndClear();
-
-          for (PathConstraint p : validPaths) {
-            validStatusCode.computeIfAbsent(p.HTTPStatusCode, e -> new ArrayList<>()).add(p.responseSchema);
-
-  
-            if (printRaw) {
-              ArrayList<String> condStr = new ArrayList<>();
-              for (ConditionPred pred : p.conds) {
-                if (pred.inLoopHeader) {
-                  continue;
-                }
-                condStr.add(String.format("%s", pred.uniCond.toString()));
-              }
-  
-              if (!condStr.isEmpty()) {
-                endPointOperationObj.addRawValid(condStr);
-              }
-            }
-          }
-
-          SimplificationResult s1 = SimplificationResult.doSimplification(validPaths);
-          
-          if(S_tmp==null){
-            S_tmp=s1;
-          }
-          else{
-            S_tmp.merge(s1);
-          }
-
-          ArrayList<PathConstraint> invalidPaths = pass.getInvalidPathsAndClear();
-
-          for (PathConstraint p : invalidPaths) {
-            invalidStatusCode.computeIfAbsent(p.HTTPStatusCode, e -> new ArrayList<>()).add(p.responseSchema);
-  
-            if (printRaw) {
-              ArrayList<String> condStr = new ArrayList<>();
-              for (ConditionPred pred : p.conds) {
-                if (pred.inLoopHeader) {
-                  continue;
-                }
-  
-                condStr.add(String.format("%s", pred.uniCond));
-              }
-  
-              if (!condStr.isEmpty()) {
-                endPointOperationObj.addRawInvalid(condStr);
-              }
-            }
-  
-          }
-
-          if(!hasNextChunk){
-            break;
-          }
-        }
-
-        updataEmptyEndPointParamName(paramInfo, pass.paramNames, paramSMap);
-
-        TreeMap<Integer, StaticResponseInfo> resMap=this.preprocessReuslt.frameworkData.statusCodeToResponse;
-        for (Entry<Integer, ArrayList<JsonElement>> kw : validStatusCode.entrySet()) {
-          Integer code = kw.getKey();
-          ArrayList<JsonElement> resSchemas = kw.getValue();
-          if(resSchemas.size()>1){
-            logger.debug(String.format("multiple response schemas for status code %d", code));
-          }
-
-          StaticResponseInfo resInfo=resMap.get(code);
-          String description=resInfo!=null?resInfo.name:"";
-          endPointOperationObj.addResponse(new ResponseObj(code.toString(), description, resSchemas.get(0)));
-        }
-
-        for (Entry<Integer, ArrayList<JsonElement>> kw : invalidStatusCode.entrySet()) {
-          Integer code = kw.getKey();
-          ArrayList<JsonElement> resSchemas = kw.getValue();
-          if(resSchemas.size()>1){
-            logger.debug(String.format("multiple response schemas for status code %d", code));
-          }
-
-          StaticResponseInfo resInfo=resMap.get(code);
-          String description=resInfo!=null?resInfo.name:"";
-          endPointOperationObj.addResponse(new ResponseObj(code.toString(), description, resSchemas.get(0)));
-        }
-
-        for(Integer code: allPotentialStatusCodes){
-          if(!endPointOperationObj.responses.containsKey(code.toString())){
-            endPointOperationObj.addResponse(new ResponseObj(code.toString()));
-          }
-        }
-
-        // boolean onlyInvalid = validStatusCode.isEmpty();
-        // if (onlyInvalid) {// skip the endpoint method that are not supported yet
-        //   continue;
-        // }
-
-        if(S_tmp==null){
-          logger.error("S_tmp is null");
-          throw new RuntimeException();
-        }
+        long tMerge=System.nanoTime();
+        RunMetrics.EndpointMetrics endpointMetrics;
 
-        // endPointOperationObj.addValidCond("See rawValid because you skipped simplification module");
-        logger.debug(String.format("%d clusters in commonPreds", S_tmp.commonPreds.size()));
+        CachedEndpoint rec=cachedRecs.get(iEP);
+        if(rec==null){
+          EndpointAnalysisResult result=(workers!=null)?takeEndpointResult(pending, iEP):analyzeEndpoint(EPInfo);
+          tMerge=System.nanoTime();
+          endpointMetrics=result.metrics;
 
-        for(HashSet<ConditionPred> predCluster: S_tmp.commonPreds.values()){
-          ClusterSimpl cSimpl=new ClusterSimpl(predCluster);
-          ArrayList<ConditionPred> output=cSimpl.output;
-          ArrayList<String> conjunction=new ArrayList<>();
-          for(ConditionPred pred: output){
-            conjunction.add(String.format("( %s )", pred.uniCond.toString()));
+          try{
+            rec=CachedEndpoint.of(result, paramSMap);
           }
-          endPointOperationObj.addValidCond(String.join(" && ", conjunction));
-
-          cSimpl.closeCtx();
-        }
-
-        
-        // endPointOperationObj.addInvalidCond("See rawInvalid because you skipped simplification module");
-        
-
-        logger.debug(String.format("%d EPP has constraints", S_tmp.C_epp.size()));
-
-        for(Map.Entry<EndPointParameter, HashSet<ArrayList<ConditionPred>>> kv:S_tmp.C_epp.entrySet()){
-          EndPointParameter epp=kv.getKey();
-
-          if(!epp.isEPP){
-            continue;
+          finally{
+            result.closeCtx();
           }
 
-          HashSet<ArrayList<ConditionPred>> disjunction=kv.getValue();
-
-          ParameterObj parameterObj=paramSMap.get(epp.idx);
-
-          if(parameterObj==null){
-            logger.debug(String.format("constraints on Request Body Parameter %s", epp.getName()));
-            continue;
+          if(rec.truncated!=null){
+            truncatedEndpoints.add(String.format("%s (%s)", m.getSignature(), rec.truncated));
           }
 
-          HashSet<Object> examples = ConstraintToExamples.extractExamplesFromCepp(disjunction, epp);
-          if(!examples.isEmpty()){
-            for(Object eg: examples){
-              String egStr=eg.toString();
-              ExampleObj egObj=new ExampleObj(eg);
-        
-              if(parameterObj.containsExampleName(egStr)){
-                logger.debug(String.format("key %s already in examples", egStr));
-        
-                parameterObj.addExample(egObj);
-              }
-              else{
-                parameterObj.addExample(egStr, egObj);
-              }
-            }
+          // a result cut by a time limit may be complete in the next run
+          if(cache!=null && !ExplorationBudget.isTimeLimit(rec.truncated)){
+            cache.store(cacheKeys.get(iEP), rec);
           }
-
-          DisjunctOverConjuncSimpl disjunctOverConjuncSimpl=new DisjunctOverConjuncSimpl(disjunction);
-          
-          ArrayList<BoolExpr> simplifedCepp=disjunctOverConjuncSimpl.simplifiedGoals;
-
-          if(!simplifedCepp.isEmpty()){
-            // for(BoolExpr expr: simplifedCepp){
-            //   logger.info("\t"+expr.toString());
-            // }
-  
-            ArrayList<BoolExpr> notTranslated=ToParamKeyword.translate(simplifedCepp, epp, parameterObj, disjunctOverConjuncSimpl);
-
-            for(BoolExpr expr: notTranslated){
-              String exprStr=expr.toString();
-              // endPointOperationObj.addValidCond(exprStr);
-              parameterObj.schema.addConstraint(exprStr);
-            }
-          }
-
-          disjunctOverConjuncSimpl.closeCtx();
-        }
-        
-        HashMap<SootField, GlobalRefObj> endPointGlobalRefMap=new HashMap<>();
-
-        Function<SootField, GlobalVarInfo> makeNewGlobalVar= (g -> {
-          int uid=UIDToGlobal.size();
-          UIDToGlobal.add(g);
-          return new GlobalVarInfo(g.getName(), uid, g.getDeclaringClass().getFilePath());
-        });
-
-        for (SootField g : pass.globalVarRead) {
-          assert endPointGlobalRefMap.containsKey(g)==false;
-
-          GlobalVarInfo gInfo=globalMap.computeIfAbsent(g, makeNewGlobalVar);
-
-          GlobalRefObj gRefObj=new GlobalRefObj(gInfo);
-          endPointOperationObj.addGlobalRefObj(gRefObj);
-
-          endPointGlobalRefMap.put(g, gRefObj);
-
-          ArrayList<EndPointMethodInfo> readerList = globalToReaders.computeIfAbsent(gInfo, c -> new ArrayList<>());
-          readerList.add(EPInfo);
         }
-
-        logger.debug(String.format("%d global var written", pass.gloablVarWrite.size()));
-        for(Map.Entry<SootField, ArrayList<Value>> kv: pass.gloablVarWrite.entrySet()){
-          SootField g=kv.getKey();
-
-          GlobalVarInfo gInfo=globalMap.computeIfAbsent(g, makeNewGlobalVar);
-
-          GlobalWriteObj gWrObj=new GlobalWriteObj(gInfo);
-          endPointOperationObj.addGlobalWriteObj(gWrObj);
-
-          for(Value v: kv.getValue()){
-            gWrObj.addValue(v.toString());
-          }
-
-          ArrayList<EndPointMethodInfo> writerList = globalToWriters.computeIfAbsent(gInfo, c -> new ArrayList<>());
-          writerList.add(EPInfo);
+        else{
+          endpointMetrics=new RunMetrics.EndpointMetrics(m.getSignature());
+          endpointMetrics.cached=true;
+          endpointMetrics.truncated=rec.truncated;
         }
 
-        logger.debug(String.format("%d globals has constraints", S_tmp.C_g.size()));
-
-        for(Map.Entry<SootField, HashSet<ArrayList<ConditionPred>>> kv:S_tmp.C_g.entrySet()){
-          SootField g=kv.getKey();
+        mergeEndpoint(rec, EPInfo, endPointOperationObj, paramSMap, allPotentialStatusCodes, globalToReaders, globalToWriters);
 
-          HashSet<ArrayList<ConditionPred>> disjunction=kv.getValue();
-
-          HashSet<Object> examples=ConstraintToExamples.extractExamplesFromCg(disjunction, g);
-
-          if(!examples.isEmpty()){
-
-            GlobalRefObj gRefObj=endPointGlobalRefMap.get(g);
-            if(gRefObj==null){
-              GlobalVarInfo gInfo=globalMap.computeIfAbsent(g, makeNewGlobalVar);
-  
-              gRefObj=new GlobalRefObj(gInfo);
-              endPointOperationObj.addGlobalRefObj(gRefObj);
-
-              endPointGlobalRefMap.put(g, gRefObj);
-            }
+        endpointMetrics.mergeMs=RunMetrics.msSince(tMerge);
+        this.metrics.addEndpoint(endpointMetrics);
 
-            for(Object eg: examples){
-              gRefObj.addExample(eg);
-            }
-          }
-
-          DisjunctOverConjuncSimpl disjunctOverConjuncSimpl=new DisjunctOverConjuncSimpl(disjunction);
-          
-          ArrayList<BoolExpr> simplifedCg=disjunctOverConjuncSimpl.simplifiedGoals;
-
-          if(!simplifedCg.isEmpty()){
-            // for(BoolExpr expr: simplifedCg){
-            //   logger.info("\t"+expr.toString());
-            // }
-            
-            GlobalRefObj gRefObj=endPointGlobalRefMap.get(g);
-            if(gRefObj==null){
-              GlobalVarInfo gInfo=globalMap.computeIfAbsent(g, makeNewGlobalVar);
-  
-              gRefObj=new GlobalRefObj(gInfo);
-              endPointOperationObj.addGlobalRefObj(gRefObj);
-
-              endPointGlobalRefMap.put(g, gRefObj);
-            }
-
-            // ArrayList<BoolExpr> notTranslated=CgToGlobalKeyword.translate(simplifedCg, g, gRefObj, disjunctOverConjuncSimpl);
-
-            for(BoolExpr expr: simplifedCg){
-              gRefObj.addConstraint(expr.toString());
-            }
-          }
-
-          disjunctOverConjuncSimpl.closeCtx();
+        nResponses+=rec.responses.size();
+        for(CachedEndpoint.Param param: rec.params){
+          nParamConstraints+=param.numConstraints();
+          nExamples+=param.examples.size();
         }
-        
       }
 
       for(int i=firstBind+1;i<nPaths;++i){
@@ -703,7 +929,46 @@ public class MainTransform extends MyTransformBase {
 
     }
 
-    StaticVarAssignment SVA = new StaticVarAssignment(this.CHA_CG, globalMap.keySet());
+    }
+    finally{
+      if(workers!=null){
+        workers.shutdownNow();
+      }
+      if(solverProcesses!=null){
+        solverProcesses.close();
+      }
+    }
+
+    this.metrics.addPhase("endpoints", RunMetrics.msSince(tPhase));
+
+    logger.info(String.format("coverage: %d responses from paths, %d parameter constraints, %d parameter examples, %d truncated endpoints",
+      nResponses, nParamConstraints, nExamples, truncatedEndpoints.size()));
+
+    if(!truncatedEndpoints.isEmpty()){
+      logger.warn(String.format("%d endpoint analyses truncated: %s", truncatedEndpoints.size(), String.join(", ", truncatedEndpoints)));
+    }
+
+    if(cache!=null){
+      logger.info(String.format("%d endpoint analyses reused from the cache", cache.hits.get()));
+    }
+
+    if(calleeSummaries!=null){
+      logger.info(String.format("%d callee summaries built", calleeSummaries.size()));
+    }
+    if(solverProcesses!=null){
+      logger.info(String.format("z3 processes: %s", solverProcesses.summary()));
+      this.metrics.solverProcessQueries=solverProcesses.numQueries.get();
+      this.metrics.solverProcessTimeouts=solverProcesses.numTimeouts.get();
+      this.metrics.solverProcessFailures=solverProcesses.numFailures.get();
+    }
+    if(methodEffects!=null){
+      logger.info(String.format("effects of %d methods computed, %d of them can be skipped", methodEffects.size(),
+        methodEffects.values().stream().filter(e -> e.isSkippable()).count()));
+    }
+
+    tPhase=System.nanoTime();
+    StaticVarAssignment SVA = new StaticVarAssignment(this.CG, globalMap.keySet());
+    this.metrics.addPhase("static-var-assignment", RunMetrics.msSince(tPhase));
 
     for(Map.Entry<SootField, GlobalVarInfo> kv: globalMap.entrySet()){
       SootField g=kv.getKey();
@@ -758,6 +1023,7 @@ public class MainTransform extends MyTransformBase {
     }
 
 
+    tPhase=System.nanoTime();
     Gson gson=SpecGen.getSpecBuilder();
     try{
       Files.writeString(this.outputFile, gson.toJson(specObj));
@@ -765,5 +1031,28 @@ public class MainTransform extends MyTransformBase {
     catch(IOException e){
       logger.error(e.toString());
     }
+    this.metrics.addPhase("serialization", RunMetrics.msSince(tPhase));
+
+    this.metrics.z3Contexts=SootToZ3.numContexts.get();
+    this.metrics.simplifyFullChain=simplificationBudget.numFullChain.get();
+    this.metrics.simplifyCheapChain=simplificationBudget.numCheapChain.get();
+    this.metrics.simplifyUnsimplified=simplificationBudget.numUnsimplified.get();
+    this.metrics.simplifyChunked=simplificationBudget.numChunked.get();
+    this.metrics.feasibilityCacheHits=FeasibilityCache.totalHits.get();
+    this.metrics.feasibilityCacheSubsetUnsatHits=FeasibilityCache.totalSubsetUnsatHits.get();
+    this.metrics.feasibilityCacheSupersetSatHits=FeasibilityCache.totalSupersetSatHits.get();
+    this.metrics.feasibilityCacheMisses=FeasibilityCache.totalMisses.get();
+    this.metrics.feasibilityCacheScanned=FeasibilityCache.totalScanned.get();
+    logger.info(String.format("feasibility caches: %s", FeasibilityCache.totalsSummary()));
+    logger.info(String.format("simplification: %s", simplificationBudget.summary()));
+
+    simplificationBudget.drain();
+    Z3ContextPool.DEFAULT.drain();
+    this.metrics.z3ContextsReused=Z3ContextPool.numReused.get();
+    this.metrics.z3PeakNativeBytes=Z3ContextPool.peakNativeBytes.get();
+    logger.info(String.format("Z3: %s", Z3ContextPool.summary()));
+    if(this.analysisOptions.metrics){
+      this.metrics.write(this.outputFile);
+    }
   }
 }
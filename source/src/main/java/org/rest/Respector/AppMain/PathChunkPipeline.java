@@ -0,0 +1,117 @@
+package org.rest.Respector.AppMain;
+
+import java.util.ArrayList;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.function.Consumer;
+
+import org.rest.Respector.PathCondExtract.PathConstraint;
+
+/**
+ * Hands the chunks of finished paths that EndpointAnalysis.buildPaths returns to a consumer on a thread
+ * of its own, so the next chunk is explored while the last one is simplified. The queue holds at most
+ * depth chunks, exploration waits when the consumer falls that far behind.
+ * With depth 0 the consumer runs on the exploring thread, as before.
+ */
+public class PathChunkPipeline {
+  public static class Chunk {
+    public final ArrayList<PathConstraint> validPaths;
+    public final ArrayList<PathConstraint> invalidPaths;
+
+    public Chunk(ArrayList<PathConstraint> validPaths, ArrayList<PathConstraint> invalidPaths) {
+      this.validPaths = validPaths;
+      this.invalidPaths = invalidPaths;
+    }
+  }
+
+  static final Chunk END=new Chunk(null, null);
+
+  final Consumer<Chunk> consumer;
+  final ArrayBlockingQueue<Chunk> queue;
+  final Thread consumerThread;
+  // the first exception of the consumer, the chunks after it are dropped
+  volatile Throwable failure=null;
+  boolean finished=false;
+
+  // time the exploring thread waited for room in the queue
+  public long waitNanos=0;
+
+  public PathChunkPipeline(String name, int depth, Consumer<Chunk> consumer) {
+    this.consumer=consumer;
+
+    if(depth<=0){
+      this.queue=null;
+      this.consumerThread=null;
+      return;
+    }
+
+    this.queue=new ArrayBlockingQueue<>(depth);
+    this.consumerThread=new Thread(this::consume, name);
+    // an endpoint abandoned by a failed run must not keep the JVM alive
+    this.consumerThread.setDaemon(true);
+    this.consumerThread.start();
+  }
+
+  void consume(){
+    while(true){
+      Chunk chunk;
+      try{
+        chunk=queue.take();
+      }
+      catch(InterruptedException e){
+        failure=e;
+        return;
+      }
+
+      if(chunk==END){
+        return;
+      }
+      // keep draining after a failure, so put never blocks for good
+      if(failure==null){
+        try{
+          consumer.accept(chunk);
+        }
+        catch(Throwable t){
+          failure=t;
+        }
+      }
+    }
+  }
+
+  public void put(Chunk chunk){
+    if(consumerThread==null){
+      consumer.accept(chunk);
+      return;
+    }
+
+    long t0=System.nanoTime();
+    try{
+      queue.put(chunk);
+    }
+    catch(InterruptedException e){
+      Thread.currentThread().interrupt();
+      throw new RuntimeException(e);
+    }
+    waitNanos+=System.nanoTime()-t0;
+  }
+
+  // waits for the consumer to finish the chunks put so far, and rethrows its failure
+  public void finish(){
+    if(consumerThread==null || finished){
+      return;
+    }
+    finished=true;
+
+    try{
+      queue.put(END);
+      consumerThread.join();
+    }
+    catch(InterruptedException e){
+      Thread.currentThread().interrupt();
+      throw new RuntimeException(e);
+    }
+
+    if(failure!=null){
+      throw new RuntimeException(String.format("%s failed", consumerThread.getName()), failure);
+    }
+  }
+}
@@ -0,0 +1,132 @@
+package org.rest.Respector.AppMain;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+
+/**
+ * Where the time of a run goes, written next to the spec as <spec>.metrics.json and,
+ * one line per endpoint, as <spec>.metrics.csv.
+ */
+public class RunMetrics {
+  public static class EndpointMetrics {
+    public String method;
+    // reused from the analysis cache, nothing below was measured
+    public boolean cached=false;
+    public String truncated=null;
+
+    // on the worker, if any
+    public double analysisMs=0;
+    // includes feasibilityMs
+    public double buildPathsMs=0;
+    public double feasibilityMs=0;
+    // overlaps buildPathsMs, unless --pipeline-depth=0
+    public double simplificationMs=0;
+    // ToParamKeyword and the merge into the spec, on the main thread
+    public double mergeMs=0;
+    // exploration waiting for the simplification of earlier chunks, see PathChunkPipeline
+    public double pipelineWaitMs=0;
+
+    public int pathsExplored=0;
+    public int feasiblePaths=0;
+    public int validPaths=0;
+    public int invalidPaths=0;
+    public int solverCalls=0;
+    public int feasibilityCacheHits=0;
+    // feasibility checks QuickFeasibility decided without Z3
+    public int quickDecisions=0;
+    // solver calls answered in a session with the sibling branches of the same if or switch
+    public int batchedChecks=0;
+    public int peakLivePaths=0;
+    public int mergedRegions=0;
+    public int loopsSummarized=0;
+    public int prunedBranches=0;
+    public int skippedCalls=0;
+    public int z3Contexts=0;
+
+    public EndpointMetrics(String method) {
+      this.method = method;
+    }
+
+    static final String CSV_HEADER="method,cached,truncated,analysisMs,buildPathsMs,feasibilityMs,simplificationMs,mergeMs,pipelineWaitMs,"
+      +"pathsExplored,feasiblePaths,validPaths,invalidPaths,solverCalls,feasibilityCacheHits,quickDecisions,batchedChecks,peakLivePaths,mergedRegions,loopsSummarized,prunedBranches,skippedCalls,z3Contexts";
+
+    String toCSV(){
+      return String.format("\"%s\",%b,%s,%.1f,%.1f,%.1f,%.1f,%.1f,%.1f,%d,%d,%d,%d,%d,%d,%d,%d,%d,%d,%d,%d,%d,%d",
+        method.replace("\"", "\"\""), cached, truncated==null?"":truncated, analysisMs, buildPathsMs, feasibilityMs, simplificationMs, mergeMs, pipelineWaitMs,
+        pathsExplored, feasiblePaths, validPaths, invalidPaths, solverCalls, feasibilityCacheHits, quickDecisions, batchedChecks, peakLivePaths, mergedRegions, loopsSummarized, prunedBranches, skippedCalls, z3Contexts);
+    }
+  }
+
+  // whole-run phases in ms, in the order they ran
+  public LinkedHashMap<String, Double> phases=new LinkedHashMap<>();
+  public ArrayList<EndpointMetrics> endpoints=new ArrayList<>();
+  public long z3Contexts=0;
+  // leases served by a pooled context instead of a new one, see Z3ContextPool
+  public long z3ContextsReused=0;
+  // of the native memory Z3 had allocated, sampled when contexts are leased
+  public long z3PeakNativeBytes=0;
+  // of the z3 processes, see Z3ProcessPool
+  public long solverProcessQueries=0;
+  public long solverProcessTimeouts=0;
+  public long solverProcessFailures=0;
+  // over the feasibility caches of all endpoints and callee summaries, see FeasibilityCache
+  public long feasibilityCacheHits=0;
+  public long feasibilityCacheSubsetUnsatHits=0;
+  public long feasibilityCacheSupersetSatHits=0;
+  public long feasibilityCacheMisses=0;
+  public long feasibilityCacheScanned=0;
+  // what produced the simplified conditions, see SimplificationBudget
+  public long simplifyFullChain=0;
+  public long simplifyCheapChain=0;
+  public long simplifyUnsimplified=0;
+  public long simplifyChunked=0;
+
+  private static Logger logger = LoggerFactory.getLogger(RunMetrics.class);
+
+  public static double msSince(long startNanos){
+    return (System.nanoTime()-startNanos)/1e6;
+  }
+
+  public void addPhase(String name, double ms){
+    phases.merge(name, ms, Double::sum);
+  }
+
+  public synchronized void addEndpoint(EndpointMetrics m){
+    endpoints.add(m);
+  }
+
+  public void write(Path outputFile){
+    Gson gson=new GsonBuilder().setPrettyPrinting().create();
+
+    Path json=outputFile.resolveSibling(outputFile.getFileName()+".metrics.json");
+    Path csv=outputFile.resolveSibling(outputFile.getFileName()+".metrics.csv");
+
+    ArrayList<String> lines=new ArrayList<>();
+    lines.add(EndpointMetrics.CSV_HEADER);
+    for(EndpointMetrics m: endpoints){
+      lines.add(m.toCSV());
+    }
+
+    try{
+      Files.writeString(json, gson.toJson(this));
+      Files.write(csv, lines);
+    }
+    catch(IOException e){
+      logger.error(e.toString());
+    }
+
+    for(Map.Entry<String, Double> kv: phases.entrySet()){
+      logger.info(String.format("phase %s: %.1f s", kv.getKey(), kv.getValue()/1000));
+    }
+  }
+}
@@ -0,0 +1,116 @@
+package org.rest.Respector.LoopInfo;
+
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import soot.Body;
+import soot.Unit;
+import soot.jimple.GotoStmt;
+import soot.jimple.IfStmt;
+import soot.jimple.Stmt;
+import soot.jimple.SwitchStmt;
+import soot.toolkits.graph.ExceptionalUnitGraph;
+import soot.toolkits.graph.UnitGraph;
+
+/**
+ * Dense int ids for the statements of one body, in the order of its unit chain, and the parts of the CFG
+ * EndpointAnalysis walks as arrays over them. A PathRecord keeps the id of its statement, so going to the
+ * successors of a statement is an array access instead of the icfg, the unit graph and a hash set lookup.
+ */
+public class BodyIndex {
+  public final Body body;
+  public final Stmt[] stmts;
+  // as getUnexceptionalSuccsOf and getExceptionalSuccsOf of the unit graph
+  public final int[][] succs;
+  public final int[][] exceptionalSuccs;
+  // the target of an if or goto, the targets of a switch followed by its default target, empty otherwise
+  public final int[][] targets;
+  // the summary of the loop each statement is the head of, null for the other statements
+  public final LoopSummary[] loopSummaries;
+  final BitSet headerBlockStmts=new BitSet();
+  final HashMap<Unit, Integer> ids=new HashMap<>();
+
+  static final int[] NONE=new int[0];
+
+  public BodyIndex(Body body, UnitGraph unitGraph, Set<Stmt> headerBlockStmts, Map<Stmt, LoopSummary> loopSummaries) {
+    this.body=body;
+
+    int n=body.getUnits().size();
+    this.stmts=new Stmt[n];
+    this.succs=new int[n][];
+    this.exceptionalSuccs=new int[n][];
+    this.targets=new int[n][];
+    this.loopSummaries=new LoopSummary[n];
+
+    int id=0;
+    for(Unit u: body.getUnits()){
+      stmts[id]=(Stmt) u;
+      ids.put(u, id);
+      if(headerBlockStmts.contains(u)){
+        this.headerBlockStmts.set(id);
+      }
+      this.loopSummaries[id]=loopSummaries.get(u);
+      ++id;
+    }
+
+    for(int i=0;i<n;++i){
+      Stmt s=stmts[i];
+
+      if(unitGraph instanceof ExceptionalUnitGraph){
+        ExceptionalUnitGraph graph=(ExceptionalUnitGraph) unitGraph;
+        succs[i]=toIds(graph.getUnexceptionalSuccsOf(s));
+        exceptionalSuccs[i]=toIds(graph.getExceptionalSuccsOf(s));
+      }
+      else{
+        succs[i]=toIds(unitGraph.getSuccsOf(s));
+        exceptionalSuccs[i]=NONE;
+      }
+
+      if(s instanceof IfStmt){
+        targets[i]=new int[]{idOf(((IfStmt) s).getTarget())};
+      }
+      else if(s instanceof GotoStmt){
+        targets[i]=new int[]{idOf(((GotoStmt) s).getTarget())};
+      }
+      else if(s instanceof SwitchStmt){
+        SwitchStmt sw=(SwitchStmt) s;
+        int[] t=new int[sw.getTargets().size()+1];
+        for(int j=0;j<t.length-1;++j){
+          t[j]=idOf(sw.getTarget(j));
+        }
+        t[t.length-1]=idOf(sw.getDefaultTarget());
+        targets[i]=t;
+      }
+      else{
+        targets[i]=NONE;
+      }
+    }
+  }
+
+  int[] toIds(List<Unit> units){
+    if(units.isEmpty()){
+      return NONE;
+    }
+    int[] rtv=new int[units.size()];
+    for(int i=0;i<rtv.length;++i){
+      rtv[i]=idOf(units.get(i));
+    }
+    return rtv;
+  }
+
+  // for the statements a path reaches without an id, the heads of the body and the return sites
+  public int idOf(Unit u){
+    Integer id=ids.get(u);
+    if(id==null){
+      throw new RuntimeException(String.format("%s is not in the body of %s", u, body.getMethod().getSignature()));
+    }
+    return id;
+  }
+
+  public boolean isHeaderBlockStmt(int id){
+    return headerBlockStmts.get(id);
+  }
+}
@@ -0,0 +1,120 @@
+package org.rest.Respector.LoopInfo;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+
+import soot.Local;
+import soot.SootField;
+import soot.Unit;
+import soot.ValueBox;
+import soot.jimple.AnyNewExpr;
+import soot.jimple.DefinitionStmt;
+import soot.jimple.InstanceInvokeExpr;
+import soot.jimple.InvokeExpr;
+import soot.jimple.StaticFieldRef;
+import soot.jimple.Stmt;
+import soot.toolkits.graph.ExceptionalUnitGraph;
+import soot.toolkits.graph.UnitGraph;
+import soot.toolkits.scalar.LiveLocals;
+
+/**
+ * The statements between an if and its immediate post-dominator, for an if whose branches can only differ
+ * in the calls they make: the region has no loop, return, throw, exception handler or field and array write,
+ * and every local it writes is dead at the post-dominator. Both branches reach the post-dominator in the state
+ * the if was in, so neither the condition nor the region matters to the spec, unless one of the calls does
+ * or the condition is on an endpoint parameter or a static field, which EndpointAnalysis checks. A library
+ * call can only be left out if its receiver is allocated in the region, see onAllocatedReceiver.
+ */
+public class BranchRegion {
+  public static final int MAX_REGION_STMTS=64;
+
+  public final Stmt join;
+  public final ArrayList<Stmt> invokes=new ArrayList<>();
+  public final HashSet<SootField> staticFieldsRead=new HashSet<>();
+  // the locals whose every definition in the body is an allocation in the region
+  public final HashSet<Local> allocated=new HashSet<>();
+
+  BranchRegion(Stmt join) {
+    this.join = join;
+  }
+
+  // null if the branches of ifStmt may differ in more than their calls
+  static BranchRegion of(Stmt ifStmt, Unit join, UnitGraph unitGraph, HashSet<Stmt> headerBlockStmts, LiveLocals liveLocals){
+    if(join==null || headerBlockStmts.contains(ifStmt)){
+      return null;
+    }
+
+    BranchRegion rtv=new BranchRegion((Stmt) join);
+    HashSet<Local> written=new HashSet<>();
+    HashSet<Unit> region=new HashSet<>();
+    ArrayDeque<Unit> todo=new ArrayDeque<>(succsOf(unitGraph, ifStmt));
+
+    while(!todo.isEmpty()){
+      Unit u=todo.pop();
+      if(u==join || !region.add(u)){
+        continue;
+      }
+
+      // every cycle in the region passes a loop header
+      Stmt s=(Stmt) u;
+      if(headerBlockStmts.contains(s) || region.size()>MAX_REGION_STMTS || LoopSummary.checkStmt(s)!=null){
+        return null;
+      }
+
+      for(ValueBox vb: s.getDefBoxes()){
+        if(vb.getValue() instanceof Local){
+          written.add((Local) vb.getValue());
+        }
+      }
+      for(ValueBox vb: s.getUseBoxes()){
+        if(vb.getValue() instanceof StaticFieldRef){
+          rtv.staticFieldsRead.add(((StaticFieldRef) vb.getValue()).getField());
+        }
+      }
+      if(s.containsInvokeExpr()){
+        rtv.invokes.add(s);
+      }
+
+      todo.addAll(succsOf(unitGraph, u));
+    }
+
+    for(Local l: liveLocals.getLiveLocalsBefore(join)){
+      if(written.contains(l)){
+        return null;
+      }
+    }
+
+    HashSet<Local> notAllocated=new HashSet<>();
+    for(Unit u: unitGraph.getBody().getUnits()){
+      if(!(u instanceof DefinitionStmt) || !(((DefinitionStmt) u).getLeftOp() instanceof Local)){
+        continue;
+      }
+      Local l=(Local) ((DefinitionStmt) u).getLeftOp();
+      if(region.contains(u) && ((DefinitionStmt) u).getRightOp() instanceof AnyNewExpr){
+        rtv.allocated.add(l);
+      }
+      else{
+        notAllocated.add(l);
+      }
+    }
+    rtv.allocated.removeAll(notAllocated);
+
+    return rtv;
+  }
+
+  // true if the call of s is on an object allocated in the region, which it can only change in ways
+  // that are dead at the join, as no field or array write and no return is in the region
+  public boolean onAllocatedReceiver(Stmt s){
+    InvokeExpr inv=s.getInvokeExpr();
+    return inv instanceof InstanceInvokeExpr && allocated.contains(((InstanceInvokeExpr) inv).getBase());
+  }
+
+  static List<Unit> succsOf(UnitGraph unitGraph, Unit u){
+    if(unitGraph instanceof ExceptionalUnitGraph){
+      return ((ExceptionalUnitGraph) unitGraph).getUnexceptionalSuccsOf(u);
+    }
+    return unitGraph.getSuccsOf(u);
+  }
+}
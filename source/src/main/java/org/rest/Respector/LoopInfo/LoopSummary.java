@@ -0,0 +1,140 @@
+package org.rest.Respector.LoopInfo;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+
+import soot.Local;
+import soot.SootField;
+import soot.Unit;
+import soot.Value;
+import soot.ValueBox;
+import soot.jimple.ArrayRef;
+import soot.jimple.ConditionExpr;
+import soot.jimple.FieldRef;
+import soot.jimple.IdentityStmt;
+import soot.jimple.ReturnStmt;
+import soot.jimple.ReturnVoidStmt;
+import soot.jimple.StaticFieldRef;
+import soot.jimple.Stmt;
+import soot.jimple.ThrowStmt;
+import soot.jimple.internal.JIfStmt;
+import soot.jimple.toolkits.annotation.logic.Loop;
+import soot.toolkits.graph.ExceptionalUnitGraph;
+import soot.toolkits.graph.UnitGraph;
+
+/**
+ * The effect of one loop, over-approximated once so the path search can step over the whole loop instead of
+ * unrolling it: the locals the loop may write, which hold unknown values after it, and the edges leaving it.
+ * The condition of an exit that reads no written local has the same value in every iteration, it is a real
+ * constraint on the path that takes the exit. The other exit conditions only hold in the last iteration.
+ * A loop that may throw, return or write fields or arrays is not summarized, neither is one that calls
+ * application methods, which EndpointAnalysis decides on invokes with its call graph.
+ */
+public class LoopSummary {
+  public static class Exit {
+    public final Stmt from;
+    public final Stmt to;
+    // null if from is not an if statement
+    public final ConditionExpr cond;
+    public final boolean taken;
+    public final boolean invariant;
+
+    Exit(Stmt from, Stmt to, ConditionExpr cond, boolean taken, boolean invariant) {
+      this.from = from;
+      this.to = to;
+      this.cond = cond;
+      this.taken = taken;
+      this.invariant = invariant;
+    }
+  }
+
+  public final Stmt head;
+  // in the order of their definitions
+  public final LinkedHashSet<Local> havocked=new LinkedHashSet<>();
+  public final ArrayList<Exit> exits=new ArrayList<>();
+  public final HashSet<SootField> staticFieldsRead=new HashSet<>();
+  public final ArrayList<Stmt> invokes=new ArrayList<>();
+  // why the loop is unrolled instead, null if it is summarized
+  public String notSummarizable=null;
+
+  public LoopSummary(Loop loop, UnitGraph unitGraph) {
+    this.head=loop.getHead();
+
+    List<Stmt> stmts=loop.getLoopStatements();
+    HashSet<Stmt> inLoop=new HashSet<>(stmts);
+
+    for(Stmt s: stmts){
+      if(notSummarizable==null){
+        notSummarizable=checkStmt(s);
+      }
+      if(s.containsInvokeExpr()){
+        invokes.add(s);
+      }
+
+      for(ValueBox vb: s.getDefBoxes()){
+        if(vb.getValue() instanceof Local){
+          havocked.add((Local) vb.getValue());
+        }
+      }
+      for(ValueBox vb: s.getUseBoxes()){
+        if(vb.getValue() instanceof StaticFieldRef){
+          staticFieldsRead.add(((StaticFieldRef) vb.getValue()).getField());
+        }
+      }
+    }
+
+    for(Stmt s: stmts){
+      List<Unit> succs=unitGraph instanceof ExceptionalUnitGraph?
+        ((ExceptionalUnitGraph) unitGraph).getUnexceptionalSuccsOf(s):unitGraph.getSuccsOf(s);
+
+      for(Unit u: new LinkedHashSet<>(succs)){
+        if(inLoop.contains(u)){
+          continue;
+        }
+
+        if(s instanceof JIfStmt){
+          JIfStmt ifStmt=(JIfStmt) s;
+          ConditionExpr cond=(ConditionExpr) ifStmt.getCondition();
+          exits.add(new Exit(s, (Stmt) u, cond, u==ifStmt.getTarget(), isInvariant(cond)));
+        }
+        else{
+          exits.add(new Exit(s, (Stmt) u, null, false, false));
+        }
+      }
+    }
+  }
+
+  public boolean isSummarizable(){
+    return notSummarizable==null;
+  }
+
+  boolean isInvariant(Value cond){
+    for(ValueBox vb: cond.getUseBoxes()){
+      if(havocked.contains(vb.getValue())){
+        return false;
+      }
+    }
+    return true;
+  }
+
+  static String checkStmt(Stmt s){
+    if(s instanceof ThrowStmt){
+      return "throw";
+    }
+    if(s instanceof ReturnStmt || s instanceof ReturnVoidStmt){
+      return "return";
+    }
+    if(s instanceof IdentityStmt){
+      return "exception handler";
+    }
+    for(ValueBox vb: s.getDefBoxes()){
+      Value v=vb.getValue();
+      if(v instanceof FieldRef || v instanceof ArrayRef){
+        return "heap write";
+      }
+    }
+    return null;
+  }
+}
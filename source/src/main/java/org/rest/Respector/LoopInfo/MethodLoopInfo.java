@@ -1,5 +1,6 @@
 package org.rest.Respector.LoopInfo;
 
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.LinkedList;
 import java.util.Set;
@@ -8,30 +9,50 @@ import soot.jimple.toolkits.annotation.logic.Loop;
 import soot.jimple.toolkits.annotation.logic.LoopFinder;
 import soot.toolkits.graph.Block;
 import soot.toolkits.graph.BriefBlockGraph;
+import soot.toolkits.graph.BriefUnitGraph;
+import soot.toolkits.graph.MHGPostDominatorsFinder;
 import soot.toolkits.graph.UnitGraph;
+import soot.toolkits.scalar.LiveLocals;
+import soot.toolkits.scalar.SimpleLiveLocals;
 import soot.Body;
 import soot.Unit;
 import soot.jimple.Stmt;
 
 public class MethodLoopInfo {
   public HashSet<Stmt> headerBlockStmts;
+  // by loop head, see LoopSummary
+  public HashMap<Stmt, LoopSummary> loopSummaries;
+  public final BodyIndex index;
 
   Set<Loop> loops;
   BriefBlockGraph blockGraph;
   LinkedList<Block> headerBlocks;
 
+  final Body body;
+  final UnitGraph unitGraph;
+  // built on the first query, only path merging and branch pruning need them
+  MHGPostDominatorsFinder<Unit> postDominators=null;
+  LiveLocals liveLocals=null;
+  // null for the ifs that can not be pruned
+  HashMap<Stmt, BranchRegion> branchRegions=new HashMap<>();
+
+  // the default of EndpointAnalysis.loopUnroll
   public static final int maxOccurForHeader=2;
 
   public MethodLoopInfo(Body body, UnitGraph unitGraph){
+    this.body=body;
+    this.unitGraph=unitGraph;
     this.headerBlockStmts=new HashSet<>();
 
     this.loops=(new LoopFinder()).getLoops(unitGraph);
     this.blockGraph=new BriefBlockGraph(body);
     this.headerBlocks=new LinkedList<>();
+    this.loopSummaries=new HashMap<>();
 
     HashSet<Stmt> loopHeaders=new HashSet<>();
     for(Loop l:this.loops){
       loopHeaders.add(l.getHead());
+      this.loopSummaries.put(l.getHead(), new LoopSummary(l, unitGraph));
     }
 
     for(Block bb:this.blockGraph){
@@ -44,5 +65,26 @@ public class MethodLoopInfo {
         }
       }
     }
+
+    this.index=new BodyIndex(body, unitGraph, this.headerBlockStmts, this.loopSummaries);
+  }
+
+  // over the unexceptional edges, null if the paths from u only meet again at the method exits
+  public synchronized Unit immediatePostDominator(Unit u){
+    if(postDominators==null){
+      postDominators=new MHGPostDominatorsFinder<>(new BriefUnitGraph(body));
+    }
+    return postDominators.getImmediateDominator(u);
+  }
+
+  // null if the branches of ifStmt may differ in more than their calls
+  public synchronized BranchRegion branchRegion(Stmt ifStmt){
+    if(!branchRegions.containsKey(ifStmt)){
+      if(liveLocals==null){
+        liveLocals=new SimpleLiveLocals(unitGraph);
+      }
+      branchRegions.put(ifStmt, BranchRegion.of(ifStmt, immediatePostDominator(ifStmt), unitGraph, headerBlockStmts, liveLocals));
+    }
+    return branchRegions.get(ifStmt);
   }
 }
@@ -0,0 +1,93 @@
+package org.rest.Respector.MyPassBase;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+
+import org.rest.Respector.EndPointRecog.EndPointMethodInfo;
+import org.rest.Respector.EndPointRecog.PreprocessFramework;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import soot.Scene;
+import soot.SootClass;
+import soot.SootMethod;
+import soot.options.Options;
+
+/**
+ * Sets up the cg pack of Soot to build the one call graph of a run, rooted at the endpoint methods.
+ * After runPacks it is Scene.v().getCallGraph(), which the ICFG, MyTransformBase.CG, StaticVarAssignment
+ * and ExtractParamFromReq all read.
+ */
+public class CallGraphProvider {
+  public enum Algorithm {
+    CHA, RTA, VTA, SPARK
+  }
+
+  private static Logger logger = LoggerFactory.getLogger(CallGraphProvider.class);
+
+  public static Algorithm parse(String name){
+    try{
+      return Algorithm.valueOf(name.toUpperCase());
+    }
+    catch(IllegalArgumentException e){
+      throw new IllegalArgumentException(String.format("unknown call graph %s", name));
+    }
+  }
+
+  // call after the endpoints are recognized and before runPacks
+  public static void configure(Algorithm algorithm, PreprocessFramework preprocessReuslt){
+    Options.v().setPhaseOption("cg", "all-reachable:false");
+
+    switch (algorithm) {
+      case CHA:
+        Options.v().setPhaseOption("cg.cha", "enabled:true");
+        Options.v().setPhaseOption("cg.spark", "enabled:false");
+        break;
+
+      case RTA:
+        Options.v().setPhaseOption("cg.cha", "enabled:false");
+        Options.v().setPhaseOption("cg.spark", "enabled:true");
+        Options.v().setPhaseOption("cg.spark", "rta:true");
+        Options.v().setPhaseOption("cg.spark", "on-fly-cg:false");
+        break;
+
+      case VTA:
+        Options.v().setPhaseOption("cg.cha", "enabled:false");
+        Options.v().setPhaseOption("cg.spark", "enabled:true");
+        Options.v().setPhaseOption("cg.spark", "vta:true");
+        break;
+
+      case SPARK:
+        Options.v().setPhaseOption("cg.cha", "enabled:false");
+        Options.v().setPhaseOption("cg.spark", "enabled:true");
+        break;
+    }
+
+    List<SootMethod> entryPoints=entryPoints(preprocessReuslt);
+    Scene.v().setEntryPoints(entryPoints);
+
+    logger.info(String.format("%s call graph from %d entry points", algorithm, entryPoints.size()));
+  }
+
+  // the endpoint methods, and the static initializers of the application classes,
+  // which StaticVarAssignment starts from
+  public static List<SootMethod> entryPoints(PreprocessFramework preprocessReuslt){
+    LinkedHashSet<SootMethod> entryPoints=new LinkedHashSet<>();
+
+    for(EndPointMethodInfo EPInfo: preprocessReuslt.endPointMethodData){
+      if(EPInfo.method.isConcrete()){
+        entryPoints.add(EPInfo.method);
+      }
+    }
+
+    for(SootClass cl: Scene.v().getApplicationClasses()){
+      SootMethod clinit=cl.getMethodByNameUnsafe("<clinit>");
+      if(clinit!=null){
+        entryPoints.add(clinit);
+      }
+    }
+
+    return new ArrayList<>(entryPoints);
+  }
+}
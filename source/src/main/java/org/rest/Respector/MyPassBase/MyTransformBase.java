@@ -2,20 +2,25 @@ package org.rest.Respector.MyPassBase;
 
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.Map;
 
 import org.rest.Respector.EndPointRecog.PreprocessFramework;
 import org.rest.Respector.LoopInfo.MethodLoopInfo;
+import org.rest.Respector.PathCondExtract.CalleeSummary;
 import org.rest.Respector.PathCondExtract.ConditionPred;
+import org.rest.Respector.PathCondExtract.MethodEffects;
 import org.rest.Respector.PathRecord.MethodEntryRecord;
 import org.rest.Respector.PathRecord.ParamInfo;
 import org.rest.Respector.PathRecord.PathRecord;
 import org.rest.Respector.PathRecord.PathRecordBase;
 import org.rest.Respector.PathRecord.PathRecordBase.RecordType;
+import org.rest.Respector.Simplification.Z3ProcessPool;
 
 import soot.Body;
 import soot.BriefUnitPrinter;
 import soot.Hierarchy;
 import soot.SceneTransformer;
+import soot.SootMethod;
 
 import soot.Scene;
 import soot.Value;
@@ -23,7 +28,6 @@ import soot.Value;
 import soot.jimple.Stmt;
 
 import soot.jimple.toolkits.ide.icfg.JimpleBasedInterproceduralCFG;
-import soot.jimple.toolkits.callgraph.CHATransformer;
 import soot.jimple.toolkits.callgraph.CallGraph;
 
 public abstract class MyTransformBase extends SceneTransformer {
@@ -32,21 +36,23 @@ public abstract class MyTransformBase extends SceneTransformer {
   public JimpleBasedInterproceduralCFG icfg;
   // public Hierarchy hierarchy;
   public boolean printBackEdge;
-  public CallGraph CHA_CG;
-  public HashMap<Body, MethodLoopInfo> bodyToLoopInfoCache;
+  // the call graph of the run, see CallGraphProvider
+  public CallGraph CG;
+  public Map<Body, MethodLoopInfo> bodyToLoopInfoCache;
+  // callee summaries shared by all endpoints, null if callees are inlined
+  public Map<ArrayList<Object>, CalleeSummary> calleeSummaries=null;
+  // effects of the application methods shared by all endpoints, null if every callee is entered
+  public Map<SootMethod, MethodEffects> methodEffects=null;
+  // Z3 processes the feasibility checks of all endpoints go to, null to check with the JNI solver
+  public Z3ProcessPool solverProcesses=null;
 
   public MyTransformBase(PreprocessFramework preprocessReuslt, boolean printBackEdge) {
     this.preprocessReuslt = preprocessReuslt;
     this.printBackEdge=printBackEdge;
   }
 
-  public void buildCHACallGraph(){
-    CallGraph cg0=Scene.v().getCallGraph();
-
-    CHATransformer.v().transform();
-    CHA_CG=Scene.v().getCallGraph();
-
-    Scene.v().setCallGraph(cg0);
+  public void loadCallGraph(){
+    CG=Scene.v().getCallGraph();
   }
 
   public void printPath(ArrayList<PathRecordBase> path){
@@ -0,0 +1,172 @@
+package org.rest.Respector.MyPassBase;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+
+import org.rest.Respector.EndPointRecog.EndPointMethodInfo;
+import org.rest.Respector.EndPointRecog.PreprocessFramework;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import soot.Body;
+import soot.RefType;
+import soot.Scene;
+import soot.SootClass;
+import soot.SootMethod;
+import soot.Type;
+import soot.Unit;
+import soot.ValueBox;
+import soot.jimple.InterfaceInvokeExpr;
+import soot.jimple.InvokeExpr;
+import soot.jimple.NewExpr;
+import soot.jimple.StaticFieldRef;
+import soot.jimple.Stmt;
+import soot.jimple.VirtualInvokeExpr;
+
+/**
+ * The application classes the endpoints can reach, found before runPacks by following invokes
+ * (resolved over the class hierarchy, as CHA does), allocations and static field references from
+ * the endpoint methods, and from the <clinit> of every class entered. A class whose <clinit> writes a static
+ * field of an entered class is entered too, as StaticVarAssignment takes the examples of the field from it.
+ * Only the methods on the way are Jimplified. The other application classes are made library classes,
+ * so Soot's LineNumberAdder, retrieveAllBodies, body packs and Jimple output skip them, and they stay
+ * at signature level unless the call graph asks for one of their bodies.
+ */
+public class SceneSlicer {
+  public final LinkedHashSet<SootClass> classes=new LinkedHashSet<>();
+  public final HashSet<SootMethod> methods=new HashSet<>();
+
+  final ArrayDeque<SootMethod> worklist=new ArrayDeque<>();
+
+  private static Logger logger = LoggerFactory.getLogger(SceneSlicer.class);
+
+  // call after the endpoints are recognized and before CallGraphProvider.configure
+  public static SceneSlicer slice(PreprocessFramework preprocessReuslt){
+    SceneSlicer slicer=new SceneSlicer();
+
+    for(EndPointMethodInfo EPInfo: preprocessReuslt.endPointMethodData){
+      slicer.reach(EPInfo.method);
+    }
+
+    ArrayList<SootClass> appClasses=new ArrayList<>(Scene.v().getApplicationClasses());
+    boolean changed=true;
+    while(changed){
+      while(!slicer.worklist.isEmpty()){
+        slicer.visit(slicer.worklist.poll());
+      }
+
+      changed=false;
+      for(SootClass c: appClasses){
+        if(!slicer.classes.contains(c) && slicer.initializesReachedField(c)){
+          slicer.enter(c);
+          changed=true;
+        }
+      }
+    }
+
+    for(SootClass c: appClasses){
+      if(!slicer.classes.contains(c)){
+        c.setLibraryClass();
+      }
+    }
+
+    logger.info(String.format("scene slice: %d of %d application classes, %d methods", slicer.classes.size(), appClasses.size(), slicer.methods.size()));
+
+    return slicer;
+  }
+
+  void reach(SootMethod m){
+    if(!m.isConcrete() || !m.getDeclaringClass().isApplicationClass()){
+      return;
+    }
+
+    if(methods.add(m)){
+      worklist.add(m);
+      enter(m.getDeclaringClass());
+    }
+  }
+
+  void enter(SootClass c){
+    if(!c.isApplicationClass() || !classes.add(c)){
+      return;
+    }
+
+    SootMethod clinit=c.getMethodByNameUnsafe("<clinit>");
+    if(clinit!=null){
+      reach(clinit);
+    }
+
+    // the static initializers of the superclasses run first
+    if(c.hasSuperclass()){
+      enter(c.getSuperclass());
+    }
+  }
+
+  void enter(Type t){
+    if(t instanceof RefType){
+      enter(((RefType) t).getSootClass());
+    }
+  }
+
+  void visit(SootMethod m){
+    Body body=m.retrieveActiveBody();
+
+    for(Unit u: body.getUnits()){
+      Stmt stmt=(Stmt) u;
+
+      if(stmt.containsInvokeExpr()){
+        for(SootMethod tgt: targets(stmt.getInvokeExpr())){
+          reach(tgt);
+        }
+      }
+
+      for(ValueBox box: stmt.getUseAndDefBoxes()){
+        if(box.getValue() instanceof NewExpr){
+          enter(((NewExpr) box.getValue()).getBaseType());
+        }
+        else if(box.getValue() instanceof StaticFieldRef){
+          enter(((StaticFieldRef) box.getValue()).getFieldRef().declaringClass());
+        }
+      }
+    }
+  }
+
+  // true if the <clinit> of c writes a static field of an entered class
+  boolean initializesReachedField(SootClass c){
+    SootMethod clinit=c.getMethodByNameUnsafe("<clinit>");
+    if(clinit==null || !clinit.isConcrete()){
+      return false;
+    }
+
+    for(Unit u: clinit.retrieveActiveBody().getUnits()){
+      for(ValueBox box: u.getDefBoxes()){
+        if(box.getValue() instanceof StaticFieldRef && classes.contains(((StaticFieldRef) box.getValue()).getFieldRef().declaringClass())){
+          return true;
+        }
+      }
+    }
+    return false;
+  }
+
+  static ArrayList<SootMethod> targets(InvokeExpr invokeExpr){
+    ArrayList<SootMethod> rtv=new ArrayList<>();
+
+    SootMethod callee=invokeExpr.getMethodRef().tryResolve();
+    if(callee==null){
+      return rtv;
+    }
+
+    if(invokeExpr instanceof VirtualInvokeExpr || invokeExpr instanceof InterfaceInvokeExpr){
+      // every override below the declared receiver type, like CHA
+      SootClass receiver=invokeExpr.getMethodRef().getDeclaringClass();
+      rtv.addAll(Scene.v().getOrMakeFastHierarchy().resolveAbstractDispatch(receiver, callee));
+    }
+    else{
+      rtv.add(callee);
+    }
+
+    return rtv;
+  }
+}
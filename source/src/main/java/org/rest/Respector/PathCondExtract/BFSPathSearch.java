@@ -0,0 +1,31 @@
+package org.rest.Respector.PathCondExtract;
+
+import java.util.ArrayDeque;
+
+/**
+ * The first added path first, all branches of the endpoint advance together.
+ * Keeps more paths alive than DFS, consider --live-path-limit.
+ */
+public class BFSPathSearch implements PathSearchStrategy {
+  final ArrayDeque<PathConstraint> queue=new ArrayDeque<>();
+
+  @Override
+  public void add(PathConstraint path) {
+    queue.addLast(path);
+  }
+
+  @Override
+  public PathConstraint next() {
+    return queue.removeFirst();
+  }
+
+  @Override
+  public boolean isEmpty() {
+    return queue.isEmpty();
+  }
+
+  @Override
+  public int size() {
+    return queue.size();
+  }
+}
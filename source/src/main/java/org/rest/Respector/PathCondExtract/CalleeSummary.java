@@ -0,0 +1,157 @@
+package org.rest.Respector.PathCondExtract;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+
+import org.rest.Respector.PathRecord.ParamInfo;
+
+import com.google.common.collect.ImmutableMap;
+
+import soot.Local;
+import soot.SootField;
+import soot.SootMethod;
+import soot.Type;
+import soot.Value;
+import soot.ValueBox;
+import soot.grimp.internal.ExprBox;
+import soot.jimple.Constant;
+import soot.jimple.internal.JimpleLocal;
+
+/**
+ * The paths of a callee explored once, with its non-constant arguments replaced by placeholder locals.
+ * A call site instantiates every entry by substituting its own arguments for the placeholders,
+ * instead of walking the callee body again.
+ * Summaries are shared by all endpoints, keyed by bindingKey().
+ */
+public class CalleeSummary {
+  // more paths than this and the callee is inlined as before
+  public static final int PATH_THRESH=256;
+
+  // a non-constant argument of the summarized callee
+  public static class SummaryParameter extends JimpleLocal {
+    private static final long serialVersionUID = 1L;
+
+    public final int idx;
+
+    public SummaryParameter(String name, int idx, Type paramType) {
+      super(name, paramType);
+      this.idx=idx;
+    }
+  }
+
+  // one way through the callee
+  public static class Entry {
+    public ArrayList<ConditionPred> conds;
+    // exits through a return statement with a value
+    public boolean returnStmt;
+    // null if the returned value is not tracked in the symStore of the callee
+    public Value returnValue;
+    // not empty if the callee throws to the caller
+    public ArrayList<Type> exceptionStack;
+    // the path ended inside the callee as an error response
+    public boolean aborted;
+
+    public Entry(ArrayList<ConditionPred> conds, boolean returnStmt, Value returnValue, ArrayList<Type> exceptionStack,
+        boolean aborted) {
+      this.conds = conds;
+      this.returnStmt = returnStmt;
+      this.returnValue = returnValue;
+      this.exceptionStack = exceptionStack;
+      this.aborted = aborted;
+    }
+  }
+
+  public final SootMethod callee;
+  // a constant argument or a SummaryParameter, per parameter index
+  public final ArrayList<Value> params=new ArrayList<>();
+
+  public final ArrayList<Entry> entries=new ArrayList<>();
+  public boolean complete=false;
+
+  public final HashSet<SootField> globalVarRead=new HashSet<>();
+  public final HashMap<SootField, ArrayList<Value>> gloablVarWrite=new HashMap<>();
+
+  public CalleeSummary(SootMethod callee, ArrayList<ParamInfo> args) {
+    this.callee=callee;
+
+    for(ParamInfo info: args){
+      Value v=info.rr;
+      if(v instanceof Constant){
+        params.add(v);
+      }
+      else{
+        params.add(new SummaryParameter(String.format("%s#%d", callee.getName(), info.idx), info.idx, callee.getParameterType(info.idx)));
+      }
+    }
+  }
+
+  // constant arguments are part of the key, all other arguments are abstracted away
+  public static ArrayList<Object> bindingKey(SootMethod callee, ArrayList<ParamInfo> args){
+    ArrayList<Object> key=new ArrayList<>();
+    key.add(callee);
+    for(ParamInfo info: args){
+      key.add(info.rr instanceof Constant?info.rr:SummaryParameter.class);
+    }
+    return key;
+  }
+
+  public ArrayList<ParamInfo> getParamInfo(){
+    ArrayList<ParamInfo> rtv=new ArrayList<>();
+    for(int i=0;i<params.size();++i){
+      rtv.add(new ParamInfo(i, params.get(i)));
+    }
+    return rtv;
+  }
+
+  public ImmutableMap<Value, ExprBox> bind(ArrayList<ParamInfo> args){
+    ImmutableMap.Builder<Value, ExprBox> builder=ImmutableMap.builder();
+    for(ParamInfo info: args){
+      Value p=params.get(info.idx);
+      if(p instanceof SummaryParameter){
+        builder.put(p, new ExprBox(info.rr));
+      }
+    }
+    return builder.build();
+  }
+
+  // a copy of v with the placeholders replaced by the arguments of the call site
+  // throws if some placeholder can not be replaced
+  public static Value instantiate(Value v, ImmutableMap<Value, ExprBox> binding){
+    if(binding.containsKey(v)){
+      return binding.get(v).getValue();
+    }
+    if(v instanceof Local || v instanceof Constant){
+      return v;
+    }
+
+    Value copy=(Value) v.clone();
+    for(ValueBox vb: copy.getUseBoxes()){
+      Value u=vb.getValue();
+      if(binding.containsKey(u)){
+        vb.setValue(binding.get(u).getValue());
+      }
+    }
+
+    for(ValueBox vb: copy.getUseBoxes()){
+      if(vb.getValue() instanceof SummaryParameter){
+        throw new RuntimeException(String.format("placeholder left in %s", copy));
+      }
+    }
+
+    return copy;
+  }
+
+  public HashMap<SootField, ArrayList<Value>> instantiateGlobalWrites(ImmutableMap<Value, ExprBox> binding){
+    HashMap<SootField, ArrayList<Value>> rtv=new HashMap<>();
+    for(Map.Entry<SootField, ArrayList<Value>> kv: gloablVarWrite.entrySet()){
+      ArrayList<Value> vals=new ArrayList<>();
+      for(Value v: kv.getValue()){
+        vals.add(instantiate(v, binding));
+      }
+      rtv.put(kv.getKey(), vals);
+    }
+    return rtv;
+  }
+}
@@ -37,7 +37,10 @@ public class ConditionPred {
   public Object evalTo;
   public String str;
   public boolean inLoopHeader;
+  // interned, see ExprInterner
   public ConditionExpr uniCond;
+  // equivHashCode of uniCond
+  int hash;
 
   public ConditionPred(Value pred, Boolean evalTo) {
     this._pred = pred;
@@ -138,6 +141,9 @@ public class ConditionPred {
         this.uniCond=(ConditionExpr)sw.getResult();
       }
     }
+
+    this.uniCond=ExprInterner.intern(this.uniCond);
+    this.hash=this.uniCond.equivHashCode();
   }
 
   public static enum ConstantComp{
@@ -250,12 +256,14 @@ public class ConditionPred {
   }
 
   public int hashCode(){
-    return this.uniCond.equivHashCode();
+    return this.hash;
   }
   public boolean equals(Object o) {
     if(o instanceof ConditionPred){
       ConditionPred c=(ConditionPred)o;
-      return this.inLoopHeader==c.inLoopHeader && this.uniCond.equivTo(c.uniCond);
+      // equivTo is left for a Jimple and a Grimp condition, which are interned apart
+      return this.inLoopHeader==c.inLoopHeader && (this.uniCond==c.uniCond
+        || (this.hash==c.hash && this.uniCond.equivTo(c.uniCond)));
     }
     return false;
   }
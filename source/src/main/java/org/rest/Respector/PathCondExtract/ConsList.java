@@ -0,0 +1,108 @@
+package org.rest.Respector.PathCondExtract;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * Immutable singly linked list growing at the back.
+ * Appending is O(1) and every list forked from another one shares its prefix nodes.
+ */
+public final class ConsList<T> implements Iterable<T> {
+  public final T last;
+  public final ConsList<T> init;
+  public final int size;
+
+  @SuppressWarnings("rawtypes")
+  private static final ConsList EMPTY=new ConsList<>(null, null, 0);
+
+  private ConsList(T last, ConsList<T> init, int size) {
+    this.last = last;
+    this.init = init;
+    this.size = size;
+  }
+
+  @SuppressWarnings("unchecked")
+  public static <T> ConsList<T> empty(){
+    return (ConsList<T>) EMPTY;
+  }
+
+  public ConsList<T> append(T v){
+    return new ConsList<>(v, this, this.size+1);
+  }
+
+  public int size(){
+    return this.size;
+  }
+
+  public boolean isEmpty(){
+    return this.size==0;
+  }
+
+  // the first n elements, shared with this list
+  public ConsList<T> prefix(int n){
+    ConsList<T> l=this;
+    while(l.size>n){
+      l=l.init;
+    }
+    return l;
+  }
+
+  // the longest prefix shared by the nodes of both lists
+  public static <T> ConsList<T> commonPrefix(ConsList<T> a, ConsList<T> b){
+    if(a.size>b.size){
+      a=a.prefix(b.size);
+    }
+    else{
+      b=b.prefix(a.size);
+    }
+
+    while(a!=b){
+      a=a.init;
+      b=b.init;
+    }
+    return a;
+  }
+
+  public ArrayList<T> toArrayList(){
+    ArrayList<T> list=new ArrayList<>(this.size);
+    for(int i=0;i<this.size;++i){
+      list.add(null);
+    }
+
+    ConsList<T> l=this;
+    while(l.size>0){
+      list.set(l.size-1, l.last);
+      l=l.init;
+    }
+    return list;
+  }
+
+  // from the first to the last element, over a copy of the list
+  @Override
+  public Iterator<T> iterator() {
+    return toArrayList().iterator();
+  }
+
+  // from the last to the first element, over the nodes without copying them
+  public Iterable<T> lastToFirst(){
+    return () -> new Iterator<T>() {
+      ConsList<T> l=ConsList.this;
+
+      @Override
+      public boolean hasNext() {
+        return l.size>0;
+      }
+
+      @Override
+      public T next() {
+        if(l.size==0){
+          throw new NoSuchElementException();
+        }
+        T v=l.last;
+        l=l.init;
+        return v;
+      }
+    };
+  }
+}
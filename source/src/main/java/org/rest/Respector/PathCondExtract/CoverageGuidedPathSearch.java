@@ -0,0 +1,107 @@
+package org.rest.Respector.PathCondExtract;
+
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.PriorityQueue;
+import java.util.function.ToIntFunction;
+
+import org.rest.Respector.PathRecord.PathRecord;
+import org.rest.Respector.PathRecord.PathRecordBase;
+
+import soot.jimple.Stmt;
+
+/**
+ * Prefers paths heading for a status code no saved path has yet, then paths resuming at the statements
+ * resumed the fewest times so far, then the last added path (as DFS).
+ * Scores go stale as statements are visited, so a polled path is scored again
+ * and put back if another path is now better.
+ */
+public class CoverageGuidedPathSearch implements PathSearchStrategy {
+  static class Entry {
+    final PathConstraint path;
+    final long seq;
+    // the pending status when the path was added, its state does not change while it is queued
+    final int status;
+    boolean knownStatus;
+    int visits;
+
+    Entry(PathConstraint path, long seq, int status) {
+      this.path = path;
+      this.seq = seq;
+      this.status = status;
+    }
+  }
+
+  static final Comparator<Entry> ORDER=Comparator.<Entry, Boolean>comparing(e -> e.knownStatus)
+    .thenComparingInt(e -> e.visits)
+    .thenComparing(Comparator.<Entry>comparingLong(e -> e.seq).reversed());
+
+  final PriorityQueue<Entry> queue=new PriorityQueue<>(ORDER);
+  final HashMap<Stmt, Integer> visits=new HashMap<>();
+  final HashSet<Integer> savedStatusCodes=new HashSet<>();
+  long seq=0;
+  ToIntFunction<PathConstraint> pendingStatus=p -> p.HTTPStatusCode;
+
+  static Stmt stmtOf(PathConstraint path){
+    PathRecordBase rec=path.getPathBack();
+    if(rec instanceof PathRecord){
+      return ((PathRecord) rec).stmt;
+    }
+    return null;
+  }
+
+  // returns true if the score changed
+  boolean score(Entry e){
+    boolean knownStatus=savedStatusCodes.contains(e.status);
+    Stmt s=stmtOf(e.path);
+    int n=s==null?0:visits.getOrDefault(s, 0);
+
+    boolean changed=(knownStatus!=e.knownStatus || n!=e.visits);
+    e.knownStatus=knownStatus;
+    e.visits=n;
+    return changed;
+  }
+
+  @Override
+  public void add(PathConstraint path) {
+    Entry e=new Entry(path, seq++, pendingStatus.applyAsInt(path));
+    score(e);
+    queue.add(e);
+  }
+
+  @Override
+  public PathConstraint next() {
+    Entry e=queue.poll();
+    while(score(e) && !queue.isEmpty() && ORDER.compare(queue.peek(), e)<0){
+      queue.add(e);
+      e=queue.poll();
+    }
+
+    Stmt s=stmtOf(e.path);
+    if(s!=null){
+      visits.merge(s, 1, Integer::sum);
+    }
+    return e.path;
+  }
+
+  @Override
+  public void pathSaved(PathConstraint path) {
+    savedStatusCodes.add(path.HTTPStatusCode);
+  }
+
+  @Override
+  public void setPendingStatus(ToIntFunction<PathConstraint> pendingStatus) {
+    this.pendingStatus=pendingStatus;
+  }
+
+  @Override
+  public boolean isEmpty() {
+    return queue.isEmpty();
+  }
+
+  @Override
+  public int size() {
+    return queue.size();
+  }
+}
@@ -0,0 +1,31 @@
+package org.rest.Respector.PathCondExtract;
+
+import java.util.ArrayList;
+
+/**
+ * The last added path first, the order buildPaths always used.
+ * Consecutive paths share the longest prefixes, which suits the incremental feasibility solver.
+ */
+public class DFSPathSearch implements PathSearchStrategy {
+  final ArrayList<PathConstraint> stack=new ArrayList<>();
+
+  @Override
+  public void add(PathConstraint path) {
+    stack.add(path);
+  }
+
+  @Override
+  public PathConstraint next() {
+    return stack.remove(stack.size()-1);
+  }
+
+  @Override
+  public boolean isEmpty() {
+    return stack.isEmpty();
+  }
+
+  @Override
+  public int size() {
+    return stack.size();
+  }
+}
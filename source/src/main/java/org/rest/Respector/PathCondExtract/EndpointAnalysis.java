@@ -44,6 +44,7 @@ import soot.jimple.NewExpr;
 import soot.jimple.Stmt;
 import soot.jimple.ConditionExpr;
 import soot.jimple.Constant;
+import soot.jimple.DefinitionStmt;
 import soot.jimple.Expr;
 import soot.jimple.SwitchStmt;
 import soot.jimple.InvokeExpr;
@@ -81,6 +82,9 @@ import org.rest.Respector.EndPointRecog.EndPointParamInfo;
 import org.rest.Respector.EndPointRecog.FrameworkData;
 import org.rest.Respector.EndPointRecog.ResponseBuilderInfo;
 import org.rest.Respector.EndPointRecog.StaticResponseInfo;
+import org.rest.Respector.LoopInfo.BodyIndex;
+import org.rest.Respector.LoopInfo.BranchRegion;
+import org.rest.Respector.LoopInfo.LoopSummary;
 import org.rest.Respector.LoopInfo.MethodLoopInfo;
 import org.rest.Respector.MyPassBase.MyTransformBase;
 import org.rest.Respector.PathCondExtract.ConditionPred.ConstantComp;
@@ -89,7 +93,11 @@ import org.rest.Respector.PathRecord.ParamInfo;
 import org.rest.Respector.PathRecord.PathRecord;
 import org.rest.Respector.PathRecord.PathRecordBase;
 import org.rest.Respector.PathRecord.PathRecordBase.RecordType;
-import org.rest.Respector.Simplification.PathFeasibility;
+import org.rest.Respector.PathRecord.SymStore;
+import org.rest.Respector.Simplification.FeasibilityCache;
+import org.rest.Respector.Simplification.IncrementalPathFeasibility;
+import org.rest.Respector.Simplification.QuickFeasibility;
+import org.rest.Respector.Simplification.Z3ProcessPool;
 import org.rest.Respector.SpecGen.Spec.Path.EndPointOp.Responses.ResponseSchemaGen;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -105,14 +113,14 @@ public class EndpointAnalysis {
   public final JimpleBasedInterproceduralCFG icfg;
   // public final Hierarchy hierarchy;
   public final CallGraph cg;
-  public final HashMap<Body, MethodLoopInfo> bodyToLoopInfoCache;
+  public final Map<Body, MethodLoopInfo> bodyToLoopInfoCache;
   public final FrameworkData frameworkData;
 
   // whenever you want to add a path to savedPaths, backEdgePaths or cachedPaths, make a copy
   ArrayList<PathConstraint> validPaths = new ArrayList<>();
   ArrayList<PathConstraint> invalidPaths = new ArrayList<>();
   // public ArrayList<PathConstraint> backEdgePaths = new ArrayList<>();
-  ArrayList<PathConstraint> cachedPaths = new ArrayList<>();
+  PathSearchStrategy cachedPaths = new DFSPathSearch();
 
   public int chunkFeasiblePaths=0;
   public int chunkAllPaths=0;
@@ -123,35 +131,60 @@ public class EndpointAnalysis {
   // you can add/remove items to currPath without making a copy
   PathConstraint currPath = new PathConstraint();
 
+  // created on the first check, closed when buildPaths is done
+  IncrementalPathFeasibility feasibilitySolver=null;
+  FeasibilityCache feasibilityCache=new FeasibilityCache();
+
   public HashSet<SootField> globalVarRead = new HashSet<>();
   public HashMap<SootField, ArrayList<Value>> gloablVarWrite=new HashMap<>();
 
-  private static Logger logger = LoggerFactory.getLogger(EndpointAnalysis.class);
+  // null if callees are always inlined
+  final Map<ArrayList<Object>, CalleeSummary> calleeSummaries;
+  // null if every application callee is entered, see MethodEffects
+  final Map<SootMethod, MethodEffects> methodEffects;
+  // null if the feasibility checks use the JNI solver
+  final Z3ProcessPool solverProcesses;
+  // not null if this analysis explores a callee for its summary instead of an endpoint
+  final CalleeSummary summaryOf;
+  // callees whose summaries are being built by this analysis and its parents, they are inlined
+  final ArrayList<SootMethod> summaryStack;
+  boolean overThreshold=false;
+
+  // shared with the summaries built on behalf of this analysis
+  public ExplorationBudget budget=ExplorationBudget.unlimited();
+  // the limit that cut the exploration short, null if all paths were explored
+  public String truncatedBy=null;
+
+  // for the run metrics, including the summaries built by this analysis
+  public int numSolverCalls=0;
+  public int numFeasibilityCacheHits=0;
+  public int numQuickDecisions=0;
+  public int numBatchedChecks=0;
+  public int numZ3Contexts=0;
+  public int peakLivePaths=0;
+  public int numMergedRegions=0;
+  public int numLoopsSummarized=0;
+  public int numPrunedBranches=0;
+  public int numSkippedCalls=0;
+
+  // decide the paths QuickFeasibility can before asking Z3
+  public boolean quickFeasibility=true;
+  // check the branches of an if or switch in one solver session, see IncrementalPathFeasibility.checkSiblings
+  public boolean batchSiblings=true;
+  // fold the paths of an if statement that meet again into one, see PathMerger
+  public boolean mergePaths=false;
+  // do not fork on the ifs whose branches do not matter to the spec, see BranchRegion
+  public boolean pruneBranches=true;
+  // step over the loops LoopSummary can summarize, unroll the others
+  public boolean loopSummaries=true;
+  // how often a path may pass a loop header
+  public int loopUnroll=MethodLoopInfo.maxOccurForHeader;
 
-  static <K, V> ImmutableMap<K, V> putIntoImmutableMap(ImmutableMap<K,V> map, K key, V value){
-    if(map.containsKey(key)){
-      ImmutableMap.Builder<K,V> builder=ImmutableMap.builderWithExpectedSize(map.size());
-      for(Map.Entry<K,V> kv: map.entrySet()){
-        if(kv.getKey().equals(key)){
-          builder.put(key, value);
-        }
-        else{
-          builder.put(kv);
-        }
-      }
-
-      return builder.build();
-    }
-    else{
-      ImmutableMap.Builder<K,V> builder=ImmutableMap.<K,V>builder().putAll(map);
-      builder.put(key, value);
-      return builder.build();
-    }
-  }
+  private static Logger logger = LoggerFactory.getLogger(EndpointAnalysis.class);
 
   public EndpointAnalysis(EndPointMethodInfo EPInfo, 
     // ArrayList<Integer> paramIndices, 
-    TreeMap<Integer, String> paramNames, JimpleBasedInterproceduralCFG icfg, CallGraph cg, HashMap<Body, MethodLoopInfo> bodyToLoopInfoCache, FrameworkData frameworkData, int pathThresh) {
+    TreeMap<Integer, String> paramNames, JimpleBasedInterproceduralCFG icfg, CallGraph cg, Map<Body, MethodLoopInfo> bodyToLoopInfoCache, FrameworkData frameworkData, int pathThresh) {
     
     this.EPInfo=EPInfo;
     this.method = EPInfo.method;
@@ -163,24 +196,113 @@ public class EndpointAnalysis {
     this.bodyToLoopInfoCache=bodyToLoopInfoCache;
     this.frameworkData=frameworkData;
     this.pathThresh=pathThresh;
+    this.calleeSummaries=null;
+    this.methodEffects=null;
+    this.solverProcesses=null;
+    this.summaryOf=null;
+    this.summaryStack=new ArrayList<>();
   }
 
   public EndpointAnalysis(EndPointMethodInfo EPInfo, MyTransformBase myApp, int pathThresh) {
+    this(EPInfo, myApp, pathThresh, paramNamesOf(EPInfo));
+  }
+
+  // paramNames as taken by paramNamesOf, the names of EPInfo may be updated by another thread meanwhile
+  public EndpointAnalysis(EndPointMethodInfo EPInfo, MyTransformBase myApp, int pathThresh, TreeMap<Integer, String> paramNames) {
     this.EPInfo=EPInfo;
     this.method = EPInfo.method;
     // this.paramIndices = new ArrayList<>();
-    this.paramNames = new TreeMap<>();
+    this.paramNames = paramNames;
     this.icfg = myApp.icfg;
     // this.hierarchy=myApp.hierarchy;
-    this.cg=myApp.CHA_CG;
+    this.cg=myApp.CG;
     this.bodyToLoopInfoCache=myApp.bodyToLoopInfoCache;
     this.frameworkData=myApp.preprocessReuslt.frameworkData;
     this.pathThresh=pathThresh;
+    this.calleeSummaries=myApp.calleeSummaries;
+    this.methodEffects=myApp.methodEffects;
+    this.solverProcesses=myApp.solverProcesses;
+    this.summaryOf=null;
+    this.summaryStack=new ArrayList<>();
+  }
 
+  public static TreeMap<Integer, String> paramNamesOf(EndPointMethodInfo EPInfo){
+    TreeMap<Integer, String> rtv=new TreeMap<>();
     for(EndPointParamInfo i: EPInfo.parameterInfo){
       // this.paramIndices.add(i.index);
-      this.paramNames.put(i.index, i.name);
+      rtv.put(i.index, i.name);
+    }
+    return rtv;
+  }
+
+  // explores summary.callee on behalf of parent
+  EndpointAnalysis(EndpointAnalysis parent, CalleeSummary summary) {
+    this.EPInfo=parent.EPInfo;
+    this.method = summary.callee;
+    this.paramNames = new TreeMap<>();
+    this.icfg = parent.icfg;
+    this.cg=parent.cg;
+    this.bodyToLoopInfoCache=parent.bodyToLoopInfoCache;
+    this.frameworkData=parent.frameworkData;
+    this.pathThresh=CalleeSummary.PATH_THRESH;
+    this.calleeSummaries=parent.calleeSummaries;
+    this.methodEffects=parent.methodEffects;
+    this.solverProcesses=parent.solverProcesses;
+    this.summaryOf=summary;
+    this.summaryStack=new ArrayList<>(parent.summaryStack);
+    this.summaryStack.add(summary.callee);
+    this.budget=parent.budget;
+    this.mergePaths=parent.mergePaths;
+    this.quickFeasibility=parent.quickFeasibility;
+    this.batchSiblings=parent.batchSiblings;
+    this.pruneBranches=parent.pruneBranches;
+    this.loopSummaries=parent.loopSummaries;
+    this.loopUnroll=parent.loopUnroll;
+  }
+
+  // summaries always use DFS, they explore all paths of the callee anyway
+  public void setSearchStrategy(PathSearchStrategy strategy){
+    assert cachedPaths.isEmpty();
+    this.cachedPaths=strategy;
+    strategy.setPendingStatus(this::pendingStatusCode);
+  }
+
+  // the status code path would be saved with if it ended now: 500 while it unwinds an exception,
+  // the code of the response builder call last assigned to a local that is still bound to it, the one of the endpoint otherwise;
+  // walks back over the visible records, the order of the store depends on identity hashes
+  int pendingStatusCode(PathConstraint path){
+    PathRecordBase rec=path.getPathBack();
+    if(!(rec instanceof PathRecord) || EPInfo==null){
+      return path.HTTPStatusCode;
+    }
+    PathRecord r=(PathRecord) rec;
+    if(!r.exceptionStack.isEmpty()){
+      return 500;
+    }
+
+    for(PathNode n=path.path;n!=null;n=n.visiblePrev){
+      if(!(n.rec instanceof PathRecord) || !(((PathRecord) n.rec).stmt instanceof DefinitionStmt)){
+        continue;
+      }
+      Value lhs=((DefinitionStmt) ((PathRecord) n.rec).stmt).getLeftOp();
+      ExprBox vb=lhs instanceof Local?r.symStore.get(lhs):null;
+      if(vb==null || !(vb.getValue() instanceof InvokeExpr)){
+        continue;
+      }
+
+      InvokeExpr inv=(InvokeExpr) vb.getValue();
+      String subSig=inv.getMethodRef().getSubSignature().getString();
+      for(ResponseBuilderInfo builderInfo: this.frameworkData.responseBuilders){
+        if(subSig.equals(builderInfo.subSignature)){
+          Integer code=builderInfo.extractStatusCode(inv, this.frameworkData);
+          if(code!=null){
+            return code;
+          }
+          break;
+        }
+      }
     }
+    return this.EPInfo.responseStatus;
   }
 
   public ArrayList<PathConstraint> getValidPathsAndClear() {
@@ -237,6 +359,22 @@ public class EndpointAnalysis {
     while (true) {
       if(totalPaths>pathThresh){
         logger.debug(String.format("path number over threshold %d",pathThresh));
+        overThreshold=true;
+        truncatedBy=ExplorationBudget.PATH_LIMIT;
+        closeFeasibilitySolver();
+        return false;
+      }
+
+      if(cachedPaths.size()>peakLivePaths){
+        peakLivePaths=cachedPaths.size();
+      }
+
+      String exhausted=budget.exhausted(cachedPaths.size());
+      if(exhausted!=null){
+        logger.info(String.format("%s exhausted after %d paths of %s", exhausted, totalPaths, method.getSignature()));
+        overThreshold=true;
+        truncatedBy=exhausted;
+        closeFeasibilitySolver();
         return false;
       }
 
@@ -254,8 +392,7 @@ public class EndpointAnalysis {
           // all done!
           break;
         } else {
-          PathConstraint p = cachedPaths.get(cachedPaths.size() - 1);
-          cachedPaths.remove(cachedPaths.size() - 1);
+          PathConstraint p = cachedPaths.next();
 
           currPath = p;
         }
@@ -263,6 +400,14 @@ public class EndpointAnalysis {
 
       PathRecordBase lastNode = currPath.getPathBack();
 
+      // before the invoke of a header, stepping over the loop includes it
+      if(loopSummaries && (lastNode instanceof PathRecord)){
+        PathRecord n2=(PathRecord) lastNode;
+        if(n2.type!=RecordType.BackEdge && !n2.skipInvokeExpr && (n2.exceptionStack==null || n2.exceptionStack.isEmpty()) && stepOverLoop(n2)){
+          continue;
+        }
+      }
+
       if((lastNode instanceof PathRecord)){
         PathRecord n2=(PathRecord) lastNode;
 
@@ -341,18 +486,136 @@ public class EndpointAnalysis {
       }
     }
 
+    closeFeasibilitySolver();
     return false;
   }
 
+  boolean checkFeasibility(PathConstraint path){
+    FeasibilityCache.CondSet key=feasibilityCache.toKey(path.conds.lastToFirst());
+    Boolean decided=decideWithoutSolver(key, path.conds);
+    if(decided!=null){
+      return decided;
+    }
+
+    ++numSolverCalls;
+    long t0=System.nanoTime();
+    boolean feasible=getFeasibilitySolver().check(path);
+    budget.addSolverTime(System.nanoTime()-t0);
+    feasibilityCache.put(key, feasible);
+    return feasible;
+  }
+
+  // the verdict of the feasibility cache or QuickFeasibility, null if the solver has to decide;
+  // neither depends on the order of the conditions
+  Boolean decideWithoutSolver(FeasibilityCache.CondSet key, ConsList<ConditionPred> conds){
+    Boolean cached=feasibilityCache.lookup(key);
+    if(cached!=null){
+      ++numFeasibilityCacheHits;
+      return cached;
+    }
+
+    if(quickFeasibility){
+      Boolean quick=QuickFeasibility.decide(conds.lastToFirst());
+      if(quick!=null){
+        ++numQuickDecisions;
+        feasibilityCache.put(key, quick);
+        return quick;
+      }
+    }
+    return null;
+  }
+
+  IncrementalPathFeasibility getFeasibilitySolver(){
+    if(feasibilitySolver==null){
+      feasibilitySolver=new IncrementalPathFeasibility(solverProcesses);
+      ++numZ3Contexts;
+    }
+    return feasibilitySolver;
+  }
+
+  // the feasibility of the branches of an if or switch, each extends the same prefix by its condition
+  boolean[] checkSiblingFeasibility(ArrayList<ConsList<ConditionPred>> siblings){
+    boolean[] rtv=new boolean[siblings.size()];
+
+    ArrayList<Integer> pending=new ArrayList<>();
+    ArrayList<FeasibilityCache.CondSet> keys=new ArrayList<>();
+    for(int i=0;i<rtv.length;++i){
+      ConsList<ConditionPred> conds=siblings.get(i);
+      FeasibilityCache.CondSet key=feasibilityCache.toKey(conds.lastToFirst());
+      Boolean decided=decideWithoutSolver(key, conds);
+      if(decided!=null){
+        rtv[i]=decided;
+        continue;
+      }
+      pending.add(i);
+      keys.add(key);
+    }
+
+    if(pending.isEmpty()){
+      return rtv;
+    }
+
+    ConsList<ConditionPred> prefix=siblings.get(pending.get(0)).init;
+    ArrayList<ConditionPred> branchConds=new ArrayList<>();
+    for(int i: pending){
+      ConsList<ConditionPred> conds=siblings.get(i);
+      if(!batchSiblings || conds.isEmpty() || conds.init!=prefix){
+        branchConds=null;
+        break;
+      }
+      branchConds.add(conds.last);
+    }
+
+    numSolverCalls+=pending.size();
+    long t0=System.nanoTime();
+    boolean[] feasible;
+    if(branchConds!=null && branchConds.size()>1){
+      numBatchedChecks+=branchConds.size();
+      feasible=getFeasibilitySolver().checkSiblings(prefix, branchConds);
+    }
+    else{
+      feasible=new boolean[pending.size()];
+      for(int j=0;j<feasible.length;++j){
+        feasible[j]=getFeasibilitySolver().check(siblings.get(pending.get(j)));
+      }
+    }
+    budget.addSolverTime(System.nanoTime()-t0);
+
+    for(int j=0;j<feasible.length;++j){
+      rtv[pending.get(j)]=feasible[j];
+      feasibilityCache.put(keys.get(j), feasible[j]);
+    }
+    return rtv;
+  }
+
+  // for an analysis that failed before buildPaths finished, gives the context of the solver back to its pool
+  public void releaseFeasibilitySolver(){
+    if(feasibilitySolver!=null){
+      feasibilitySolver.closeCtx();
+      feasibilitySolver=null;
+    }
+    feasibilityCache.addToTotals();
+  }
+
+  void closeFeasibilitySolver(){
+    if(feasibilitySolver!=null){
+      logger.debug(String.format("%d feasibility checks, %d predicates asserted", feasibilitySolver.numChecks, feasibilitySolver.numAsserted));
+      feasibilitySolver.closeCtx();
+      feasibilitySolver=null;
+    }
+    logger.debug(String.format("feasibility cache of %s: %s", method.getSignature(), feasibilityCache));
+    feasibilityCache.addToTotals();
+  }
+
   void savePath(PathConstraint path){
     this.totalPaths+=1;
     this.chunkAllPaths+=1;
     if(this.totalPaths%1000==0){
       logger.info("total paths analyzed: "+this.totalPaths);
     }
-    PathFeasibility feasibility=new PathFeasibility(path);
-    if(feasibility.check()){
+    if(checkFeasibility(path)){
       this.chunkFeasiblePaths+=1;
+      cachedPaths.pathSaved(path);
       if(path.isValidPath){
         this.validPaths.add(path);
       }
@@ -362,6 +625,14 @@ public class EndpointAnalysis {
     }
   }
 
+  // summary mode only, instead of savePath when a path leaves the summarized callee
+  void saveSummaryExit(PathConstraint path, boolean returnStmt, Value returnValue, ArrayList<Type> exceptionStack, boolean aborted){
+    this.totalPaths+=1;
+    if(checkFeasibility(path)){
+      summaryOf.entries.add(new CalleeSummary.Entry(path.conds.toArrayList(), returnStmt, returnValue, exceptionStack, aborted));
+    }
+  }
+
   // always use this to save a path
   // DO NOT append to currPath directly
   // becaue checking backedges only happens here
@@ -383,8 +654,8 @@ public class EndpointAnalysis {
     PathRecord lastNode = (PathRecord)currPath.getPathBack();
     SwitchStmt stmt0=(SwitchStmt) lastNode.stmt;
 
-    Body body=icfg.getBodyOf(stmt0);
-    HashSet<Stmt> headerBlockStmts = this.bodyToLoopInfoCache.get(body).headerBlockStmts;
+    BodyIndex index=indexOf(lastNode);
+    int[] targetIds=index.targets[lastNode.stmtId];
 
     if(stmt0 instanceof JLookupSwitchStmt){
       JLookupSwitchStmt stmt=(JLookupSwitchStmt) stmt0;
@@ -409,15 +680,17 @@ public class EndpointAnalysis {
       int len=lookups.size();
       assert(len==targets.size());
 
+      ArrayList<PathConstraint> cases=new ArrayList<>();
+      ArrayList<Integer> caseSuccIds=new ArrayList<>();
       for(int i=0;i<len;++i){
-        Stmt succ=(Stmt) targets.get(i);
+        int succId=targetIds[i];
 
         PathConstraint pathCase=new PathConstraint(currPath);
         PathRecord caseNode=new PathRecord(lastNode);
         
         int keyVal=lookups.get(i).value;
         caseNode.note=String.format("-- case %s == %d", keyName, keyVal);
-        pathCase.path.set(pathCase.path.size()-1, caseNode);
+        pathCase.setPathBack(caseNode);
 
         ConditionPred cond= new ConditionPred(key, keyVal, keyName);
         ConstantComp checkComp= ConditionPred.checkConstantComparison(cond);
@@ -428,42 +701,29 @@ public class EndpointAnalysis {
 
         if(checkComp==ConstantComp.NonConstant){
           pathCase.addToCond(cond);
-
-          PathFeasibility feasibility=new PathFeasibility(pathCase);
-          if(!feasibility.check()){
-            continue;
-          }
         }
-
-        PathRecord outNode=new PathRecord(lastNode);
-        outNode.stmt=succ;
-        int numOccur=numOccurence(succ, currPath.path)+1;
-        int maxOccur=headerBlockStmts.contains(succ)?MethodLoopInfo.maxOccurForHeader:1;
-        outNode.numOccur=numOccur;
-        outNode.maxOccur=maxOccur;
-        outNode.type=decideRecordType(succ, numOccur>maxOccur, pathCase.path);
-        outNode.note="";
-        pathCase.addToPath(outNode);
-
-        cacheOrDisgardPath(pathCase);
+        cases.add(pathCase);
+        caseSuccIds.add(succId);
       }
+      continueCases(lastNode, index, cases, caseSuccIds);
 
       /// TODO: how to add cond for default branch?
       if(defaultTarget!=null){
-        Stmt succ=(Stmt) defaultTarget;
+        int succId=targetIds[targetIds.length-1];
+        Stmt succ=index.stmts[succId];
 
         PathConstraint pathCase=new PathConstraint(currPath);
         PathRecord caseNode=new PathRecord(lastNode);
         caseNode.note=String.format("-- default case for %s", keyName);
-        pathCase.path.set(pathCase.path.size()-1, caseNode);
+        pathCase.setPathBack(caseNode);
 
         PathRecord outNode=new PathRecord(lastNode);
-        outNode.stmt=succ;
-        int numOccur=numOccurence(succ, currPath.path)+1;
-        int maxOccur=headerBlockStmts.contains(succ)?MethodLoopInfo.maxOccurForHeader:1;
+        outNode.setStmt(index, succId);
+        int numOccur=numOccurence(succ, currPath)+1;
+        int maxOccur=index.isHeaderBlockStmt(succId)?loopUnroll:1;
         outNode.numOccur=numOccur;
         outNode.maxOccur=maxOccur;
-        outNode.type=decideRecordType(succ, numOccur>maxOccur, pathCase.path);
+        outNode.type=decideRecordType(succ, numOccur>maxOccur, pathCase);
         outNode.note="";
         pathCase.addToPath(outNode);
 
@@ -491,13 +751,15 @@ public class EndpointAnalysis {
       assert(i1-i0+1==targets.size());
 
       // Don't use i<=i1 due to potential wrap around
+      ArrayList<PathConstraint> cases=new ArrayList<>();
+      ArrayList<Integer> caseSuccIds=new ArrayList<>();
       for(int i=i0;i<i1;++i){
-        Stmt succ=(Stmt) targets.get(i-i0);
+        int succId=targetIds[i-i0];
 
         PathConstraint pathCase=new PathConstraint(currPath);
         PathRecord caseNode=new PathRecord(lastNode);
         caseNode.note=String.format("-- case %s == %d", keyName, i);
-        pathCase.path.set(pathCase.path.size()-1, caseNode);
+        pathCase.setPathBack(caseNode);
 
         ConditionPred cond= new ConditionPred(key, i, keyName);
         ConstantComp checkComp= ConditionPred.checkConstantComparison(cond);
@@ -508,83 +770,51 @@ public class EndpointAnalysis {
 
         if(checkComp==ConstantComp.NonConstant){
           pathCase.addToCond(cond);
-
-          PathFeasibility feasibility=new PathFeasibility(pathCase);
-          if(!feasibility.check()){
-            continue;
-          }
         }
-
-        PathRecord outNode=new PathRecord(lastNode);
-        outNode.stmt=succ;
-        int numOccur=numOccurence(succ, currPath.path)+1;
-        int maxOccur=headerBlockStmts.contains(succ)?MethodLoopInfo.maxOccurForHeader:1;
-        outNode.numOccur=numOccur;
-        outNode.maxOccur=maxOccur;
-        outNode.type=decideRecordType(succ, numOccur>maxOccur, pathCase.path);
-        outNode.note="";
-        pathCase.addToPath(outNode);
-
-        cacheOrDisgardPath(pathCase);
+        cases.add(pathCase);
+        caseSuccIds.add(succId);
       }
 
       // i==i1
       {
-        Stmt succ=(Stmt) targets.get(i1-i0);
+        int succId=targetIds[i1-i0];
 
         PathConstraint pathCase=new PathConstraint(currPath);
         PathRecord caseNode=new PathRecord(lastNode);
         caseNode.note=String.format("-- case %s == %d", keyName, i1);
-        pathCase.path.set(pathCase.path.size()-1, caseNode);
+        pathCase.setPathBack(caseNode);
 
         ConditionPred cond= new ConditionPred(key, i1, keyName);
         ConstantComp checkComp= ConditionPred.checkConstantComparison(cond);
 
-
-        boolean pathOK=true;
-        if(checkComp==ConstantComp.EvalFalse){
-          pathOK=false;
-        }
-
-        if(checkComp==ConstantComp.NonConstant){
-          pathCase.addToCond(cond);
-
-          PathFeasibility feasibility=new PathFeasibility(pathCase);
-          pathOK= feasibility.check();
-        }
-
-        if(pathOK){
-          PathRecord outNode=new PathRecord(lastNode);
-          outNode.stmt=succ;
-          int numOccur=numOccurence(succ, currPath.path)+1;
-          int maxOccur=headerBlockStmts.contains(succ)?MethodLoopInfo.maxOccurForHeader:1;
-          outNode.numOccur=numOccur;
-          outNode.maxOccur=maxOccur;
-          outNode.type=decideRecordType(succ, numOccur>maxOccur, pathCase.path);
-          outNode.note="";
-          pathCase.addToPath(outNode);
-  
-          cacheOrDisgardPath(pathCase);
+        if(checkComp!=ConstantComp.EvalFalse){
+          if(checkComp==ConstantComp.NonConstant){
+            pathCase.addToCond(cond);
+          }
+          cases.add(pathCase);
+          caseSuccIds.add(succId);
         }
       }
+      continueCases(lastNode, index, cases, caseSuccIds);
 
       /// TODO: how to add cond for default branch?
       // key<low && key>high
       if(defaultTarget!=null){
-        Stmt succ=(Stmt) defaultTarget;
+        int succId=targetIds[targetIds.length-1];
+        Stmt succ=index.stmts[succId];
 
         PathConstraint pathCase=new PathConstraint(currPath);
         PathRecord caseNode=new PathRecord(lastNode);
         caseNode.note=String.format("-- default case for %s", keyName);
-        pathCase.path.set(pathCase.path.size()-1, caseNode);
+        pathCase.setPathBack(caseNode);
 
         PathRecord outNode=new PathRecord(lastNode);
-        outNode.stmt=succ;
-        int numOccur=numOccurence(succ, currPath.path)+1;
-        int maxOccur=headerBlockStmts.contains(succ)?MethodLoopInfo.maxOccurForHeader:1;
+        outNode.setStmt(index, succId);
+        int numOccur=numOccurence(succ, currPath)+1;
+        int maxOccur=index.isHeaderBlockStmt(succId)?loopUnroll:1;
         outNode.numOccur=numOccur;
         outNode.maxOccur=maxOccur;
-        outNode.type=decideRecordType(succ, numOccur>maxOccur, pathCase.path);
+        outNode.type=decideRecordType(succ, numOccur>maxOccur, pathCase);
         outNode.note="";
         pathCase.addToPath(outNode);
 
@@ -595,8 +825,42 @@ public class EndpointAnalysis {
     }
   }
 
+  // caches the feasible ones of the cases of a switch, the ones with a case condition are checked together
+  void continueCases(PathRecord lastNode, BodyIndex index, ArrayList<PathConstraint> cases, ArrayList<Integer> succIds){
+    ArrayList<ConsList<ConditionPred>> siblings=new ArrayList<>();
+    for(PathConstraint pathCase: cases){
+      if(pathCase.conds!=currPath.conds){
+        siblings.add(pathCase.conds);
+      }
+    }
+    boolean[] feasible=checkSiblingFeasibility(siblings);
+
+    int j=0;
+    for(int i=0;i<cases.size();++i){
+      PathConstraint pathCase=cases.get(i);
+      if(pathCase.conds!=currPath.conds && !feasible[j++]){
+        continue;
+      }
+
+      int succId=succIds.get(i);
+      Stmt succ=index.stmts[succId];
+
+      PathRecord outNode=new PathRecord(lastNode);
+      outNode.setStmt(index, succId);
+      int numOccur=numOccurence(succ, currPath)+1;
+      int maxOccur=index.isHeaderBlockStmt(succId)?loopUnroll:1;
+      outNode.numOccur=numOccur;
+      outNode.maxOccur=maxOccur;
+      outNode.type=decideRecordType(succ, numOccur>maxOccur, pathCase);
+      outNode.note="";
+      pathCase.addToPath(outNode);
+
+      cacheOrDisgardPath(pathCase);
+    }
+  }
+
   public void handleThrow() {
-    PathRecord lastNode = (PathRecord) currPath.path.get(currPath.path.size() - 1);
+    PathRecord lastNode = (PathRecord) currPath.getPathBack();
     JThrowStmt stmt=(JThrowStmt) lastNode.stmt;
     lastNode.note="-- THROW";
 
@@ -621,7 +885,7 @@ public class EndpointAnalysis {
   }
 
   // public void handleSpecialInvokeExpr() {
-  //   PathRecord lastNode = (PathRecord) currPath.path.get(currPath.path.size() - 1);
+  //   PathRecord lastNode = (PathRecord) currPath.getPathBack();
   //   JInvokeStmt stmt = (JInvokeStmt) lastNode.stmt;
   //   HashMap<Value, ExprBox> symStore = lastNode.symStore;
 
@@ -642,7 +906,7 @@ public class EndpointAnalysis {
   // }
 
   public boolean handleInvokeExpr() {
-    PathRecord lastNode = (PathRecord) currPath.path.get(currPath.path.size() - 1);
+    PathRecord lastNode = (PathRecord) currPath.getPathBack();
     Stmt stmt = lastNode.stmt;
 
     if(stmt.containsInvokeExpr()==false){
@@ -672,6 +936,11 @@ public class EndpointAnalysis {
           return true;
         }
         catch(RuntimeException e){
+          if(summaryOf!=null){
+            saveSummaryExit(currPath, false, null, new ArrayList<>(), true);
+            currPath=null;
+            return true;
+          }
           currPath.isValidPath=false;
           currPath.HTTPStatusCode=500;
           savePath(currPath);
@@ -685,9 +954,19 @@ public class EndpointAnalysis {
 
     ArrayList<SootMethod> callees = this.getCalleesAt(stmt);
     // appCallees.size()>0 already checked
-    Stream<SootMethod> appCallees = callees.stream()
+    ArrayList<SootMethod> appCallees = callees.stream()
       .filter(m -> checkAppClass(m))
-    ;
+      .collect(Collectors.toCollection(ArrayList::new));
+
+    // a callee that can not change the outcome of the path is not entered, the path goes on after the call
+    int numAppCallees=appCallees.size();
+    if(methodEffects!=null){
+      appCallees.removeIf(m -> isSkippable(m));
+    }
+    boolean skipped=appCallees.size()<numAppCallees;
+    if(skipped){
+      ++numSkippedCalls;
+    }
 
     Iterator<SootMethod> iter = appCallees.iterator();
     if (!iter.hasNext()) {
@@ -696,7 +975,7 @@ public class EndpointAnalysis {
     }
 
 
-    ImmutableMap<Value, ExprBox> symStore = lastNode.symStore;
+    SymStore symStore = lastNode.symStore;
     ArrayList<SootMethod> callStack = lastNode.callStack;
     ArrayList<Type> exceptionStack = lastNode.exceptionStack;
 
@@ -723,6 +1002,17 @@ public class EndpointAnalysis {
       return false;
     }
 
+    // the other implementations are entered below
+    if(skipped){
+      PathConstraint skipPath=new PathConstraint(currPath);
+      PathRecord skipNode=new PathRecord(lastNode);
+      skipNode.numOccur=lastNode.numOccur;
+      skipNode.maxOccur=lastNode.maxOccur;
+      skipNode.skipInvokeExpr=true;
+      skipPath.setPathBack(skipNode);
+      cachePath(skipPath);
+    }
+
 
     lastNode.preInvoke=true;
     
@@ -734,6 +1024,10 @@ public class EndpointAnalysis {
     while (iter.hasNext()) {
       SootMethod callee = iter.next();
 
+      if(calleeSummaries!=null && instantiateSummary(callee, callParamIdx, lastNode)){
+        continue;
+      }
+
       // if(callee.getName().equals("<clinit>")){
       //   System.err.println("here");
       // }
@@ -752,19 +1046,180 @@ public class EndpointAnalysis {
     return true;
   }
 
+  CalleeSummary getCalleeSummary(SootMethod callee, ArrayList<ParamInfo> args){
+    ArrayList<Object> key=CalleeSummary.bindingKey(callee, args);
+    CalleeSummary summary=calleeSummaries.get(key);
+    if(summary!=null){
+      return summary;
+    }
+
+    summary=new CalleeSummary(callee, args);
+
+    EndpointAnalysis sub=new EndpointAnalysis(this, summary);
+    while(sub.buildPaths()){
+    }
+
+    summary.complete=!sub.overThreshold;
+    this.numSolverCalls+=sub.numSolverCalls;
+    this.numFeasibilityCacheHits+=sub.numFeasibilityCacheHits;
+    this.numQuickDecisions+=sub.numQuickDecisions;
+    this.numBatchedChecks+=sub.numBatchedChecks;
+    this.numZ3Contexts+=sub.numZ3Contexts;
+    this.numMergedRegions+=sub.numMergedRegions;
+    this.numLoopsSummarized+=sub.numLoopsSummarized;
+    this.numPrunedBranches+=sub.numPrunedBranches;
+    this.numSkippedCalls+=sub.numSkippedCalls;
+    summary.globalVarRead.addAll(sub.globalVarRead);
+    summary.gloablVarWrite.putAll(sub.gloablVarWrite);
+
+    logger.debug(String.format("summary of %s: %d entries%s", callee.getSignature(), summary.entries.size(), summary.complete?"":", incomplete"));
+
+    // cut by the time left to this endpoint, another endpoint may complete it
+    if(ExplorationBudget.isTimeLimit(sub.truncatedBy)){
+      return summary;
+    }
+
+    // another endpoint may have built the same summary meanwhile
+    CalleeSummary prev=calleeSummaries.putIfAbsent(key, summary);
+    return prev!=null?prev:summary;
+  }
+
+  // true if MethodEffects proves the callee writes no static field or heap, throws nothing, does not branch on its input
+  // and does not return a response
+  boolean isSkippable(SootMethod callee){
+    MethodEffects effects=MethodEffects.of(callee, cg, frameworkData, methodEffects);
+    if(!effects.isSkippable()){
+      return false;
+    }
+    this.globalVarRead.addAll(effects.staticFieldsRead);
+    return true;
+  }
+
+  // instead of entering the callee, continue currPath after the call once per entry of its summary
+  // returns false if the callee has to be inlined
+  boolean instantiateSummary(SootMethod callee, ArrayList<ParamInfo> args, PathRecord lastNode){
+    if(summaryStack.contains(callee) || !callee.hasActiveBody()){
+      return false;
+    }
+
+    CalleeSummary summary=getCalleeSummary(callee, args);
+    if(!summary.complete){
+      return false;
+    }
+
+    ImmutableMap<Value, ExprBox> binding=summary.bind(args);
+
+    ArrayList<PathConstraint> newPaths=new ArrayList<>();
+    ArrayList<Boolean> aborted=new ArrayList<>();
+    HashMap<SootField, ArrayList<Value>> globalWrites;
+
+    try{
+      for(CalleeSummary.Entry entry: summary.entries){
+        PathConstraint newPath=new PathConstraint(currPath);
+
+        boolean pathOK=true;
+        boolean condAdded=false;
+        for(ConditionPred pred: entry.conds){
+          ConditionExpr cond=(ConditionExpr) CalleeSummary.instantiate(pred.uniCond, binding);
+          ConditionPred newPred=new ConditionPred(cond, true, pred.str, pred.inLoopHeader);
+          ConstantComp checkComp=ConditionPred.checkConstantComparison(newPred);
+
+          if(checkComp==ConstantComp.EvalFalse){
+            pathOK=false;
+            break;
+          }
+          if(checkComp==ConstantComp.NonConstant){
+            newPath.addToCond(newPred);
+            condAdded=true;
+          }
+        }
+
+        if(!pathOK){
+          continue;
+        }
+
+        PathRecord preInvokeNode = new PathRecord(lastNode);
+        preInvokeNode.skipInvokeExpr = true;
+
+        if(!entry.exceptionStack.isEmpty()){
+          preInvokeNode.exceptionStack=entry.exceptionStack;
+          preInvokeNode.note="-- Unwinding";
+        }
+        else if(entry.returnStmt && preInvokeNode.type==RecordType.Assignment){
+          preInvokeNode.type=RecordType.Other;
+
+          JAssignStmt preStmt=(JAssignStmt) preInvokeNode.stmt;
+          Value lhs=preStmt.getLeftOp();
+
+          if(entry.returnValue instanceof Constant){
+            preInvokeNode.symStore=preInvokeNode.symStore.put(lhs, new ExprBox(entry.returnValue));
+            preInvokeNode.note=String.format("-- Assignment");
+          }
+          else if(entry.returnValue!=null){
+            Value rtv=CalleeSummary.instantiate(entry.returnValue, binding);
+
+            if(lhs instanceof Local || lhs instanceof JInstanceFieldRef){
+              preInvokeNode.symStore=preInvokeNode.symStore.put(lhs, new ExprBox(rtv));
+            }
+            preInvokeNode.note=String.format("-- Assignment");
+          }
+        }
+
+        if(condAdded && !checkFeasibility(newPath)){
+          continue;
+        }
+
+        newPath.addToPath(preInvokeNode);
+        newPaths.add(newPath);
+        aborted.add(entry.aborted);
+      }
+
+      globalWrites=summary.instantiateGlobalWrites(binding);
+    }
+    catch(RuntimeException e){
+      logger.debug(String.format("failed to instantiate the summary of %s: %s", callee.getSignature(), e.getMessage()));
+      return false;
+    }
+
+    this.globalVarRead.addAll(summary.globalVarRead);
+    for(Map.Entry<SootField, ArrayList<Value>> kv: globalWrites.entrySet()){
+      this.gloablVarWrite.computeIfAbsent(kv.getKey(), r -> new ArrayList<>()).addAll(kv.getValue());
+    }
+
+    for(int i=0;i<newPaths.size();++i){
+      PathConstraint newPath=newPaths.get(i);
+
+      if(aborted.get(i)){
+        if(summaryOf!=null){
+          saveSummaryExit(newPath, false, null, new ArrayList<>(), true);
+        }
+        else{
+          newPath.isValidPath=false;
+          newPath.HTTPStatusCode=500;
+          savePath(newPath);
+        }
+      }
+      else{
+        cachePath(newPath);
+      }
+    }
+
+    return true;
+  }
+
   public void handleException() {
-    PathRecord lastNode = (PathRecord) currPath.path.get(currPath.path.size() - 1);
+    PathRecord lastNode = (PathRecord) currPath.getPathBack();
     expandSuccsExceptional(lastNode);
   }
 
   public void handleOther() {
-    PathRecord lastNode = (PathRecord) currPath.path.get(currPath.path.size() - 1);
+    PathRecord lastNode = (PathRecord) currPath.getPathBack();
 
     expandSuccs(lastNode);
   }
 
   public void handleInvokeStmt() {
-    PathRecord lastNode = (PathRecord) currPath.path.get(currPath.path.size() - 1);
+    PathRecord lastNode = (PathRecord) currPath.getPathBack();
 
     JInvokeStmt stmt=(JInvokeStmt) lastNode.stmt;
 
@@ -772,9 +1227,9 @@ public class EndpointAnalysis {
   }
 
   public void handleNewInvoke() {
-    PathRecord lastNode = (PathRecord) currPath.path.get(currPath.path.size() - 1);
+    PathRecord lastNode = (PathRecord) currPath.getPathBack();
     JInvokeStmt stmt=(JInvokeStmt) lastNode.stmt;
-    ImmutableMap<Value, ExprBox> symStore = lastNode.symStore;
+    SymStore symStore = lastNode.symStore;
 
     JSpecialInvokeExpr expr = (JSpecialInvokeExpr) stmt.getInvokeExpr();
     assert (expr.getMethodRef().getName().equals("<init>"));
@@ -809,23 +1264,25 @@ public class EndpointAnalysis {
     ExprBox newBox =new ExprBox(newRhs);
 
     /// TODO: Workaround
-    ImmutableMap.Builder<Value, ExprBox> builder=ImmutableMap.builderWithExpectedSize(symStore.size());
-    for(Map.Entry<Value, ExprBox> kv: symStore.entrySet()){
-      if(kv.getValue()==exprBox){
-        builder.put(kv.getKey(), newBox);
-      }
-      else{
-        builder.put(kv);
+    ArrayList<Value> aliases=new ArrayList<>();
+    symStore.forEach((k, v)->{
+      if(v==exprBox){
+        aliases.add(k);
       }
+    });
+
+    SymStore newSymStore=symStore;
+    for(Value k: aliases){
+      newSymStore=newSymStore.put(k, newBox);
     }
 
-    expandSuccs(lastNode, builder.build());
+    expandSuccs(lastNode, newSymStore);
   }
 
   public void handleAssignment() {
-    PathRecord lastNode = (PathRecord) currPath.path.get(currPath.path.size() - 1);
+    PathRecord lastNode = (PathRecord) currPath.getPathBack();
     JAssignStmt stmt=(JAssignStmt) lastNode.stmt;
-    ImmutableMap<Value, ExprBox> symStore = lastNode.symStore;
+    SymStore symStore = lastNode.symStore;
 
     Value lhs=stmt.getLeftOp();
     Value rhs=stmt.getRightOp();
@@ -851,7 +1308,7 @@ public class EndpointAnalysis {
       // System.out.println("here JNewExpr");
     // }
     
-    ImmutableMap<Value, ExprBox> newSymStore=putIntoImmutableMap(symStore, lhs, rhsRewrite);
+    SymStore newSymStore=symStore.put(lhs, rhsRewrite);
 
     if(lhs instanceof StaticFieldRef){
       ArrayList<Value> mappedVals = this.gloablVarWrite.computeIfAbsent(((StaticFieldRef)lhs).getField(), r -> new ArrayList<>());
@@ -910,23 +1367,23 @@ public class EndpointAnalysis {
   }
 
   public void expandSuccsExceptional(PathRecord lastNode, ArrayList<Type> newExceptionStack) {
-    Stmt stmt=lastNode.stmt;
-    Body body=icfg.getBodyOf(stmt);
-    DirectedGraph<Unit> d_graph = icfg.getOrCreateUnitGraph(body);
-    assert (d_graph instanceof ExceptionalUnitGraph);
-    ExceptionalUnitGraph graph = (ExceptionalUnitGraph) d_graph;
+    BodyIndex index=indexOf(lastNode);
 
     // omitExceptingUnitEdges is true by default
     /// TODO: if we only want to go to the catch block that actually catches the exception,
     /// i.e., the first catch block whose exception type is the super class of the exception,
     /// we would need to filter it out here before adding all catch blocks into cachedPaths.
-    List<Unit> succList=graph.getExceptionalSuccsOf(stmt);
+    int[] succIds=index.exceptionalSuccs[lastNode.stmtId];
     
     //unwinding
     /// TODO: add retval to the symStore of return site
 
-    if(succList.isEmpty()){
-      if (lastNode.callStack.size() == 1) {
+    if(succIds.length==0){
+      if (lastNode.callStack.size() == 1 && summaryOf!=null) {
+        saveSummaryExit(currPath, false, null, newExceptionStack, false);
+        currPath = null;
+      }
+      else if (lastNode.callStack.size() == 1) {
         currPath.isValidPath=false;
         /// TODO:
         currPath.HTTPStatusCode=500;
@@ -936,18 +1393,18 @@ public class EndpointAnalysis {
       else{
         int stackHeight=lastNode.callStack.size();
 
-        int len = currPath.path.size();
-        int i;
-        for (i = len - 1; i >= 0; --i) {
-          PathRecordBase ri=currPath.get(i);
+        PathNode invokeNode=currPath.path;
+        while (invokeNode != null) {
+          PathRecordBase ri=invokeNode.rec;
           if (ri.type == RecordType.Invoke && ri.callStack.size()==stackHeight-1) {
             break;
           }
+          invokeNode=invokeNode.prev;
         }
 
-        assert (i > 0);
+        assert (invokeNode != null && invokeNode.prev != null);
         /// TODO: must be PathRecord?
-        PathRecordBase n0=currPath.get(i - 1);
+        PathRecordBase n0=invokeNode.prev.rec;
         assert(n0 instanceof PathRecord);
         PathRecord preInvokeNode = new PathRecord((PathRecord)n0);
         
@@ -961,13 +1418,11 @@ public class EndpointAnalysis {
       }
     }
     else{
-      for(Unit succU: succList){
-        assert(succU instanceof JIdentityStmt);
-
-        JIdentityStmt succ=(JIdentityStmt) succU;
+      for(int succId: succIds){
+        assert(index.stmts[succId] instanceof JIdentityStmt);
 
         PathRecord outNode = new PathRecord(lastNode);
-        outNode.stmt = succ;
+        outNode.setStmt(index, succId);
         outNode.type=RecordType.Identity;
         outNode.note="";
         outNode.exceptionStack=newExceptionStack;
@@ -986,30 +1441,43 @@ public class EndpointAnalysis {
   // set currPath to null
   /// DONE: DOES NOT consider exceptions
   /// DONE: DOES consider function returns
-  public void expandSuccs(PathRecord lastNode, ImmutableMap<Value, ExprBox> newFlowSet) {
+  public void expandSuccs(PathRecord lastNode, SymStore newFlowSet) {
     if(!lastNode.exceptionStack.isEmpty()){
       expandSuccsExceptional(lastNode);
       return;
     }
 
     Stmt stmt=lastNode.stmt;
-    Body body=icfg.getBodyOf(stmt);
-    DirectedGraph<Unit> d_graph = icfg.getOrCreateUnitGraph(body);
-    assert (d_graph instanceof ExceptionalUnitGraph);
-    ExceptionalUnitGraph graph = (ExceptionalUnitGraph) d_graph;
-    ImmutableMap<Value, ExprBox> symStore0=lastNode.symStore;
+    BodyIndex index=indexOf(lastNode);
+    SymStore symStore0=lastNode.symStore;
 
     // exclude exceptional edges
-    List<Unit> succList=graph.getUnexceptionalSuccsOf(stmt);
+    int[] succIds=index.succs[lastNode.stmtId];
 
-    if (succList.isEmpty()) {
+    if (succIds.length==0) {
       assert (stmt instanceof ReturnStmt || stmt instanceof ReturnVoidStmt);
 
       /// DONE: function returns
       /// DONE: add retval to the symStore of return site
       lastNode.type = RecordType.Return;
 
-      if (lastNode.callStack.size() == 1) {
+      if (lastNode.callStack.size() == 1 && summaryOf!=null) {
+        // same as what is put into the symStore of the caller below
+        Value rtv=null;
+        if(stmt instanceof JReturnStmt){
+          Value op=((JReturnStmt) stmt).getOp();
+          if(op instanceof Constant){
+            rtv=op;
+          }
+          else if(symStore0.containsKey(op)){
+            rtv=RhsRewrite.rewriteRHS(op, symStore0).getValue();
+          }
+        }
+
+        saveSummaryExit(currPath, stmt instanceof JReturnStmt, rtv, new ArrayList<>(), false);
+        currPath = null;
+      }
+      else if (lastNode.callStack.size() == 1) {
         /// DONE: determine if response is valid
 
         if(stmt instanceof JReturnStmt){
@@ -1037,18 +1505,18 @@ public class EndpointAnalysis {
       } else {
         int stackHeight=lastNode.callStack.size();
 
-        int len = currPath.path.size();
-        int i;
-        for (i = len - 1; i >= 0; --i) {
-          PathRecordBase ri=currPath.get(i);
+        PathNode invokeNode=currPath.path;
+        while (invokeNode != null) {
+          PathRecordBase ri=invokeNode.rec;
           if (ri.type == RecordType.Invoke && ri.callStack.size()==stackHeight-1) {
             break;
           }
+          invokeNode=invokeNode.prev;
         }
 
-        assert (i > 0);
+        assert (invokeNode != null && invokeNode.prev != null);
         /// TODO: must be PathRecord?
-        PathRecordBase n0=currPath.get(i - 1);
+        PathRecordBase n0=invokeNode.prev.rec;
         assert (n0 instanceof PathRecord);
         PathRecord preInvokeNode = new PathRecord((PathRecord)n0);
 
@@ -1068,7 +1536,7 @@ public class EndpointAnalysis {
 
             Value lhs=preStmt.getLeftOp();
 
-            preInvokeNode.symStore=putIntoImmutableMap(preInvokeNode.symStore, lhs, new ExprBox(rtv));
+            preInvokeNode.symStore=preInvokeNode.symStore.put(lhs, new ExprBox(rtv));
 
             preInvokeNode.note=String.format("-- Assignment");
           }
@@ -1084,14 +1552,14 @@ public class EndpointAnalysis {
               // ValueRewrite nvr= new ValueRewrite(rr.str, preStmt.getRightOp());
               // preInvokeNode.symStore.put((Local) lhs, nvr);
 
-              preInvokeNode.symStore=putIntoImmutableMap(preInvokeNode.symStore, lhs, rr);
+              preInvokeNode.symStore=preInvokeNode.symStore.put(lhs, rr);
             }
             else if(lhs instanceof JInstanceFieldRef){
               // JInstanceFieldRef lhs1=(JInstanceFieldRef) lhs;
               // ValueRewrite nvr= new ValueRewrite(rr.str, preStmt.getRightOp());
               // preInvokeNode.symStore.put((Local) lhs1.getBase(), nvr);
 
-              preInvokeNode.symStore=putIntoImmutableMap(preInvokeNode.symStore, lhs, rr);
+              preInvokeNode.symStore=preInvokeNode.symStore.put(lhs, rr);
             }
 
             preInvokeNode.note=String.format("-- Assignment");
@@ -1105,20 +1573,18 @@ public class EndpointAnalysis {
 
     }
     else{
-      HashSet<Stmt> headerBlockStmts = this.bodyToLoopInfoCache.get(body).headerBlockStmts;
-      
-      for(Unit succU: succList){
-        Stmt succ=(Stmt) succU;
+      for(int succId: succIds){
+        Stmt succ=index.stmts[succId];
 
         /// DONE: no handle exception edges
 
         PathRecord outNode = new PathRecord(lastNode);
-        outNode.stmt = succ;
-        int numOccur=numOccurence(succ, currPath.path)+1;
-        int maxOccur=headerBlockStmts.contains(succ)?MethodLoopInfo.maxOccurForHeader:1;
+        outNode.setStmt(index, succId);
+        int numOccur=numOccurence(succ, currPath)+1;
+        int maxOccur=index.isHeaderBlockStmt(succId)?loopUnroll:1;
         outNode.numOccur=numOccur;
         outNode.maxOccur=maxOccur;
-        outNode.type = decideRecordType(succ, numOccur>maxOccur, currPath.path);
+        outNode.type = decideRecordType(succ, numOccur>maxOccur, currPath);
         outNode.note = "";
         outNode.symStore=newFlowSet;
 
@@ -1148,7 +1614,7 @@ public class EndpointAnalysis {
   }
 
   public void handleIdentity() {
-    PathRecord lastNode = (PathRecord) currPath.path.get(currPath.path.size() - 1);
+    PathRecord lastNode = (PathRecord) currPath.getPathBack();
     JIdentityStmt stmt=(JIdentityStmt) lastNode.stmt;
 
     Value rhs=stmt.getRightOp();
@@ -1217,23 +1683,17 @@ public class EndpointAnalysis {
   // copy symStore, callStack and exceptionStack from inNode
   // DON'T use this when an exception edge is possible
   public void expandOnFirstSucc(PathRecord inNode) {
-    Stmt stmt = inNode.stmt;
-
-    Body body=icfg.getBodyOf(stmt);
-    DirectedGraph<Unit> d_graph = icfg.getOrCreateUnitGraph(body);
-    assert (d_graph instanceof ExceptionalUnitGraph);
-    ExceptionalUnitGraph graph = (ExceptionalUnitGraph) d_graph;
-
-    List<Unit> succList=graph.getUnexceptionalSuccsOf(stmt);
-    assert (succList.size()==1);
+    BodyIndex index=indexOf(inNode);
 
-    HashSet<Stmt> headerBlockStmts = this.bodyToLoopInfoCache.get(body).headerBlockStmts;
+    int[] succIds=index.succs[inNode.stmtId];
+    assert (succIds.length==1);
 
-    Stmt succ=(Stmt) succList.get(0);
+    int succId=succIds[0];
+    Stmt succ=index.stmts[succId];
     PathRecord fallThruNode = new PathRecord(inNode);
-    fallThruNode.stmt = succ;
+    fallThruNode.setStmt(index, succId);
     int numOccur=numOccurence(succ, currPath)+1;
-    int maxOccur=headerBlockStmts.contains(succ)?MethodLoopInfo.maxOccurForHeader:1;
+    int maxOccur=index.isHeaderBlockStmt(succId)?loopUnroll:1;
     fallThruNode.numOccur=numOccur;
     fallThruNode.maxOccur=maxOccur;
     fallThruNode.type = decideRecordType(succ, numOccur>maxOccur, currPath);
@@ -1246,19 +1706,19 @@ public class EndpointAnalysis {
 
   // append target to currPath
   public void handleGoto() {
-    PathRecord lastNode = (PathRecord) currPath.path.get(currPath.path.size() - 1);
+    PathRecord lastNode = (PathRecord) currPath.getPathBack();
     JGotoStmt stmt = (JGotoStmt) lastNode.stmt;
 
     Stmt tgt = (Stmt) stmt.getTarget();
     assert (tgt != null);
 
-    Body body=icfg.getBodyOf(stmt);
-    HashSet<Stmt> headerBlockStmts = this.bodyToLoopInfoCache.get(body).headerBlockStmts;
+    BodyIndex index=indexOf(lastNode);
+    int tgtId=index.targets[lastNode.stmtId][0];
 
     PathRecord fallThruNode = new PathRecord(lastNode);
-    fallThruNode.stmt = tgt;
+    fallThruNode.setStmt(index, tgtId);
     int numOccur=numOccurence(tgt, currPath)+1;
-    int maxOccur=headerBlockStmts.contains(tgt)?MethodLoopInfo.maxOccurForHeader:1;
+    int maxOccur=index.isHeaderBlockStmt(tgtId)?loopUnroll:1;
     fallThruNode.numOccur=numOccur;
     fallThruNode.maxOccur=maxOccur;
     fallThruNode.type = decideRecordType(tgt, numOccur>maxOccur, currPath);
@@ -1273,7 +1733,7 @@ public class EndpointAnalysis {
 
   // adding both IF and ELSE branches to cachedPaths
   public void handleIf(){
-    PathRecord lastNode = (PathRecord) currPath.path.get(currPath.path.size() - 1);
+    PathRecord lastNode = (PathRecord) currPath.getPathBack();
 
     JIfStmt stmt=(JIfStmt)lastNode.stmt;
 
@@ -1281,24 +1741,17 @@ public class EndpointAnalysis {
 
     assert(tgt!=null);
 
-    Body body=icfg.getBodyOf(stmt);
-    DirectedGraph<Unit> d_graph = icfg.getOrCreateUnitGraph(body);
-    assert (d_graph instanceof ExceptionalUnitGraph);
-    ExceptionalUnitGraph graph = (ExceptionalUnitGraph) d_graph;
-
-    List<Unit> succList= graph.getUnexceptionalSuccsOf(stmt);
+    BodyIndex index=indexOf(lastNode);
+    int tgtId=index.targets[lastNode.stmtId][0];
+    int[] succIds=index.succs[lastNode.stmtId];
 
     /// DONE: handle exceptional edges when necessary
     // no exception can be thrown at If stmt
 
-    /// DONE: check if this step filters out tgt and exceptional edges
-    // exceptional succs filter out above with getUnexceptionalSuccsOf
-    succList.removeIf(succ -> succ.equals(tgt));
-
-    assert (succList.size()==1);
+    // the fall through successor, the other one of the unexceptional succs is tgt, unless both are the same
+    int succId=succIds.length>1 && succIds[0]==tgtId?succIds[1]:succIds[0];
 
-    HashSet<Stmt> headerBlockStmts = this.bodyToLoopInfoCache.get(body).headerBlockStmts;
-    boolean isInLoopHeader=headerBlockStmts.contains(stmt);
+    boolean isInLoopHeader=index.isHeaderBlockStmt(lastNode.stmtId);
 
     assert (stmt.getCondition() instanceof ConditionExpr);
     Value condValue=stmt.getCondition();
@@ -1315,32 +1768,50 @@ public class EndpointAnalysis {
       }
     }
 
+    if(pruneBranches && !isInLoopHeader && pruneAt(lastNode, condRewriten, condString, index)){
+      return;
+    }
+
+    if(mergePaths && !isInLoopHeader && mergeAt(lastNode, condString, index)){
+      return;
+    }
+
     ConstantComp checkElseCmp=ConditionPred.checkConstantComparison(condElse);
+    ConditionPred condIf = new ConditionPred(condRewriten, true, condString, isInLoopHeader);
+
+    // both branches are due for a check, they share currPath.conds
+    boolean[] branchesOK=null;
+    if(checkElseCmp==ConstantComp.NonConstant && (currPath.conds.size()+1)%4==0){
+      ArrayList<ConsList<ConditionPred>> siblings=new ArrayList<>();
+      siblings.add(currPath.conds.append(condElse));
+      siblings.add(currPath.conds.append(condIf));
+      branchesOK=checkSiblingFeasibility(siblings);
+    }
+
     if(checkElseCmp!=ConstantComp.EvalFalse){
 
 
       // create and cache ELSE branch path
-      Stmt succ=(Stmt) succList.get(0);
+      Stmt succ=index.stmts[succId];
       PathConstraint pathElse=new PathConstraint(currPath);
       PathRecord elseNode=new PathRecord(lastNode);
       elseNode.note=String.format("!(%s)", condString);
-      pathElse.path.set(pathElse.path.size()-1, elseNode);
+      pathElse.setPathBack(elseNode);
 
       boolean pathOK=true;
       if(checkElseCmp==ConstantComp.NonConstant){
         pathElse.addToCond(condElse);
 
-        if(pathElse.conds.size()%4==0){
-          PathFeasibility feasibility=new PathFeasibility(pathElse);
-          pathOK= feasibility.check();
+        if(branchesOK!=null){
+          pathOK=branchesOK[0];
         }
       }
 
       if(pathOK){
         PathRecord fallThruNode=new PathRecord(elseNode);
-        fallThruNode.stmt=succ;
+        fallThruNode.setStmt(index, succId);
         int numOccur1=numOccurence(succ, pathElse)+1;
-        int maxOccur1=headerBlockStmts.contains(succ)?MethodLoopInfo.maxOccurForHeader:1;
+        int maxOccur1=index.isHeaderBlockStmt(succId)?loopUnroll:1;
         fallThruNode.numOccur=numOccur1;
         fallThruNode.maxOccur=maxOccur1;
         fallThruNode.type=decideRecordType(succ, numOccur1>maxOccur1, pathElse);
@@ -1350,9 +1821,7 @@ public class EndpointAnalysis {
         cacheOrDisgardPath(pathElse);
       }
     }
-    
 
-    ConditionPred condIf = new ConditionPred(condRewriten, true, condString, isInLoopHeader);
 
     ConstantComp checkIfCmp;
     switch (checkElseCmp) {
@@ -1378,17 +1847,16 @@ public class EndpointAnalysis {
       if(checkElseCmp==ConstantComp.NonConstant){
         currPath.addToCond(condIf);
 
-        if(currPath.conds.size()%4==0){
-          PathFeasibility feasibility=new PathFeasibility(currPath);
-          pathOK= feasibility.check();
+        if(branchesOK!=null){
+          pathOK=branchesOK[1];
         }
       }
 
       if(pathOK){
         PathRecord branchNode=new PathRecord(lastNode);
-        branchNode.stmt=tgt;
+        branchNode.setStmt(index, tgtId);
         int numOccur2=numOccurence(tgt, currPath)+1;
-        int maxOccur2=headerBlockStmts.contains(tgt)?MethodLoopInfo.maxOccurForHeader:1;
+        int maxOccur2=index.isHeaderBlockStmt(tgtId)?loopUnroll:1;
         branchNode.numOccur=numOccur2;
         branchNode.maxOccur=maxOccur2;
         branchNode.type=decideRecordType(tgt, numOccur2>maxOccur2, currPath);
@@ -1403,12 +1871,189 @@ public class EndpointAnalysis {
     currPath=null;
   }
 
+  // continues currPath at the post-dominator of the if statement of lastNode without forking or adding its condition,
+  // if the branches do not differ in anything the spec depends on
+  boolean pruneAt(PathRecord lastNode, Value cond, String condString, BodyIndex index){
+    // the constants a parameter or static field is compared to become examples and constraints of the spec
+    if(usesSpecInput(cond)){
+      return false;
+    }
+
+    BranchRegion region=this.bodyToLoopInfoCache.get(index.body).branchRegion(lastNode.stmt);
+    if(region==null){
+      return false;
+    }
+    // a library call on anything else, e.g. response.setStatus(404), may change what the endpoint returns
+    for(Stmt s: region.invokes){
+      if(_decideInvokeExpr(s) || !region.onAllocatedReceiver(s)){
+        return false;
+      }
+    }
+
+    ++numPrunedBranches;
+    this.globalVarRead.addAll(region.staticFieldsRead);
+    lastNode.note=String.format("%s, pruned", condString);
+
+    PathRecord joinNode=new PathRecord(lastNode);
+    int joinId=index.idOf(region.join);
+    joinNode.setStmt(index, joinId);
+    int numOccur=numOccurence(region.join, currPath)+1;
+    int maxOccur=index.isHeaderBlockStmt(joinId)?loopUnroll:1;
+    joinNode.numOccur=numOccur;
+    joinNode.maxOccur=maxOccur;
+    joinNode.type=decideRecordType(region.join, numOccur>maxOccur, currPath);
+    joinNode.note="";
+    currPath.addToPath(joinNode);
+
+    cacheOrDisgardPath(currPath);
+    currPath=null;
+    return true;
+  }
+
+  // true if v reads an endpoint parameter or a static field, the inputs the spec describes
+  static boolean usesSpecInput(Value v){
+    if(v instanceof EndPointParameter || v instanceof StaticFieldRef){
+      return true;
+    }
+    for(ValueBox vb: v.getUseBoxes()){
+      if(vb.getValue() instanceof EndPointParameter || vb.getValue() instanceof StaticFieldRef){
+        return true;
+      }
+    }
+    return false;
+  }
+
+  // continues currPath at the post-dominator of the if statement of lastNode, if PathMerger merges the region in between
+  boolean mergeAt(PathRecord lastNode, String condString, BodyIndex index){
+    ExceptionalUnitGraph graph=(ExceptionalUnitGraph) icfg.getOrCreateUnitGraph(index.body);
+    MethodLoopInfo loopInfo=this.bodyToLoopInfoCache.get(index.body);
+    PathMerger.Merged merged=PathMerger.merge((JIfStmt) lastNode.stmt, lastNode.symStore, graph, loopInfo);
+    if(merged==null){
+      return false;
+    }
+
+    ++numMergedRegions;
+    lastNode.note=String.format("%s, %d paths merged", condString, merged.numSubPaths);
+
+    PathRecord joinNode=new PathRecord(lastNode);
+    int joinId=index.idOf(merged.join);
+    joinNode.setStmt(index, joinId);
+    int numOccur=numOccurence(merged.join, currPath)+1;
+    int maxOccur=index.isHeaderBlockStmt(joinId)?loopUnroll:1;
+    joinNode.numOccur=numOccur;
+    joinNode.maxOccur=maxOccur;
+    joinNode.type=decideRecordType(merged.join, numOccur>maxOccur, currPath);
+    joinNode.note="";
+    joinNode.symStore=merged.symStore;
+    currPath.addToPath(joinNode);
+
+    cacheOrDisgardPath(currPath);
+    currPath=null;
+    return true;
+  }
+
+  // forks currPath at the head of a summarized loop into one path per edge leaving the loop, see LoopSummary
+  boolean stepOverLoop(PathRecord lastNode){
+    BodyIndex index=indexOf(lastNode);
+    LoopSummary summary=index.loopSummaries[lastNode.stmtId];
+    if(summary==null || !summary.isSummarizable()){
+      return false;
+    }
+    for(Stmt s: summary.invokes){
+      if(_decideInvokeExpr(s)){
+        return false;
+      }
+    }
+
+    ++numLoopsSummarized;
+    this.globalVarRead.addAll(summary.staticFieldsRead);
+
+    // the path length tells apart two passes over the same loop on one path
+    SymStore symStore=lastNode.symStore;
+    for(Local l: summary.havocked){
+      Local fresh=new JimpleLocal(String.format("%s#%s_loop%d", l.getName(), index.body.getMethod().getName(), currPath.pathSize()), l.getType());
+      symStore=symStore.put(l, new ExprBox(fresh));
+    }
+
+    for(LoopSummary.Exit exit: summary.exits){
+      PathConstraint pathExit=new PathConstraint(currPath);
+      PathRecord exitNode=new PathRecord(lastNode);
+
+      if(exit.cond!=null){
+        Value condRewriten=RhsRewrite.rewriteRHS(exit.cond, symStore).getValue();
+        String condString=exit.cond.toString();
+        // a variant condition only holds in the last iteration, it is kept like a header condition
+        ConditionPred cond=new ConditionPred(condRewriten, exit.taken, condString, !exit.invariant);
+        ConstantComp cmp=ConditionPred.checkConstantComparison(cond);
+
+        if(cmp==ConstantComp.EvalFalse){
+          continue;
+        }
+
+        exitNode.note=String.format("-- loop exit %s%s", exit.taken?"":"!", condString);
+        pathExit.setPathBack(exitNode);
+
+        if(cmp==ConstantComp.NonConstant){
+          pathExit.addToCond(cond);
+
+          if(exit.invariant && !checkFeasibility(pathExit)){
+            continue;
+          }
+        }
+      }
+      else{
+        exitNode.note=String.format("-- loop exit at %s", exit.from);
+        pathExit.setPathBack(exitNode);
+      }
+
+      PathRecord outNode=new PathRecord(exitNode);
+      int toId=index.idOf(exit.to);
+      outNode.setStmt(index, toId);
+      int numOccur=numOccurence(exit.to, pathExit)+1;
+      int maxOccur=index.isHeaderBlockStmt(toId)?loopUnroll:1;
+      outNode.numOccur=numOccur;
+      outNode.maxOccur=maxOccur;
+      outNode.type=decideRecordType(exit.to, numOccur>maxOccur, pathExit);
+      outNode.note="";
+      outNode.symStore=symStore;
+      pathExit.addToPath(outNode);
+
+      cacheOrDisgardPath(pathExit);
+    }
+
+    currPath=null;
+    return true;
+  }
+
+  // the local the parameter idx of m is assigned to, empty if there is none
+  static String paramLocalName(SootMethod m, int idx){
+    for(Unit u: m.getActiveBody().getUnits()){
+      if(!(u instanceof JIdentityStmt)){
+        break;
+      }
+      JIdentityStmt is=(JIdentityStmt) u;
+      if(is.getRightOp() instanceof ParameterRef && ((ParameterRef) is.getRightOp()).getIndex()==idx){
+        return ((Local) is.getLeftOp()).getName();
+      }
+    }
+    return "";
+  }
+
   public void initMethodEntry() {
     SootMethod m=this.method;
+
+    if(summaryOf!=null){
+      currPath.addToPath(new MethodEntryRecord(m, summaryOf.getParamInfo(), new ArrayList<>()));
+      return;
+    }
     ArrayList<ParamInfo> params=new ArrayList<>();
 
     for(int i=0;i<m.getParameterCount();++i){
       if(this.paramNames.containsKey(i)){
+        // a parameter without a name is named after its local now, the hash of an expression over it is fixed when it is interned
+        if(this.paramNames.get(i).isEmpty()){
+          this.paramNames.put(i, paramLocalName(m, i));
+        }
         params.add(new ParamInfo(i, new EndPointParameter(this.paramNames.get(i), true, i, m.getParameterType(i))));
       }
       else{
@@ -1444,51 +2089,25 @@ public class EndpointAnalysis {
     return false;
   }
 
-  int numOccurence(Stmt stmt, PathConstraint path){
-    return numOccurence(stmt, path.path);
+  // the index of the body of rec.stmt, cached in rec with the id of its statement
+  BodyIndex indexOf(PathRecord rec){
+    BodyIndex index=rec.bodyIndex;
+    if(index==null || rec.stmtId<0 || index.stmts[rec.stmtId]!=rec.stmt){
+      index=this.bodyToLoopInfoCache.get(icfg.getBodyOf(rec.stmt)).index;
+      rec.bodyIndex=index;
+      rec.stmtId=index.idOf(rec.stmt);
+    }
+    return index;
   }
 
   /// DONE: somehow buggy. It doesn't detect A->B->A
-  int numOccurence(Stmt stmt, ArrayList<PathRecordBase> path){
-    int len=path.size();
-
-    PathRecordBase lastNode=path.get(len-1);
-    int stackH=lastNode.callStack.size();
-    if(lastNode.type==RecordType.MethodEntry){
-      stackH=stackH + 1;
-    }
-
-    int i=len-1;
-    while(i>=0){
-      
-      int h=path.get(i).callStack.size();
-      while(h>stackH){
-        i=i-1;
-        h=path.get(i).callStack.size();
-      }
-
-      PathRecordBase rec=path.get(i);
-
-      if(rec instanceof PathRecord){
-        PathRecord rec1=(PathRecord) rec;
-        if(rec1.stmt.equals(stmt)){
-          return rec1.numOccur;
-        }
-      }
-
-      stackH=rec.callStack.size();
-
-      --i;
-    }
-
-    return 0;
+  // the numOccur of the last record of stmt in the current frame and its callers,
+  // records in the bodies of callees that already returned do not count, see PathNode.occurrences
+  int numOccurence(Stmt stmt, PathConstraint path){
+    return path.path==null?0:path.path.occurrences.get(stmt);
   }
 
   PathRecord.RecordType decideRecordType(Stmt stmt, boolean isBackEdge, PathConstraint path) {
-    return decideRecordType(stmt, isBackEdge, path.path);
-  }
-
-  PathRecord.RecordType decideRecordType(Stmt stmt, boolean isBackEdge, ArrayList<PathRecordBase> path) {
     if (isBackEdge) {
       return RecordType.BackEdge;
     }
@@ -1545,7 +2164,7 @@ public class EndpointAnalysis {
 
   // adding to cachedPaths, set currPath to null
   public void handleMethodEntry() {
-    MethodEntryRecord lastNode = (MethodEntryRecord) currPath.path.get(currPath.path.size() - 1);
+    MethodEntryRecord lastNode = (MethodEntryRecord) currPath.getPathBack();
     SootMethod m = lastNode.method;
     ArrayList<ParamInfo> params = lastNode.paramInfo;
 
@@ -1561,7 +2180,7 @@ public class EndpointAnalysis {
     MethodLoopInfo loopInfo=this.bodyToLoopInfoCache.computeIfAbsent(body, b -> new MethodLoopInfo(b, graph));
     assert(loopInfo!=null);
 
-    ImmutableMap<Value, ExprBox> symStore = ImmutableMap.of();
+    SymStore symStore = SymStore.empty();
 
     
     for(Unit u:body.getUnits()){
@@ -1580,22 +2199,10 @@ public class EndpointAnalysis {
           //   symStore.put(lhs, rr);
           // }
 
+          // EndPointParameters are named in initMethodEntry
           Value paramV=params.get(pr.getIndex()).rr;
 
-          if(paramV instanceof EndPointParameter){
-            EndPointParameter epp=(EndPointParameter) paramV;
-            if(epp.getName().isEmpty()){
-              String nameLHS=lhs.getName();
-
-              assert nameLHS.isEmpty()==false;
-
-              epp.setName(nameLHS);
-
-              this.paramNames.put(epp.idx, nameLHS);
-            }
-          }
-
-          symStore=putIntoImmutableMap(symStore, lhs, new ExprBox(paramV));
+          symStore=symStore.put(lhs, new ExprBox(paramV));
           
         }
       }
@@ -1614,18 +2221,22 @@ public class EndpointAnalysis {
 
     ArrayList<Type> exceptionStack=new ArrayList<>();
 
-    HashSet<Stmt> headerBlockStmts = this.bodyToLoopInfoCache.get(body).headerBlockStmts;
+    BodyIndex index=loopInfo.index;
 
     for (Unit h : heads) {
       Stmt stmt = (Stmt) h;
+      int stmtId=index.idOf(stmt);
 
       int numOccur=numOccurence(stmt, currPath)+1;
-      int maxOccur=headerBlockStmts.contains(stmt)?MethodLoopInfo.maxOccurForHeader:1;
+      int maxOccur=index.isHeaderBlockStmt(stmtId)?loopUnroll:1;
 
       RecordType type = decideRecordType(stmt, numOccur>maxOccur, currPath);
 
+      PathRecord headNode=new PathRecord(stmt, type, null, symStore, callStack, exceptionStack, maxOccur, numOccur);
+      headNode.setStmt(index, stmtId);
+
       PathConstraint newPath = new PathConstraint(currPath);
-      newPath.addToPath(new PathRecord(stmt, type, null, symStore, callStack, exceptionStack, maxOccur, numOccur));
+      newPath.addToPath(headNode);
 
       cacheOrDisgardPath(newPath);
 
@@ -0,0 +1,70 @@
+package org.rest.Respector.PathCondExtract;
+
+/**
+ * Limits of the path exploration of one endpoint, checked by buildPaths before every step.
+ * A limit of 0 means unlimited. The global deadline is shared by all endpoints of a run.
+ * When a limit is hit, the analysis stops and the paths found so far are its result, tagged with the limit.
+ */
+public class ExplorationBudget {
+  public static final String PATH_LIMIT="path-limit";
+  public static final String LIVE_PATH_LIMIT="live-path-limit";
+  public static final String ENDPOINT_TIMEOUT="endpoint-timeout";
+  public static final String SOLVER_BUDGET="solver-budget";
+  public static final String DEADLINE="deadline";
+
+  public final long wallNanos;
+  public final long solverNanos;
+  public final int maxLivePaths;
+  // absolute System.nanoTime() of the global deadline, 0 if none
+  public final long deadlineNanos;
+
+  final long startNanos;
+  long solverUsedNanos=0;
+
+  public ExplorationBudget(long wallNanos, long solverNanos, int maxLivePaths, long deadlineNanos) {
+    this.wallNanos = wallNanos;
+    this.solverNanos = solverNanos;
+    this.maxLivePaths = maxLivePaths;
+    this.deadlineNanos = deadlineNanos;
+    this.startNanos = System.nanoTime();
+  }
+
+  public static ExplorationBudget unlimited(){
+    return new ExplorationBudget(0, 0, 0, 0);
+  }
+
+  public void addSolverTime(long nanos){
+    solverUsedNanos+=nanos;
+  }
+
+  public long getSolverUsedNanos() {
+    return solverUsedNanos;
+  }
+
+  // the name of the exhausted limit, null if none is
+  public String exhausted(int livePaths){
+    if(maxLivePaths>0 && livePaths>maxLivePaths){
+      return LIVE_PATH_LIMIT;
+    }
+    if(solverNanos>0 && solverUsedNanos>solverNanos){
+      return SOLVER_BUDGET;
+    }
+
+    if(wallNanos>0 || deadlineNanos!=0){
+      long now=System.nanoTime();
+      if(wallNanos>0 && now-startNanos>wallNanos){
+        return ENDPOINT_TIMEOUT;
+      }
+      if(deadlineNanos!=0 && now-deadlineNanos>0){
+        return DEADLINE;
+      }
+    }
+
+    return null;
+  }
+
+  // limits that depend on the machine and the load, a result cut by them may differ between runs
+  public static boolean isTimeLimit(String reason){
+    return ENDPOINT_TIMEOUT.equals(reason) || SOLVER_BUDGET.equals(reason) || DEADLINE.equals(reason);
+  }
+}
@@ -0,0 +1,83 @@
+package org.rest.Respector.PathCondExtract;
+
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.concurrent.ConcurrentHashMap;
+
+import soot.Value;
+
+/**
+ * Hash-consing of the expressions built by RhsRewrite and ConditionPred: of the expressions of the same class
+ * that are equivTo each other, the first one interned is returned for all of them, so the same condition
+ * reached along many paths is one object, and comparing two interned expressions is a reference comparison.
+ * Interned expressions must not be modified, copy them first as CalleeSummary.instantiate does.
+ * The table only holds weak references, an expression no path refers to any more is dropped from it.
+ * Shared by all worker threads.
+ */
+public class ExprInterner {
+  static class Entry extends WeakReference<Value> {
+    final int hash;
+
+    Entry(Value v, int hash, ReferenceQueue<Value> queue) {
+      super(v, queue);
+      this.hash = hash;
+    }
+
+    @Override
+    public int hashCode() {
+      return hash;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if(this==o){
+        return true;
+      }
+      if(!(o instanceof Entry)){
+        return false;
+      }
+      Entry e=(Entry) o;
+      if(this.hash!=e.hash){
+        return false;
+      }
+      Value a=this.get();
+      Value b=e.get();
+      // a Jimple and a Grimp expression can be equivTo, but only the Grimp one may nest expressions
+      return a!=null && b!=null && (a==b || (a.getClass()==b.getClass() && a.equivTo(b)));
+    }
+  }
+
+  static final ConcurrentHashMap<Entry, Entry> table=new ConcurrentHashMap<>();
+  static final ReferenceQueue<Value> queue=new ReferenceQueue<>();
+
+  public static <T extends Value> T intern(T v){
+    purge();
+
+    Entry e=new Entry(v, v.equivHashCode(), queue);
+    while(true){
+      Entry old=table.putIfAbsent(e, e);
+      if(old==null){
+        return v;
+      }
+
+      @SuppressWarnings("unchecked")
+      T canonical=(T) old.get();
+      if(canonical!=null){
+        return canonical;
+      }
+      // collected since the lookup
+      table.remove(old, old);
+    }
+  }
+
+  public static int size(){
+    return table.size();
+  }
+
+  static void purge(){
+    Object ref;
+    while((ref=queue.poll())!=null){
+      table.remove(ref, ref);
+    }
+  }
+}
@@ -0,0 +1,130 @@
+package org.rest.Respector.PathCondExtract;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import soot.Type;
+import soot.UnitPrinter;
+import soot.Value;
+import soot.ValueBox;
+import soot.grimp.Grimp;
+import soot.jimple.ExprSwitch;
+import soot.util.Switch;
+
+/**
+ * The value of a local after a region merged by PathMerger: thenValue if all conditions of guard hold, elseValue otherwise.
+ * SootToZ3 translates it to an ite, to everything else it is an expression it does not know.
+ */
+public class IteExpr implements soot.jimple.Expr {
+  private static final long serialVersionUID = 1L;
+
+  final ArrayList<ValueBox> guardBoxes=new ArrayList<>();
+  final ValueBox thenBox;
+  final ValueBox elseBox;
+  final Type type;
+
+  public IteExpr(List<? extends Value> guard, Value thenValue, Value elseValue, Type type) {
+    for(Value c: guard){
+      this.guardBoxes.add(Grimp.v().newExprBox(c));
+    }
+    this.thenBox = Grimp.v().newExprBox(thenValue);
+    this.elseBox = Grimp.v().newExprBox(elseValue);
+    this.type = type;
+  }
+
+  public ArrayList<Value> getGuard(){
+    ArrayList<Value> rtv=new ArrayList<>();
+    for(ValueBox vb: guardBoxes){
+      rtv.add(vb.getValue());
+    }
+    return rtv;
+  }
+
+  public Value getThen(){
+    return thenBox.getValue();
+  }
+
+  public Value getElse(){
+    return elseBox.getValue();
+  }
+
+  ArrayList<ValueBox> boxes(){
+    ArrayList<ValueBox> rtv=new ArrayList<>(guardBoxes);
+    rtv.add(thenBox);
+    rtv.add(elseBox);
+    return rtv;
+  }
+
+  @Override
+  public List<ValueBox> getUseBoxes() {
+    ArrayList<ValueBox> rtv=new ArrayList<>();
+    for(ValueBox vb: boxes()){
+      rtv.addAll(vb.getValue().getUseBoxes());
+      rtv.add(vb);
+    }
+    return rtv;
+  }
+
+  @Override
+  public Type getType() {
+    return type;
+  }
+
+  @Override
+  public Object clone() {
+    ArrayList<Value> guard=new ArrayList<>();
+    for(Value c: getGuard()){
+      guard.add(Grimp.cloneIfNecessary(c));
+    }
+    return new IteExpr(guard, Grimp.cloneIfNecessary(getThen()), Grimp.cloneIfNecessary(getElse()), type);
+  }
+
+  @Override
+  public void toString(UnitPrinter up) {
+    up.literal(toString());
+  }
+
+  @Override
+  public String toString() {
+    ArrayList<String> guard=new ArrayList<>();
+    for(Value c: getGuard()){
+      guard.add(c.toString());
+    }
+    return String.format("ite(%s, %s, %s)", guard.isEmpty()?"true":String.join(" && ", guard), getThen(), getElse());
+  }
+
+  @Override
+  public void apply(Switch sw) {
+    if(sw instanceof ExprSwitch){
+      ((ExprSwitch) sw).defaultCase(this);
+    }
+  }
+
+  @Override
+  public boolean equivTo(Object o) {
+    if(!(o instanceof IteExpr)){
+      return false;
+    }
+    IteExpr e=(IteExpr) o;
+    ArrayList<ValueBox> b1=this.boxes();
+    ArrayList<ValueBox> b2=e.boxes();
+    if(b1.size()!=b2.size() || !this.type.equals(e.type)){
+      return false;
+    }
+    for(int i=0;i<b1.size();++i){
+      if(!b1.get(i).getValue().equivTo(b2.get(i).getValue())){
+        return false;
+      }
+    }
+    return true;
+  }
+
+  @Override
+  public int equivHashCode() {
+    int h=type.hashCode();
+    for(ValueBox vb: boxes()){
+      h=h*31+vb.getValue().equivHashCode();
+    }
+    return h;
+  }
+}
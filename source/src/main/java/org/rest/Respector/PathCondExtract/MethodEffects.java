@@ -0,0 +1,252 @@
+package org.rest.Respector.PathCondExtract;
+
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.Map;
+
+import org.rest.Respector.EndPointRecog.FrameworkData;
+import org.rest.Respector.EndPointRecog.ResponseBuilderInfo;
+
+import soot.Local;
+import soot.MethodOrMethodContext;
+import soot.RefLikeType;
+import soot.SootField;
+import soot.SootMethod;
+import soot.Unit;
+import soot.Value;
+import soot.ValueBox;
+import soot.jimple.AnyNewExpr;
+import soot.jimple.ArrayRef;
+import soot.jimple.DefinitionStmt;
+import soot.jimple.IdentityStmt;
+import soot.jimple.IfStmt;
+import soot.jimple.InstanceFieldRef;
+import soot.jimple.InvokeExpr;
+import soot.jimple.ParameterRef;
+import soot.jimple.ReturnStmt;
+import soot.jimple.StaticFieldRef;
+import soot.jimple.Stmt;
+import soot.jimple.SwitchStmt;
+import soot.jimple.ThisRef;
+import soot.jimple.ThrowStmt;
+import soot.jimple.toolkits.callgraph.CallGraph;
+import soot.jimple.toolkits.callgraph.Targets;
+
+/**
+ * What a callee can do to the paths of its caller, over its body and the application methods it calls:
+ * write static fields, throw, write objects it did not allocate, branch on its parameters, its receiver
+ * or static fields, or return a value that may be a response, i.e. one from a response builder call, an
+ * allocation or an application call that returns one. A callee that does none of these adds no condition
+ * over the inputs and no exception to a path, leaves the caller's store as it was and does not decide the
+ * status code or schema, so EndpointAnalysis does not enter it. Its call stays in the caller as an
+ * expression over the arguments, as a library call does.
+ */
+public class MethodEffects {
+  public boolean writesStatic=false;
+  public boolean mayThrow=false;
+  public boolean writesHeap=false;
+  public boolean branchesOnInput=false;
+  public boolean returnsResponse=false;
+  public final HashSet<SootField> staticFieldsRead=new HashSet<>();
+
+  // for methods whose effects are not known, in particular the ones being computed
+  static final MethodEffects UNKNOWN=new MethodEffects();
+  static {
+    UNKNOWN.writesStatic=true;
+    UNKNOWN.mayThrow=true;
+    UNKNOWN.writesHeap=true;
+    UNKNOWN.branchesOnInput=true;
+    UNKNOWN.returnsResponse=true;
+  }
+
+  public boolean isSkippable(){
+    return !writesStatic && !mayThrow && !writesHeap && !branchesOnInput && !returnsResponse;
+  }
+
+  // cache is shared by all endpoints, the call graph and the framework data do not change during the run
+  public static MethodEffects of(SootMethod m, CallGraph cg, FrameworkData frameworkData, Map<SootMethod, MethodEffects> cache){
+    return of(m, cg, frameworkData, cache, new HashSet<>());
+  }
+
+  static MethodEffects of(SootMethod m, CallGraph cg, FrameworkData frameworkData, Map<SootMethod, MethodEffects> cache, HashSet<SootMethod> inProgress){
+    MethodEffects e=cache.get(m);
+    if(e!=null){
+      return e;
+    }
+    if(!m.hasActiveBody() || !inProgress.add(m)){
+      return UNKNOWN;
+    }
+
+    // a result that relied on UNKNOWN for a recursive call is only less precise, it can be cached all the same
+    e=compute(m, cg, frameworkData, cache, inProgress);
+    inProgress.remove(m);
+
+    MethodEffects old=cache.putIfAbsent(m, e);
+    return old==null?e:old;
+  }
+
+  static MethodEffects compute(SootMethod m, CallGraph cg, FrameworkData frameworkData, Map<SootMethod, MethodEffects> cache, HashSet<SootMethod> inProgress){
+    MethodEffects e=new MethodEffects();
+    // the statements whose value may be a response
+    HashSet<Stmt> responseDefs=new HashSet<>();
+
+    HashSet<Local> input=new HashSet<>();
+    HashSet<Local> allocated=new HashSet<>();
+    HashSet<Local> notAllocated=new HashSet<>();
+
+    for(Unit u: m.getActiveBody().getUnits()){
+      if(u instanceof IdentityStmt){
+        IdentityStmt s=(IdentityStmt) u;
+        if(s.getRightOp() instanceof ParameterRef || s.getRightOp() instanceof ThisRef){
+          input.add((Local) s.getLeftOp());
+        }
+      }
+      if(u instanceof DefinitionStmt){
+        DefinitionStmt s=(DefinitionStmt) u;
+        if(s.getLeftOp() instanceof Local){
+          Local l=(Local) s.getLeftOp();
+          if(s.getRightOp() instanceof AnyNewExpr){
+            allocated.add(l);
+          }
+          else{
+            notAllocated.add(l);
+          }
+        }
+      }
+    }
+    allocated.removeAll(notAllocated);
+
+    // flow insensitive, a local is input if any of its definitions reads an input
+    boolean changed=true;
+    while(changed){
+      changed=false;
+      for(Unit u: m.getActiveBody().getUnits()){
+        if(u instanceof DefinitionStmt && ((DefinitionStmt) u).getLeftOp() instanceof Local){
+          Local l=(Local) ((DefinitionStmt) u).getLeftOp();
+          if(!input.contains(l) && readsInput(((DefinitionStmt) u).getRightOp(), input)){
+            input.add(l);
+            changed=true;
+          }
+        }
+      }
+    }
+
+    for(Unit u: m.getActiveBody().getUnits()){
+      Stmt s=(Stmt) u;
+
+      if(s instanceof ThrowStmt){
+        e.mayThrow=true;
+      }
+      if(s instanceof IfStmt && readsInput(((IfStmt) s).getCondition(), input)){
+        e.branchesOnInput=true;
+      }
+      if(s instanceof SwitchStmt && readsInput(((SwitchStmt) s).getKey(), input)){
+        e.branchesOnInput=true;
+      }
+
+      for(ValueBox vb: s.getDefBoxes()){
+        Value v=vb.getValue();
+        if(v instanceof StaticFieldRef){
+          e.writesStatic=true;
+        }
+        else if(v instanceof InstanceFieldRef && !allocated.contains(((InstanceFieldRef) v).getBase())){
+          e.writesHeap=true;
+        }
+        else if(v instanceof ArrayRef && !allocated.contains(((ArrayRef) v).getBase())){
+          e.writesHeap=true;
+        }
+      }
+      for(ValueBox vb: s.getUseBoxes()){
+        if(vb.getValue() instanceof StaticFieldRef){
+          e.staticFieldsRead.add(((StaticFieldRef) vb.getValue()).getField());
+        }
+      }
+
+      if(s instanceof DefinitionStmt && ((DefinitionStmt) s).getRightOp() instanceof AnyNewExpr){
+        responseDefs.add(s);
+      }
+
+      if(s.containsInvokeExpr()){
+        if(isResponseBuilder(s.getInvokeExpr(), frameworkData)){
+          responseDefs.add(s);
+        }
+
+        Iterator<MethodOrMethodContext> targets=new Targets(cg.edgesOutOf(s));
+        while(targets.hasNext()){
+          SootMethod tgt=(SootMethod) targets.next();
+          if(!tgt.hasActiveBody() || !EndpointAnalysis.checkAppClass(tgt)){
+            continue;
+          }
+
+          MethodEffects c=of(tgt, cg, frameworkData, cache, inProgress);
+          e.writesStatic|=c.writesStatic;
+          e.mayThrow|=c.mayThrow;
+          e.writesHeap|=c.writesHeap;
+          e.branchesOnInput|=c.branchesOnInput;
+          e.staticFieldsRead.addAll(c.staticFieldsRead);
+          if(c.returnsResponse){
+            responseDefs.add(s);
+          }
+        }
+      }
+    }
+
+    e.returnsResponse=returnsResponse(m, responseDefs);
+
+    return e;
+  }
+
+  static boolean isResponseBuilder(InvokeExpr inv, FrameworkData frameworkData){
+    String subSig=inv.getMethodRef().getSubSignature().getString();
+    for(ResponseBuilderInfo builderInfo: frameworkData.responseBuilders){
+      if(subSig.equals(builderInfo.subSignature)){
+        return true;
+      }
+    }
+    return false;
+  }
+
+  // flow insensitive, a reference local may be a response if any of its definitions is in responseDefs, or reads one
+  // of them, as the builder chains ResponseEntity.status(..).body(..) do, or a static field
+  static boolean returnsResponse(SootMethod m, HashSet<Stmt> responseDefs){
+    HashSet<Local> response=new HashSet<>();
+
+    boolean changed=true;
+    while(changed){
+      changed=false;
+      for(Unit u: m.getActiveBody().getUnits()){
+        if(!(u instanceof DefinitionStmt) || !(((DefinitionStmt) u).getLeftOp() instanceof Local)){
+          continue;
+        }
+        Local l=(Local) ((DefinitionStmt) u).getLeftOp();
+        if(response.contains(l) || !(l.getType() instanceof RefLikeType)){
+          continue;
+        }
+        if(responseDefs.contains(u) || readsInput(((DefinitionStmt) u).getRightOp(), response)){
+          response.add(l);
+          changed=true;
+        }
+      }
+    }
+
+    for(Unit u: m.getActiveBody().getUnits()){
+      if(u instanceof ReturnStmt && response.contains(((ReturnStmt) u).getOp())){
+        return true;
+      }
+    }
+    return false;
+  }
+
+  static boolean readsInput(Value v, HashSet<Local> input){
+    if(v instanceof StaticFieldRef || input.contains(v)){
+      return true;
+    }
+    for(ValueBox vb: v.getUseBoxes()){
+      Value u=vb.getValue();
+      if(u instanceof StaticFieldRef || input.contains(u)){
+        return true;
+      }
+    }
+    return false;
+  }
+}
@@ -1,7 +1,5 @@
 package org.rest.Respector.PathCondExtract;
 
-import java.util.ArrayList;
-
 import java.util.HashMap;
 
 import org.rest.Respector.PathRecord.PathRecordBase;
@@ -11,9 +9,12 @@ import com.google.gson.JsonElement;
 import soot.Value;
 import soot.jimple.ParameterRef;
 
+// path and conds are immutable lists, so a copy shares them with its source in O(1)
+// and only the records appended afterwards belong to one of them
 public class PathConstraint {
-  public ArrayList<PathRecordBase> path;
-  public ArrayList<ConditionPred> conds;
+  // the last node of the path, null if the path is empty
+  public PathNode path;
+  public ConsList<ConditionPred> conds;
   public boolean isValidPath;
   public int HTTPStatusCode;
   public JsonElement responseSchema;
@@ -22,7 +23,7 @@ public class PathConstraint {
 
   public HashMap<EndPointParameter, Value> defaultValMap;
 
-  public PathConstraint(ArrayList<PathRecordBase> path, ArrayList<ConditionPred> conds, boolean isValidPath,
+  public PathConstraint(PathNode path, ConsList<ConditionPred> conds, boolean isValidPath,
       int hTTPStatusCode, JsonElement responseSchema, Value returnValue, HashMap<EndPointParameter, Value> defaultValMap) {
     this.path = path;
     this.conds = conds;
@@ -35,8 +36,8 @@ public class PathConstraint {
 
 
   public PathConstraint() {
-    this.path=new ArrayList<>();
-    this.conds=new ArrayList<>();
+    this.path=null;
+    this.conds=ConsList.empty();
     this.isValidPath=true;
     this.HTTPStatusCode=200;
     this.responseSchema=null;
@@ -46,8 +47,8 @@ public class PathConstraint {
   }
 
   public PathConstraint(PathConstraint src){
-    this.path=new ArrayList<>(src.path);
-    this.conds=new ArrayList<>(src.conds);
+    this.path=src.path;
+    this.conds=src.conds;
     this.isValidPath=src.isValidPath;
     this.HTTPStatusCode=src.HTTPStatusCode;
     this.responseSchema=src.responseSchema;
@@ -57,22 +58,33 @@ public class PathConstraint {
   }
 
   boolean pathEmpty(){
-    return this.path.isEmpty();
+    return this.path==null;
+  }
+
+  int pathSize(){
+    return this.path==null?0:this.path.size;
   }
 
   PathRecordBase getPathBack(){
-    return this.path.get(this.path.size()-1);
+    return this.path.rec;
+  }
+
+  // replaces the last record in this path only
+  void setPathBack(PathRecordBase node){
+    this.path=new PathNode(this.path.prev, node);
   }
 
   boolean addToPath(PathRecordBase node){
-    return this.path.add(node);
+    this.path=new PathNode(this.path, node);
+    return true;
   }
 
   PathRecordBase get(int i){
-    return this.path.get(i);
+    return this.path.nodeAt(i).rec;
   }
 
   boolean addToCond(ConditionPred pred){
-    return this.conds.add(pred);
+    this.conds=this.conds.append(pred);
+    return true;
   }
 }
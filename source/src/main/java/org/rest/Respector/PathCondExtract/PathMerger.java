@@ -0,0 +1,216 @@
+package org.rest.Respector.PathCondExtract;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+
+import org.rest.Respector.LoopInfo.MethodLoopInfo;
+import org.rest.Respector.PathCondExtract.ConditionPred.ConstantComp;
+import org.rest.Respector.PathRecord.SymStore;
+
+import soot.Immediate;
+import soot.Local;
+import soot.Unit;
+import soot.Value;
+import soot.grimp.internal.ExprBox;
+import soot.jimple.AnyNewExpr;
+import soot.jimple.BinopExpr;
+import soot.jimple.CastExpr;
+import soot.jimple.InstanceOfExpr;
+import soot.jimple.NopStmt;
+import soot.jimple.Stmt;
+import soot.jimple.UnopExpr;
+import soot.jimple.internal.JAssignStmt;
+import soot.jimple.internal.JGotoStmt;
+import soot.jimple.internal.JIfStmt;
+import soot.toolkits.graph.ExceptionalUnitGraph;
+
+/**
+ * Merges the paths forked at an if statement when they meet again at its immediate post-dominator.
+ * The region in between is executed here along all its sub-paths, if it only has ifs, gotos and assignments
+ * of arithmetic on locals. The path then continues at the post-dominator as one path, in which the locals
+ * the sub-paths disagree on are bound to an IteExpr over the sub-path conditions.
+ * The sub-path conditions together cover every input, so none of them is added to the path conditions.
+ * A region with a condition on an endpoint parameter or a static field is not merged, as pruning does not
+ * prune it: the spec needs that condition even if no later one reads the merged locals.
+ */
+public class PathMerger {
+  public static final int MAX_SUB_PATHS=8;
+  public static final int MAX_REGION_STMTS=24;
+  // every later condition over a merged local carries its ite, with more of them forking is cheaper
+  public static final int MAX_ITE_LOCALS=2;
+
+  public static class Merged {
+    public final Stmt join;
+    public final SymStore symStore;
+    public final int numSubPaths;
+
+    Merged(Stmt join, SymStore symStore, int numSubPaths) {
+      this.join = join;
+      this.symStore = symStore;
+      this.numSubPaths = numSubPaths;
+    }
+  }
+
+  static class SubPath {
+    final Stmt stmt;
+    final ArrayList<ConditionPred> conds;
+    final SymStore symStore;
+    final int numStmts;
+
+    SubPath(Stmt stmt, ArrayList<ConditionPred> conds, SymStore symStore, int numStmts) {
+      this.stmt = stmt;
+      this.conds = conds;
+      this.symStore = symStore;
+      this.numStmts = numStmts;
+    }
+  }
+
+  // null if the region after ifStmt can not be merged, or merging it does not pay off
+  public static Merged merge(JIfStmt ifStmt, SymStore symStore, ExceptionalUnitGraph graph, MethodLoopInfo loopInfo){
+    Stmt join=(Stmt) loopInfo.immediatePostDominator(ifStmt);
+    if(join==null){
+      return null;
+    }
+
+    ArrayList<SubPath> done=new ArrayList<>();
+    ArrayDeque<SubPath> todo=new ArrayDeque<>();
+    todo.add(new SubPath(ifStmt, new ArrayList<>(), symStore, 0));
+
+    while(!todo.isEmpty()){
+      SubPath p=todo.pop();
+
+      if(p.stmt==join){
+        done.add(p);
+        continue;
+      }
+      // acyclic by the loop check, every region statement is visited once per sub-path
+      if(p.numStmts>=MAX_REGION_STMTS || loopInfo.headerBlockStmts.contains(p.stmt)){
+        return null;
+      }
+
+      List<Unit> succs=graph.getUnexceptionalSuccsOf(p.stmt);
+
+      if(p.stmt instanceof JIfStmt){
+        JIfStmt stmt=(JIfStmt) p.stmt;
+        Value condRewriten=RhsRewrite.rewriteRHS(stmt.getCondition(), p.symStore).getValue();
+        String condString=stmt.getCondition().toString();
+        if(EndpointAnalysis.usesSpecInput(condRewriten)){
+          return null;
+        }
+
+        for(Unit succ: new LinkedHashSet<>(succs)){
+          boolean taken=succ==stmt.getTarget();
+          ConditionPred cond=new ConditionPred(condRewriten, taken, condString);
+          ConstantComp cmp=ConditionPred.checkConstantComparison(cond);
+
+          if(cmp==ConstantComp.EvalFalse){
+            continue;
+          }
+
+          ArrayList<ConditionPred> conds=new ArrayList<>(p.conds);
+          if(cmp==ConstantComp.NonConstant){
+            conds.add(cond);
+          }
+          todo.push(new SubPath((Stmt) succ, conds, p.symStore, p.numStmts+1));
+        }
+      }
+      else if(p.stmt instanceof JGotoStmt || p.stmt instanceof NopStmt){
+        todo.push(new SubPath((Stmt) succs.get(0), p.conds, p.symStore, p.numStmts+1));
+      }
+      else if(p.stmt instanceof JAssignStmt && isLocalArithmetic((JAssignStmt) p.stmt)){
+        JAssignStmt stmt=(JAssignStmt) p.stmt;
+        SymStore newSymStore=p.symStore.put(stmt.getLeftOp(), RhsRewrite.rewriteRHS(stmt.getRightOp(), p.symStore));
+        todo.push(new SubPath((Stmt) succs.get(0), p.conds, newSymStore, p.numStmts+1));
+      }
+      else{
+        return null;
+      }
+
+      if(done.size()+todo.size()>MAX_SUB_PATHS){
+        return null;
+      }
+    }
+
+    // one side is constant false, there is nothing to merge
+    if(done.size()<2){
+      return null;
+    }
+
+    SymStore merged=mergeStores(done, symStore);
+    if(merged==null){
+      return null;
+    }
+
+    return new Merged(join, merged, done.size());
+  }
+
+  static boolean isLocalArithmetic(JAssignStmt stmt){
+    Value rhs=stmt.getRightOp();
+    if(!(stmt.getLeftOp() instanceof Local)){
+      return false;
+    }
+    if(rhs instanceof AnyNewExpr){
+      return false;
+    }
+    return rhs instanceof Immediate || rhs instanceof BinopExpr || rhs instanceof UnopExpr
+      || rhs instanceof CastExpr || rhs instanceof InstanceOfExpr;
+  }
+
+  // null if more than MAX_ITE_LOCALS locals differ
+  static SymStore mergeStores(ArrayList<SubPath> done, SymStore symStore){
+    HashSet<Value> keys=new HashSet<>();
+    for(SubPath p: done){
+      p.symStore.forEach((k, v)->{
+        if(symStore.get(k)!=v){
+          keys.add(k);
+        }
+      });
+    }
+
+    ArrayList<Value> differing=new ArrayList<>();
+    SymStore merged=symStore;
+    for(Value k: keys){
+      ExprBox first=done.get(0).symStore.get(k);
+      boolean same=first!=null;
+      for(SubPath p: done){
+        ExprBox b=p.symStore.get(k);
+        same=same && b!=null && (b==first || b.getValue().equivTo(first.getValue()));
+      }
+
+      if(same){
+        merged=merged.put(k, first);
+      }
+      else{
+        differing.add(k);
+      }
+    }
+
+    if(differing.size()>MAX_ITE_LOCALS){
+      return null;
+    }
+
+    for(Value k: differing){
+      // the sub-path conditions partition the inputs, the last one needs no guard
+      Value v=valueIn(done.get(done.size()-1), k);
+      for(int i=done.size()-2;i>=0;--i){
+        ArrayList<Value> guard=new ArrayList<>();
+        for(ConditionPred c: done.get(i).conds){
+          guard.add(c.uniCond);
+        }
+        v=new IteExpr(guard, valueIn(done.get(i), k), v, k.getType());
+      }
+      merged=merged.put(k, new ExprBox(ExprInterner.intern(v)));
+    }
+
+    return merged;
+  }
+
+  // a local without a binding stands for itself, as in RhsRewrite
+  static Value valueIn(SubPath p, Value k){
+    ExprBox b=p.symStore.get(k);
+    return b==null?k:b.getValue();
+  }
+}
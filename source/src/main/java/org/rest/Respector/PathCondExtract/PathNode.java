@@ -0,0 +1,49 @@
+package org.rest.Respector.PathCondExtract;
+
+import org.rest.Respector.PathRecord.OccurrenceIndex;
+import org.rest.Respector.PathRecord.PathRecord;
+import org.rest.Respector.PathRecord.PathRecordBase;
+
+/**
+ * A node of the immutable path of a PathConstraint, pointing to the node before it.
+ */
+public final class PathNode {
+  public final PathRecordBase rec;
+  public final PathNode prev;
+  public final int size;
+
+  // the nearest earlier node whose call stack is not deeper than this one,
+  // i.e. the bodies of callees that already returned are skipped.
+  public final PathNode visiblePrev;
+  // the numOccur of the last record of each statement on this node and the ones visible from it,
+  // which is what numOccurence looks up
+  public final OccurrenceIndex occurrences;
+
+  PathNode(PathNode prev, PathRecordBase rec) {
+    this.rec = rec;
+    this.prev = prev;
+    this.size = prev==null?1:prev.size+1;
+
+    int h=rec.callStack.size();
+    PathNode n=prev;
+    while(n!=null && n.rec.callStack.size()>h){
+      n=n.visiblePrev;
+    }
+    this.visiblePrev=n;
+
+    OccurrenceIndex occ=n==null?OccurrenceIndex.EMPTY:n.occurrences;
+    if(rec instanceof PathRecord && ((PathRecord) rec).stmt!=null){
+      occ=occ.put(((PathRecord) rec).stmt, ((PathRecord) rec).numOccur);
+    }
+    this.occurrences=occ;
+  }
+
+  // the node holding the i-th record of the path
+  PathNode nodeAt(int i){
+    PathNode n=this;
+    while(n.size>i+1){
+      n=n.prev;
+    }
+    return n;
+  }
+}
@@ -0,0 +1,45 @@
+package org.rest.Respector.PathCondExtract;
+
+import java.util.function.ToIntFunction;
+
+/**
+ * Order in which EndpointAnalysis resumes its unfinished paths.
+ * Under a path limit, the order decides which parts of the endpoint are explored at all.
+ */
+public interface PathSearchStrategy {
+  void add(PathConstraint path);
+
+  // removes and returns the next path to continue
+  PathConstraint next();
+
+  boolean isEmpty();
+
+  int size();
+
+  // called for every feasible path that reached the end of the endpoint
+  default void pathSaved(PathConstraint path){
+  }
+
+  // the status code a live path is heading for, a path only gets its HTTPStatusCode when it is saved
+  default void setPendingStatus(ToIntFunction<PathConstraint> pendingStatus){
+  }
+
+  public static PathSearchStrategy of(String name){
+    switch (name) {
+      case "dfs":
+        return new DFSPathSearch();
+
+      case "bfs":
+        return new BFSPathSearch();
+
+      case "coverage":
+        return new CoverageGuidedPathSearch();
+
+      case "random":
+        return new RandomPathSearch(RandomPathSearch.DEFAULT_SEED);
+
+      default:
+        throw new IllegalArgumentException(String.format("unknown path search strategy %s", name));
+    }
+  }
+}
@@ -0,0 +1,44 @@
+package org.rest.Respector.PathCondExtract;
+
+import java.util.ArrayList;
+import java.util.Random;
+
+/**
+ * A uniformly chosen unfinished path, seeded so that runs are reproducible.
+ */
+public class RandomPathSearch implements PathSearchStrategy {
+  public static final long DEFAULT_SEED=42;
+
+  final ArrayList<PathConstraint> paths=new ArrayList<>();
+  final Random random;
+
+  public RandomPathSearch(long seed) {
+    this.random=new Random(seed);
+  }
+
+  @Override
+  public void add(PathConstraint path) {
+    paths.add(path);
+  }
+
+  @Override
+  public PathConstraint next() {
+    int i=random.nextInt(paths.size());
+    int last=paths.size()-1;
+
+    PathConstraint p=paths.get(i);
+    paths.set(i, paths.get(last));
+    paths.remove(last);
+    return p;
+  }
+
+  @Override
+  public boolean isEmpty() {
+    return paths.isEmpty();
+  }
+
+  @Override
+  public int size() {
+    return paths.size();
+  }
+}
@@ -1,8 +1,6 @@
 package org.rest.Respector.PathCondExtract;
 
-import java.util.Map;
-
-import com.google.common.collect.ImmutableMap;
+import org.rest.Respector.PathRecord.SymStore;
 
 import soot.ValueBox;
 import soot.grimp.Grimp;
@@ -20,16 +18,25 @@ import soot.jimple.VirtualInvokeExpr;
 import soot.jimple.internal.JArrayRef;
 
 public class RhsRewrite {
-  public static ExprBox rewriteExpr(Expr src, ImmutableMap<Value, ExprBox> symStore) {
-    Expr newExpr=(Expr)Grimp.v().newExpr(src);
+  public static ExprBox rewriteExpr(Expr src, SymStore symStore) {
     boolean modified=false;
+    for(ValueBox vb: src.getUseBoxes()){
+      if(symStore.containsKey(vb.getValue())){
+        modified=true;
+        break;
+      }
+    }
+    if(!modified){
+      return new ExprBox(src);
+    }
+
+    Expr newExpr=(Expr)Grimp.v().newExpr(src);
     for(ValueBox vb: newExpr.getUseBoxes()){
       Value v=vb.getValue();
       if(symStore.containsKey(v))
       {
         Value newV=symStore.get(v).getValue();
 
-        modified=true;
         vb.setValue(newV);
 
         // if(!(vb instanceof ObjExprBox && newV instanceof NewExpr)
@@ -40,15 +47,10 @@ public class RhsRewrite {
         // }
       }
     }
-    if(modified){
-      return new ExprBox(newExpr);
-    }
-    else{
-      return new ExprBox(src);
-    }
+    return new ExprBox(ExprInterner.intern(newExpr));
   }
 
-  public static ExprBox rewriteImm(Immediate src, ImmutableMap<Value, ExprBox> symStore) {
+  public static ExprBox rewriteImm(Immediate src, SymStore symStore) {
     if(symStore.containsKey(src)){
       return symStore.get(src);
     }
@@ -57,7 +59,7 @@ public class RhsRewrite {
     }
   }
 
-  public static ExprBox rewriteRHS(Value src, ImmutableMap<Value, ExprBox> symStore) {
+  public static ExprBox rewriteRHS(Value src, SymStore symStore) {
     if(src instanceof Immediate){
       return rewriteImm((Immediate)src, symStore);
     }
@@ -80,7 +82,7 @@ public class RhsRewrite {
     }
   }
 
-  public static ExprBox rewritePrimitiveWrapperCall(VirtualInvokeExpr src, ImmutableMap<Value, ExprBox> symStore) {
+  public static ExprBox rewritePrimitiveWrapperCall(VirtualInvokeExpr src, SymStore symStore) {
     Value base0=src.getBase();
     Value base1=rewriteRHS(base0, symStore).getValue();
 
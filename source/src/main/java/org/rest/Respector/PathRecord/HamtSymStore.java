@@ -0,0 +1,227 @@
+package org.rest.Respector.PathRecord;
+
+import java.util.Arrays;
+import java.util.function.BiConsumer;
+
+import soot.Value;
+import soot.grimp.internal.ExprBox;
+
+/**
+ * A hash array mapped trie: 32-way branches indexed by 5 bits of the key hash at a time,
+ * with a bitmap of the occupied slots. A put copies only the branches on the way to its key,
+ * O(log32 n), and the new store shares every other branch with the old one.
+ * Keys are compared with equals, as ImmutableMap did.
+ * The nodes hold any keys and values, OccurrenceIndex is the same trie over statements.
+ */
+public final class HamtSymStore implements SymStore {
+  static final HamtSymStore EMPTY=new HamtSymStore(Branch.EMPTY, 0);
+
+  static final int BITS=5;
+  static final int MASK=(1<<BITS)-1;
+
+  static final class Leaf {
+    final Object key;
+    final int hash;
+    final Object value;
+
+    Leaf(Object key, int hash, Object value) {
+      this.key = key;
+      this.hash = hash;
+      this.value = value;
+    }
+  }
+
+  // children are Leaf, Branch or Collision, in the order of their bits
+  static final class Branch {
+    static final Branch EMPTY=new Branch(0, new Object[0]);
+
+    final int bitmap;
+    final Object[] children;
+
+    Branch(int bitmap, Object[] children) {
+      this.bitmap = bitmap;
+      this.children = children;
+    }
+  }
+
+  // keys with the same full hash
+  static final class Collision {
+    final int hash;
+    final Leaf[] leaves;
+
+    Collision(int hash, Leaf[] leaves) {
+      this.hash = hash;
+      this.leaves = leaves;
+    }
+  }
+
+  final Branch root;
+  final int size;
+
+  HamtSymStore(Branch root, int size) {
+    this.root = root;
+    this.size = size;
+  }
+
+  static int hash(Object key){
+    int h=key.hashCode();
+    return h^(h>>>16);
+  }
+
+  @Override
+  public ExprBox get(Value key) {
+    return (ExprBox) get(root, key, hash(key));
+  }
+
+  // null if key is not in the trie
+  static Object get(Branch root, Object key, int hash){
+    Object node=root;
+
+    for(int shift=0;;shift+=BITS){
+      if(node instanceof Branch){
+        Branch b=(Branch) node;
+        int bit=1<<((hash>>>shift)&MASK);
+        if((b.bitmap&bit)==0){
+          return null;
+        }
+        node=b.children[Integer.bitCount(b.bitmap&(bit-1))];
+      }
+      else if(node instanceof Leaf){
+        Leaf l=(Leaf) node;
+        return l.hash==hash && l.key.equals(key)?l.value:null;
+      }
+      else{
+        Collision c=(Collision) node;
+        if(c.hash!=hash){
+          return null;
+        }
+        for(Leaf l: c.leaves){
+          if(l.key.equals(key)){
+            return l.value;
+          }
+        }
+        return null;
+      }
+    }
+  }
+
+  @Override
+  public boolean containsKey(Value key) {
+    return get(key)!=null;
+  }
+
+  @Override
+  public SymStore put(Value key, ExprBox value) {
+    if(value==null){
+      throw new IllegalArgumentException(String.format("null value for %s", key));
+    }
+
+    ExprBox old=get(key);
+    if(old==value){
+      return this;
+    }
+
+    Leaf leaf=new Leaf(key, hash(key), value);
+    return new HamtSymStore((Branch) put(root, leaf, 0), old==null?size+1:size);
+  }
+
+  static Object put(Object node, Leaf leaf, int shift){
+    if(node instanceof Branch){
+      Branch b=(Branch) node;
+      int bit=1<<((leaf.hash>>>shift)&MASK);
+      int idx=Integer.bitCount(b.bitmap&(bit-1));
+
+      if((b.bitmap&bit)==0){
+        Object[] children=new Object[b.children.length+1];
+        System.arraycopy(b.children, 0, children, 0, idx);
+        children[idx]=leaf;
+        System.arraycopy(b.children, idx, children, idx+1, b.children.length-idx);
+        return new Branch(b.bitmap|bit, children);
+      }
+
+      Object[] children=b.children.clone();
+      children[idx]=put(b.children[idx], leaf, shift+BITS);
+      return new Branch(b.bitmap, children);
+    }
+    else if(node instanceof Leaf){
+      Leaf l=(Leaf) node;
+      if(l.hash==leaf.hash){
+        if(l.key.equals(leaf.key)){
+          return leaf;
+        }
+        return new Collision(l.hash, new Leaf[]{l, leaf});
+      }
+      return split(l, l.hash, leaf, shift);
+    }
+    else{
+      Collision c=(Collision) node;
+      if(c.hash!=leaf.hash){
+        return split(c, c.hash, leaf, shift);
+      }
+
+      for(int i=0;i<c.leaves.length;++i){
+        if(c.leaves[i].key.equals(leaf.key)){
+          Leaf[] leaves=c.leaves.clone();
+          leaves[i]=leaf;
+          return new Collision(c.hash, leaves);
+        }
+      }
+      Leaf[] leaves=Arrays.copyOf(c.leaves, c.leaves.length+1);
+      leaves[c.leaves.length]=leaf;
+      return new Collision(c.hash, leaves);
+    }
+  }
+
+  // a branch holding node and leaf, whose hashes differ, from shift on
+  static Object split(Object node, int nodeHash, Leaf leaf, int shift){
+    int i1=(nodeHash>>>shift)&MASK;
+    int i2=(leaf.hash>>>shift)&MASK;
+
+    if(i1==i2){
+      return new Branch(1<<i1, new Object[]{split(node, nodeHash, leaf, shift+BITS)});
+    }
+    if(i1<i2){
+      return new Branch((1<<i1)|(1<<i2), new Object[]{node, leaf});
+    }
+    return new Branch((1<<i1)|(1<<i2), new Object[]{leaf, node});
+  }
+
+  @Override
+  public int size() {
+    return size;
+  }
+
+  @Override
+  public void forEach(BiConsumer<Value, ExprBox> action) {
+    forEach(root, action);
+  }
+
+  static void forEach(Object node, BiConsumer<Value, ExprBox> action){
+    if(node instanceof Branch){
+      for(Object child: ((Branch) node).children){
+        forEach(child, action);
+      }
+    }
+    else if(node instanceof Leaf){
+      Leaf l=(Leaf) node;
+      action.accept((Value) l.key, (ExprBox) l.value);
+    }
+    else{
+      for(Leaf l: ((Collision) node).leaves){
+        action.accept((Value) l.key, (ExprBox) l.value);
+      }
+    }
+  }
+
+  @Override
+  public String toString() {
+    StringBuilder sb=new StringBuilder("{");
+    forEach((k, v)->{
+      if(sb.length()>1){
+        sb.append(", ");
+      }
+      sb.append(k).append('=').append(v.getValue());
+    });
+    return sb.append('}').toString();
+  }
+}
@@ -0,0 +1,28 @@
+package org.rest.Respector.PathRecord;
+
+import soot.jimple.Stmt;
+
+/**
+ * The numOccur of the last visible PathRecord of each statement of a path, in the trie of HamtSymStore.
+ * Persistent, a path node extends the index of the node it is visible from with its own record.
+ */
+public final class OccurrenceIndex {
+  public static final OccurrenceIndex EMPTY=new OccurrenceIndex(HamtSymStore.Branch.EMPTY);
+
+  final HamtSymStore.Branch root;
+
+  OccurrenceIndex(HamtSymStore.Branch root) {
+    this.root = root;
+  }
+
+  // 0 if stmt has no record in the index
+  public int get(Stmt stmt){
+    Object v=HamtSymStore.get(root, stmt, HamtSymStore.hash(stmt));
+    return v==null?0:(Integer) v;
+  }
+
+  public OccurrenceIndex put(Stmt stmt, int numOccur){
+    HamtSymStore.Leaf leaf=new HamtSymStore.Leaf(stmt, HamtSymStore.hash(stmt), numOccur);
+    return new OccurrenceIndex((HamtSymStore.Branch) HamtSymStore.put(root, leaf, 0));
+  }
+}
@@ -2,16 +2,19 @@ package org.rest.Respector.PathRecord;
 
 import java.util.HashMap;
 
-import com.google.common.collect.ImmutableMap;
-
 import java.util.ArrayList;
 
 import soot.*;
 import soot.grimp.internal.ExprBox;
 import soot.jimple.*;
 
+import org.rest.Respector.LoopInfo.BodyIndex;
+
 public class PathRecord extends PathRecordBase{
   public Stmt stmt;
+  // the id of stmt in bodyIndex, -1 until it is looked up, see EndpointAnalysis.indexOf
+  public BodyIndex bodyIndex=null;
+  public int stmtId=-1;
   public String note;
   public boolean skipInvokeExpr=false;
   public boolean preInvoke=false;
@@ -20,7 +23,7 @@ public class PathRecord extends PathRecordBase{
   // flowing through the node. For simplicity, we only define inFlowSet here. The same for exceptions.
 
   // the flowSet *before* flowing thru stmt
-  public ImmutableMap<Value, ExprBox> symStore;
+  public SymStore symStore;
   // the exception thrown *before* flowing thru stmt
   public ArrayList<Type> exceptionStack;
 
@@ -37,12 +40,12 @@ public class PathRecord extends PathRecordBase{
     this.skipInvokeExpr=false;
     this.preInvoke=false;
 
-    this.symStore=ImmutableMap.of();
+    this.symStore=SymStore.empty();
     this.exceptionStack=new ArrayList<>();
   }
 
   public PathRecord(Stmt stmt, RecordType type, String note, 
-    ImmutableMap<Value, ExprBox> symStore,
+    SymStore symStore,
     ArrayList<SootMethod> callStack,
     ArrayList<Type> exceptionStack
     ){
@@ -59,7 +62,7 @@ public class PathRecord extends PathRecordBase{
   }
 
   public PathRecord(Stmt stmt, RecordType type, String note, 
-    ImmutableMap<Value, ExprBox> symStore,
+    SymStore symStore,
     ArrayList<SootMethod> callStack,
     ArrayList<Type> exceptionStack,
     int maxOccur,
@@ -87,6 +90,8 @@ public class PathRecord extends PathRecordBase{
     super(rec);
 
     this.stmt=rec.stmt;
+    this.bodyIndex=rec.bodyIndex;
+    this.stmtId=rec.stmtId;
     this.note=rec.note;
 
     this.skipInvokeExpr=false;
@@ -95,4 +100,10 @@ public class PathRecord extends PathRecordBase{
     this.symStore=rec.symStore;
     this.exceptionStack=rec.exceptionStack;
   }
+
+  public void setStmt(BodyIndex index, int id){
+    this.stmt=index.stmts[id];
+    this.bodyIndex=index;
+    this.stmtId=id;
+  }
 }
@@ -0,0 +1,28 @@
+package org.rest.Respector.PathRecord;
+
+import java.util.function.BiConsumer;
+
+import soot.Value;
+import soot.grimp.internal.ExprBox;
+
+/**
+ * The symbolic store of a path: the rewritten value of each local, field reference or parameter.
+ * Persistent, put returns a new store and leaves this one unchanged, so paths forked from
+ * the same node share everything they have not written since.
+ */
+public interface SymStore {
+  // null if key is not in the store
+  ExprBox get(Value key);
+
+  boolean containsKey(Value key);
+
+  SymStore put(Value key, ExprBox value);
+
+  int size();
+
+  void forEach(BiConsumer<Value, ExprBox> action);
+
+  static SymStore empty(){
+    return HamtSymStore.EMPTY;
+  }
+}
@@ -73,7 +73,7 @@ public class PrintAllPaths extends MyTransformBase{
     // hierarchy=Scene.v().getActiveHierarchy();
     bodyToLoopInfoCache=new HashMap<>();
 
-    buildCHACallGraph();
+    loadCallGraph();
 
     // int sum=0;
 
@@ -11,6 +11,7 @@ import java.util.stream.Stream;
 import org.rest.Respector.EndPointRecog.EndPointMethodInfo;
 import org.rest.Respector.EndPointRecog.FrameworkData;
 import org.rest.Respector.EndPointRecog.PreprocessFramework;
+import org.rest.Respector.MyPassBase.CallGraphProvider;
 
 import java.io.File;
 import java.io.PrintWriter;
@@ -123,6 +124,8 @@ public class PrintAllPathsMain {
     Transform MyApp1=new Transform("wjtp.MyApp", new PrintAllPaths(endPointInfoWithData, printBackEdge));
     PackManager.v().getPack("wjtp").add(MyApp1);
 
+    CallGraphProvider.configure(CallGraphProvider.Algorithm.CHA, endPointInfoWithData);
+
     PackManager.v().runPacks();
   }
 }
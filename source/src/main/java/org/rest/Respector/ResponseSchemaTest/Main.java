@@ -12,6 +12,7 @@ import java.util.stream.Collectors;
 
 import org.rest.Respector.EndPointRecog.EndPointMethodInfo;
 import org.rest.Respector.EndPointRecog.PreprocessFramework;
+import org.rest.Respector.MyPassBase.CallGraphProvider;
 
 import soot.*;
 import soot.Scene;
@@ -91,6 +92,8 @@ public class Main {
     Transform MyApp1=new Transform("wjtp.MyApp", new MainTransform(endPointInfoWithData, outputFile));
     PackManager.v().getPack("wjtp").add(MyApp1);
 
+    CallGraphProvider.configure(CallGraphProvider.Algorithm.CHA, endPointInfoWithData);
+
     PackManager.v().runPacks();
   }
 }
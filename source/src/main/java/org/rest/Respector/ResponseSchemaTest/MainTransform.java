@@ -182,7 +182,7 @@ public class MainTransform extends MyTransformBase {
     // hierarchy = Scene.v().getActiveHierarchy();
     bodyToLoopInfoCache = new HashMap<>();
 
-    buildCHACallGraph();
+    loadCallGraph();
 
     // int sum=0;
     boolean printRaw = false;
@@ -586,7 +586,7 @@ public class MainTransform extends MyTransformBase {
 
     if(true)return;
 
-    StaticVarAssignment SVA = new StaticVarAssignment(this.CHA_CG, globalMap.keySet());
+    StaticVarAssignment SVA = new StaticVarAssignment(this.CG, globalMap.keySet());
 
     for(Map.Entry<SootField, GlobalVarInfo> kv: globalMap.entrySet()){
       SootField g=kv.getKey();
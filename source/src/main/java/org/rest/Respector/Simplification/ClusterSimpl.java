@@ -9,7 +9,6 @@ import org.slf4j.LoggerFactory;
 import org.apache.commons.lang3.tuple.Pair;
 import org.rest.Respector.PathCondExtract.ConditionPred;
 
-import com.microsoft.z3.ApplyResult;
 import com.microsoft.z3.BoolExpr;
 import com.microsoft.z3.BoolSort;
 import com.microsoft.z3.Expr;
@@ -33,15 +32,30 @@ public class ClusterSimpl extends SootToZ3{
     Pair<ArrayList<ConditionPred>, ArrayList<BoolExpr>> rtv=Pair.of(this.output, this.rawOutput);
     this.output=null;
     this.rawOutput=null;
-    this.ctx.close();
+    this.closeCtx();
     return rtv;
   }
 
 
 
   public ClusterSimpl(HashSet<ConditionPred> cluster){
-    super(cluster);
+    this(cluster, SimplificationBudget.UNLIMITED);
+  }
+
+  public ClusterSimpl(HashSet<ConditionPred> cluster, SimplificationBudget budget){
+    super(cluster, budget.acquireContext());
 
+    // the context goes back to the pool on failure, the caller has nothing to close
+    try{
+      simplify(budget);
+    }
+    catch(RuntimeException e){
+      closeCtx();
+      throw e;
+    }
+  }
+
+  void simplify(SimplificationBudget budget){
     Goal goal=ctx.mkGoal(false, false, false);
     for(Expr<BoolSort> e: modelExprs){
       goal.add(e);
@@ -49,13 +63,7 @@ public class ClusterSimpl extends SootToZ3{
 
     Tactic t = ctx.andThen(ctx.mkTactic("simplify"), ctx.mkTactic("propagate-values"), ctx.mkTactic("propagate-ineqs"), ctx.mkTactic("ctx-solver-simplify"));
 
-    ApplyResult ar= t.apply(goal);
-    Goal[] subGoals = ar.getSubgoals();
-
-    assert subGoals.length==1;
-
-    
-    for(BoolExpr expr: subGoals[0].getFormulas()){
+    for(BoolExpr expr: budget.simplify(ctx, goal, t)){
       this.rawOutput.add(expr);
 
       try {
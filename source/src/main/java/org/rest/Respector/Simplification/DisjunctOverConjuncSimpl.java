@@ -4,13 +4,13 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.HashSet;
+import java.util.List;
 
 import org.apache.commons.lang3.tuple.Pair;
 import org.rest.Respector.PathCondExtract.ConditionPred;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import com.microsoft.z3.ApplyResult;
 import com.microsoft.z3.BoolExpr;
 import com.microsoft.z3.BoolSort;
 import com.microsoft.z3.Expr;
@@ -29,8 +29,23 @@ public class DisjunctOverConjuncSimpl extends SootToZ3 {
   public ArrayList<BoolExpr> simplifiedGoals=new ArrayList<>();
 
   public DisjunctOverConjuncSimpl(Collection<ArrayList<ConditionPred>> disOfCon) {
-    super(true);
+    this(disOfCon, SimplificationBudget.UNLIMITED);
+  }
+
+  public DisjunctOverConjuncSimpl(Collection<ArrayList<ConditionPred>> disOfCon, SimplificationBudget budget) {
+    super(true, budget.acquireContext());
 
+    // the context goes back to the pool on failure, the caller has nothing to close
+    try{
+      build(disOfCon, budget);
+    }
+    catch(RuntimeException e){
+      closeCtx();
+      throw e;
+    }
+  }
+
+  void build(Collection<ArrayList<ConditionPred>> disOfCon, SimplificationBudget budget){
     ArrayList<Expr<BoolSort>> z3Dis=new ArrayList<>();
     for(ArrayList<ConditionPred> con: disOfCon){
       ArrayList<Expr<BoolSort>> z3Con=new ArrayList<>();
@@ -74,8 +89,24 @@ public class DisjunctOverConjuncSimpl extends SootToZ3 {
       return;
     }
 
-    Expr<BoolSort>[] arrDis=new Expr[z3Dis.size()];
-    arrDis=z3Dis.toArray(arrDis);
+    // divide and conquer, the full chain may finish on each chunk when it does not on the whole disjunction
+    if(budget.chunkSize>0 && z3Dis.size()>budget.chunkSize){
+      budget.numChunked.incrementAndGet();
+
+      ArrayList<Expr<BoolSort>> simplifiedChunks=new ArrayList<>();
+      for(int i=0;i<z3Dis.size();i+=budget.chunkSize){
+        List<Expr<BoolSort>> chunk=z3Dis.subList(i, Math.min(i+budget.chunkSize, z3Dis.size()));
+        simplifiedChunks.add(ctx.mkAnd(simplify(chunk, budget)));
+      }
+      z3Dis=simplifiedChunks;
+    }
+
+    this.simplifiedGoals.addAll(Arrays.asList(simplify(z3Dis, budget)));
+  }
+
+  BoolExpr[] simplify(List<Expr<BoolSort>> dis, SimplificationBudget budget){
+    Expr<BoolSort>[] arrDis=new Expr[dis.size()];
+    arrDis=dis.toArray(arrDis);
 
     Expr<BoolSort> allCombined=null;
 
@@ -95,11 +126,6 @@ public class DisjunctOverConjuncSimpl extends SootToZ3 {
       ctx.mkTactic("ctx-simplify")
       );
 
-    ApplyResult ar= t.apply(goal);
-    Goal[] subGoals = ar.getSubgoals();
-
-    assert subGoals.length==1;
-
-    this.simplifiedGoals.addAll(Arrays.asList(subGoals[0].getFormulas()));
+    return budget.simplify(ctx, goal, t);
   }
 }
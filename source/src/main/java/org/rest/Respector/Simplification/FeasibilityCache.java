@@ -0,0 +1,253 @@
+package org.rest.Respector.Simplification;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.rest.Respector.PathCondExtract.ConditionPred;
+
+/**
+ * Bounded LRU cache of feasibility verdicts, keyed by the set of predicates of a path
+ * (order and duplicates do not matter, predicates are compared with equivTo).
+ * Besides exact hits, a set containing a cached UNSAT set is UNSAT,
+ * and a set contained in a cached SAT set is SAT. The candidates for these are found through an index
+ * by predicate, a SAT set is listed under each of its predicates and an UNSAT set under one of them,
+ * and at most maxScan of them are compared to a key.
+ */
+public class FeasibilityCache {
+  public static final int DEFAULT_CAPACITY=4096;
+  public static final int DEFAULT_MAX_SCAN=256;
+
+  public int hits=0;
+  public int subsetUnsatHits=0;
+  public int supersetSatHits=0;
+  public int misses=0;
+  // cached sets compared to a key in subset and superset lookups
+  public long scanned=0;
+
+  // over all caches of the run, for the run metrics
+  public static final AtomicLong totalHits=new AtomicLong();
+  public static final AtomicLong totalSubsetUnsatHits=new AtomicLong();
+  public static final AtomicLong totalSupersetSatHits=new AtomicLong();
+  public static final AtomicLong totalMisses=new AtomicLong();
+  public static final AtomicLong totalScanned=new AtomicLong();
+  boolean addedToTotals=false;
+
+  final int maxScan;
+  final LinkedHashMap<CondSet, Boolean> verdicts;
+  // SAT sets by each of their predicates
+  final HashMap<CondKey, HashSet<CondSet>> satByPred=new HashMap<>();
+  // UNSAT sets by one of their predicates, a subset of a key has that one in the key too
+  final HashMap<CondKey, HashSet<CondSet>> unsatByPred=new HashMap<>();
+
+  public FeasibilityCache() {
+    this(DEFAULT_CAPACITY, DEFAULT_MAX_SCAN);
+  }
+
+  public FeasibilityCache(int capacity, int maxScan) {
+    this.maxScan=maxScan;
+    this.verdicts=new LinkedHashMap<CondSet, Boolean>(16, 0.75f, true){
+      @Override
+      protected boolean removeEldestEntry(Map.Entry<CondSet, Boolean> eldest) {
+        if(size()>capacity){
+          unindex(eldest.getKey(), eldest.getValue());
+          return true;
+        }
+        return false;
+      }
+    };
+  }
+
+  // a predicate with its equivHashCode computed once
+  static class CondKey {
+    final ConditionPred pred;
+    final int hash;
+
+    CondKey(ConditionPred pred) {
+      this.pred = pred;
+      this.hash = pred.hashCode();
+    }
+
+    @Override
+    public int hashCode() {
+      return hash;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if(this==o){
+        return true;
+      }
+      if(!(o instanceof CondKey)){
+        return false;
+      }
+      CondKey k=(CondKey) o;
+      return this.hash==k.hash && this.pred.equals(k.pred);
+    }
+  }
+
+  public static class CondSet {
+    final HashSet<CondKey> preds=new HashSet<>();
+    // one bit per predicate hash, a subset's bits are a subset of the superset's bits
+    long signature=0;
+    int hash=0;
+
+    @Override
+    public int hashCode() {
+      return hash;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if(this==o){
+        return true;
+      }
+      if(!(o instanceof CondSet)){
+        return false;
+      }
+      CondSet s=(CondSet) o;
+      return this.hash==s.hash && this.signature==s.signature && this.preds.equals(s.preds);
+    }
+
+    boolean isSubsetOf(CondSet s){
+      if(this.preds.size()>s.preds.size() || (this.signature & ~s.signature)!=0){
+        return false;
+      }
+      return s.preds.containsAll(this.preds);
+    }
+  }
+
+  // loop header predicates are skipped, they are not asserted to the solver either
+  public CondSet toKey(Iterable<ConditionPred> conds){
+    CondSet key=new CondSet();
+    for(ConditionPred pred: conds){
+      if(pred.inLoopHeader){
+        continue;
+      }
+      CondKey k=new CondKey(pred);
+      if(key.preds.add(k)){
+        key.signature|=1L<<(k.hash & 63);
+        key.hash+=k.hash;
+      }
+    }
+    return key;
+  }
+
+  // null if the verdict is not known
+  public Boolean lookup(CondSet key){
+    Boolean verdict=verdicts.get(key);
+    if(verdict!=null){
+      ++hits;
+      return verdict;
+    }
+
+    int budget=maxScan;
+    for(CondKey k: key.preds){
+      HashSet<CondSet> candidates=unsatByPred.get(k);
+      if(budget<=0){
+        break;
+      }
+      if(candidates==null){
+        continue;
+      }
+      for(CondSet s: candidates){
+        if(budget--<=0){
+          break;
+        }
+        ++scanned;
+        if(s.isSubsetOf(key)){
+          ++subsetUnsatHits;
+          return false;
+        }
+      }
+    }
+
+    // a superset has every predicate of key, so the shortest list of them has all supersets
+    HashSet<CondSet> candidates=null;
+    for(CondKey k: key.preds){
+      HashSet<CondSet> l=satByPred.get(k);
+      if(l==null){
+        candidates=null;
+        break;
+      }
+      if(candidates==null || l.size()<candidates.size()){
+        candidates=l;
+      }
+    }
+    if(candidates!=null){
+      budget=maxScan;
+      for(CondSet s: candidates){
+        if(budget--<=0){
+          break;
+        }
+        ++scanned;
+        if(key.isSubsetOf(s)){
+          ++supersetSatHits;
+          return true;
+        }
+      }
+    }
+
+    ++misses;
+    return null;
+  }
+
+  public void put(CondSet key, boolean feasible){
+    Boolean old=verdicts.put(key, feasible);
+    if(old!=null){
+      unindex(key, old);
+    }
+    index(key, feasible);
+  }
+
+  void index(CondSet key, boolean feasible){
+    if(feasible){
+      for(CondKey k: key.preds){
+        satByPred.computeIfAbsent(k, e->new HashSet<>()).add(key);
+      }
+    }
+    else if(!key.preds.isEmpty()){
+      CondKey k=key.preds.iterator().next();
+      unsatByPred.computeIfAbsent(k, e->new HashSet<>()).add(key);
+    }
+  }
+
+  // an equal set may list its predicates in another order, so an UNSAT set is looked for under all of them
+  void unindex(CondSet key, boolean feasible){
+    HashMap<CondKey, HashSet<CondSet>> index=feasible?satByPred:unsatByPred;
+    for(CondKey k: key.preds){
+      HashSet<CondSet> l=index.get(k);
+      if(l!=null){
+        l.remove(key);
+        if(l.isEmpty()){
+          index.remove(k);
+        }
+      }
+    }
+  }
+
+  // once the analysis that owns the cache is done
+  public void addToTotals(){
+    if(addedToTotals){
+      return;
+    }
+    addedToTotals=true;
+    totalHits.addAndGet(hits);
+    totalSubsetUnsatHits.addAndGet(subsetUnsatHits);
+    totalSupersetSatHits.addAndGet(supersetSatHits);
+    totalMisses.addAndGet(misses);
+    totalScanned.addAndGet(scanned);
+  }
+
+  public static String totalsSummary(){
+    return String.format("%d hits, %d subset-UNSAT hits, %d superset-SAT hits, %d misses, %d sets scanned",
+      totalHits.get(), totalSubsetUnsatHits.get(), totalSupersetSatHits.get(), totalMisses.get(), totalScanned.get());
+  }
+
+  @Override
+  public String toString() {
+    return String.format("%d hits, %d subset-UNSAT hits, %d superset-SAT hits, %d misses, %d sets scanned", hits, subsetUnsatHits, supersetSatHits, misses, scanned);
+  }
+}
@@ -0,0 +1,151 @@
+package org.rest.Respector.Simplification;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.rest.Respector.PathCondExtract.ConditionPred;
+import org.rest.Respector.PathCondExtract.ConsList;
+import org.rest.Respector.PathCondExtract.PathConstraint;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.microsoft.z3.BoolExpr;
+import com.microsoft.z3.Expr;
+import com.microsoft.z3.Status;
+
+/**
+ * Feasibility checks of one endpoint analysis sharing a single Z3 context and solver.
+ * Every predicate of the last checked path lives in its own push scope.
+ * A new path only pops the scopes past the prefix it shares with the last one
+ * (paths forked from each other share the nodes of their conds prefix),
+ * so the paths popped from cachedPaths in DFS order only assert their new branch conditions.
+ */
+public class IncrementalPathFeasibility extends SootToZ3 {
+  // predicates asserted in the scopes of the solver, the i-th one in scope i+1
+  ConsList<ConditionPred> asserted=ConsList.empty();
+
+  public int numChecks=0;
+  public int numAsserted=0;
+  int numSiblingLits=0;
+
+  private static Logger logger=LoggerFactory.getLogger(IncrementalPathFeasibility.class);
+
+  // when not null, the checks go to these processes instead of the solver of the context
+  final Z3ProcessPool processes;
+
+  public IncrementalPathFeasibility() {
+    this(null);
+  }
+
+  public IncrementalPathFeasibility(Z3ProcessPool processes) {
+    super();
+    this.processes=processes;
+  }
+
+  public boolean check(PathConstraint path){
+    return check(path.conds);
+  }
+
+  public boolean check(ConsList<ConditionPred> conds){
+    assertPrefix(conds);
+
+    ++numChecks;
+    // the solver still holds the scopes, so the next path pops what it does not share
+    this.status=processes==null?solver.check():processes.check(solver.toString());
+
+    return status != Status.UNSATISFIABLE;
+  }
+
+  /**
+   * The feasibility of the paths that extend prefix by one of branchConds each, the siblings of a branch.
+   * The prefix is asserted once, each branch condition only under an assumption literal of its own,
+   * so every sibling is an incremental check of the same solver state instead of a path of its own.
+   */
+  public boolean[] checkSiblings(ConsList<ConditionPred> prefix, List<ConditionPred> branchConds){
+    boolean[] rtv=new boolean[branchConds.size()];
+
+    // a process has no solver state to keep between the checks
+    if(processes!=null){
+      for(int i=0;i<rtv.length;++i){
+        rtv[i]=check(prefix.append(branchConds.get(i)));
+      }
+      return rtv;
+    }
+
+    assertPrefix(prefix);
+
+    // the implications go with this scope, the prefix stays asserted for the paths after
+    solver.push();
+    deferSideConditions=true;
+    try{
+      for(int i=0;i<rtv.length;++i){
+        ConditionPred pred=branchConds.get(i);
+        ArrayList<Expr<?>> facts=new ArrayList<>();
+
+        if(!pred.inLoopHeader){
+          try{
+            facts.add(toZ3Expr(pred.uniCond));
+            ++numAsserted;
+          }
+          catch(RuntimeException e){
+            logger.debug("Failed to convert to Z3: "+pred.uniCond.toString());
+          }
+          // what check asserts in the scope of the branch, the facts of a failed conversion included
+          facts.addAll(getAndClearAuxiliaryExprs());
+        }
+
+        BoolExpr lit=ctx.mkBoolConst(String.format("sibling!%d", numSiblingLits++));
+        // an array of its own, the varargs of add would be a generic array
+        solver.add(new BoolExpr[]{ctx.mkImplies(lit, mkConjunction(facts))});
+
+        ++numChecks;
+        this.status=solver.check(lit);
+        rtv[i]=status != Status.UNSATISFIABLE;
+      }
+    }
+    finally{
+      deferSideConditions=false;
+      getAndClearAuxiliaryExprs();
+      solver.pop();
+    }
+
+    return rtv;
+  }
+
+  // leaves the solver with one scope for each predicate of conds
+  void assertPrefix(ConsList<ConditionPred> conds){
+    ConsList<ConditionPred> common=ConsList.commonPrefix(conds, asserted);
+
+    if(common.size()<asserted.size()){
+      solver.pop(asserted.size()-common.size());
+    }
+    asserted=common;
+
+    // keep the nodes of conds, so the next path forked from it finds the shared prefix
+    ArrayList<ConsList<ConditionPred>> newNodes=new ArrayList<>();
+    for(ConsList<ConditionPred> l=conds;l!=common;l=l.init){
+      newNodes.add(l);
+    }
+
+    for(int i=newNodes.size()-1;i>=0;--i){
+      ConditionPred pred=newNodes.get(i).last;
+
+      solver.push();
+      asserted=newNodes.get(i);
+
+      if(pred.inLoopHeader){
+        continue;
+      }
+      try{
+        BoolExpr expr=(BoolExpr) toZ3Expr(pred.uniCond);
+        solver.add(new BoolExpr[]{expr});
+        ++numAsserted;
+      }
+      catch(RuntimeException e){
+        logger.debug("Failed to convert to Z3: "+pred.uniCond.toString());
+      }
+      // same as a fresh SootToZ3, the auxiliary facts are not asserted
+      getAndClearAuxiliaryExprs();
+    }
+  }
+}
@@ -6,12 +6,14 @@ import com.microsoft.z3.Status;
 
 public class PathFeasibility extends SootToZ3 {
   public PathFeasibility(PathConstraint path){
-    super(path.conds);
+    super(path.conds.toArrayList());
 
-
-    this.status=solver.check();
-
-    this.ctx.close();
+    try{
+      this.status=solver.check();
+    }
+    finally{
+      closeCtx();
+    }
   }
 
   public boolean check(){
@@ -0,0 +1,346 @@
+package org.rest.Respector.Simplification;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+
+import org.rest.Respector.PathCondExtract.ConditionPred;
+
+import soot.BooleanType;
+import soot.IntType;
+import soot.Local;
+import soot.RefType;
+import soot.Type;
+import soot.Value;
+import soot.jimple.ArrayRef;
+import soot.jimple.BinopExpr;
+import soot.jimple.CastExpr;
+import soot.jimple.ConditionExpr;
+import soot.jimple.EqExpr;
+import soot.jimple.GeExpr;
+import soot.jimple.GtExpr;
+import soot.jimple.IntConstant;
+import soot.jimple.LeExpr;
+import soot.jimple.LengthExpr;
+import soot.jimple.LongConstant;
+import soot.jimple.LtExpr;
+import soot.jimple.NeExpr;
+import soot.jimple.NullConstant;
+import soot.jimple.FieldRef;
+import soot.jimple.IdentityRef;
+import soot.jimple.RemExpr;
+
+/**
+ * Decides the paths whose conditions need no Z3: equalities and disequalities of locals, null and int constants,
+ * and bounds of int locals by constants, with union-find over the equalities and an interval per int class.
+ * A local stands for the Z3 constant SootToZ3 makes of it, named by the local in the sort of its type, and a
+ * predicate SootToZ3 fails to convert is left out here too, so a verdict is the one IncrementalPathFeasibility
+ * would give. Returns null when a path has any other predicate and no contradiction, or disequalities of int
+ * locals with too few values to choose from.
+ */
+public class QuickFeasibility {
+  static class Node {
+    Node parent=this;
+    // bounds of an int class, null if unbounded
+    Long lo=null;
+    Long hi=null;
+    // values of an int class excluded by disequalities with constants
+    HashSet<Long> excluded=null;
+    // disequalities with other int classes
+    int degree=0;
+
+    Node find(){
+      Node n=this;
+      while(n.parent!=n){
+        n.parent=n.parent.parent;
+        n=n.parent;
+      }
+      return n;
+    }
+  }
+
+  // what SootToZ3 makes of an operand
+  enum Kind {
+    INT,
+    REF,
+    NULL,
+    CONST,
+    // SootToZ3 throws on it before it asserts anything, the predicate is left out
+    NOT_CONVERTED,
+    // anything else, strings, remainders, calls, merged values
+    OTHER
+  }
+
+  final HashMap<String, Node> nodes=new HashMap<>();
+  final ArrayList<Node[]> eqs=new ArrayList<>();
+  final ArrayList<Node[]> diseqs=new ArrayList<>();
+  // bounds and excluded values of int locals, applied to their classes after the equalities
+  final ArrayList<Object[]> facts=new ArrayList<>();
+  boolean complete=true;
+
+  // true or false if the conditions are satisfiable or not, null if Z3 has to tell
+  public static Boolean decide(Iterable<ConditionPred> conds){
+    QuickFeasibility q=new QuickFeasibility();
+    for(ConditionPred pred: conds){
+      if(pred.inLoopHeader){
+        continue;
+      }
+      if(!q.add(pred.uniCond)){
+        return false;
+      }
+    }
+    return q.solve();
+  }
+
+  static Kind kindOf(Value v){
+    if(v instanceof Local){
+      Type t=v.getType();
+      if(t instanceof IntType || t instanceof BooleanType){
+        return Kind.INT;
+      }
+      if(t instanceof RefType){
+        return Kind.REF;
+      }
+      return Kind.NOT_CONVERTED;
+    }
+    if(v instanceof IntConstant || v instanceof LongConstant){
+      return Kind.CONST;
+    }
+    if(v instanceof NullConstant){
+      return Kind.NULL;
+    }
+    if(v instanceof FieldRef || v instanceof ArrayRef || v instanceof IdentityRef
+      || v instanceof CastExpr || v instanceof LengthExpr
+      || (v instanceof BinopExpr && !(v instanceof RemExpr) && !(v instanceof ConditionExpr))){
+      return Kind.NOT_CONVERTED;
+    }
+    return Kind.OTHER;
+  }
+
+  static long valueOf(Value v){
+    return v instanceof IntConstant?((IntConstant) v).value:((LongConstant) v).value;
+  }
+
+  // keyed by toString() as SootToZ3 names its constants, {x} for an EndPointParameter and x for a local are two of them
+  Node intNode(Local l){
+    return nodes.computeIfAbsent("I "+l.toString(), k->new Node());
+  }
+
+  Node refNode(Local l){
+    return nodes.computeIfAbsent(String.format("R %s %s", ((RefType) l.getType()).getClassName(), l.toString()), k->new Node());
+  }
+
+  // the constant SootToZ3 compares a local of the sort to for null
+  Node nullNode(Local l){
+    return nodes.computeIfAbsent(String.format("N %s", ((RefType) l.getType()).getClassName()), k->new Node());
+  }
+
+  // false if cond alone is a contradiction
+  boolean add(ConditionExpr cond){
+    Value op1=cond.getOp1();
+    Value op2=cond.getOp2();
+    Kind k1=kindOf(op1);
+    Kind k2=kindOf(op2);
+
+    // SootToZ3 converts op1 first, only a call there asserts something before op2 fails
+    if(k1==Kind.NOT_CONVERTED || (k2==Kind.NOT_CONVERTED && k1!=Kind.OTHER)){
+      return true;
+    }
+
+    boolean isEq=cond instanceof EqExpr;
+    boolean isNe=cond instanceof NeExpr;
+
+    if(k1==Kind.CONST && k2==Kind.CONST){
+      return compare(cond, valueOf(op1), valueOf(op2));
+    }
+    if(k1==Kind.NULL && k2==Kind.NULL && (isEq || isNe)){
+      return isEq;
+    }
+
+    if((isEq || isNe) && k1==Kind.REF && (k2==Kind.REF || k2==Kind.NULL)){
+      Local l1=(Local) op1;
+      Node n2;
+      if(k2==Kind.NULL){
+        n2=nullNode(l1);
+      }
+      else if(op1.getType().equals(op2.getType())){
+        n2=refNode((Local) op2);
+      }
+      else{
+        complete=false;
+        return true;
+      }
+      (isEq?eqs:diseqs).add(new Node[]{refNode(l1), n2});
+      return true;
+    }
+    if((isEq || isNe) && k1==Kind.NULL && k2==Kind.REF){
+      Local l2=(Local) op2;
+      (isEq?eqs:diseqs).add(new Node[]{nullNode(l2), refNode(l2)});
+      return true;
+    }
+
+    if(k1==Kind.INT && k2==Kind.INT && (isEq || isNe)){
+      Node n1=intNode((Local) op1);
+      Node n2=intNode((Local) op2);
+      if(isEq){
+        eqs.add(new Node[]{n1, n2});
+      }
+      else{
+        diseqs.add(new Node[]{n1, n2});
+        facts.add(new Object[]{n1, n2});
+      }
+      return true;
+    }
+
+    if(k1==Kind.INT && k2==Kind.CONST){
+      return addBound(intNode((Local) op1), cond, valueOf(op2), false);
+    }
+    if(k1==Kind.CONST && k2==Kind.INT){
+      return addBound(intNode((Local) op2), cond, valueOf(op1), true);
+    }
+
+    complete=false;
+    return true;
+  }
+
+  static boolean compare(ConditionExpr cond, long v1, long v2){
+    if(cond instanceof EqExpr){
+      return v1==v2;
+    }
+    if(cond instanceof NeExpr){
+      return v1!=v2;
+    }
+    if(cond instanceof GeExpr){
+      return v1>=v2;
+    }
+    if(cond instanceof GtExpr){
+      return v1>v2;
+    }
+    if(cond instanceof LeExpr){
+      return v1<=v2;
+    }
+    if(cond instanceof LtExpr){
+      return v1<v2;
+    }
+    throw new RuntimeException("Pred is not a ConditionExpr");
+  }
+
+  // x op c, or c op x if flipped
+  boolean addBound(Node x, ConditionExpr cond, long c, boolean flipped){
+    if(cond instanceof NeExpr){
+      facts.add(new Object[]{x, c});
+      return true;
+    }
+
+    // c<x is x>c and so on
+    boolean lower=flipped?(cond instanceof LeExpr || cond instanceof LtExpr):(cond instanceof GeExpr || cond instanceof GtExpr);
+    boolean strict=cond instanceof LtExpr || cond instanceof GtExpr;
+
+    Long lo=null, hi=null;
+    if(cond instanceof EqExpr){
+      lo=c;
+      hi=c;
+    }
+    else if(lower){
+      if(strict && c==Long.MAX_VALUE){
+        complete=false;
+        return true;
+      }
+      lo=strict?c+1:c;
+    }
+    else{
+      if(strict && c==Long.MIN_VALUE){
+        complete=false;
+        return true;
+      }
+      hi=strict?c-1:c;
+    }
+    facts.add(new Object[]{x, lo, hi});
+    return true;
+  }
+
+  Boolean solve(){
+    for(Node[] eq: eqs){
+      Node a=eq[0].find();
+      Node b=eq[1].find();
+      if(a!=b){
+        a.parent=b;
+      }
+    }
+
+    for(Object[] f: facts){
+      Node x=((Node) f[0]).find();
+      if(f.length==3){
+        if(f[1]!=null && (x.lo==null || (Long) f[1]>x.lo)){
+          x.lo=(Long) f[1];
+        }
+        if(f[2]!=null && (x.hi==null || (Long) f[2]<x.hi)){
+          x.hi=(Long) f[2];
+        }
+      }
+      else if(f[1] instanceof Long){
+        if(x.excluded==null){
+          x.excluded=new HashSet<>();
+        }
+        x.excluded.add((Long) f[1]);
+      }
+      else{
+        Node y=((Node) f[1]).find();
+        ++x.degree;
+        ++y.degree;
+      }
+    }
+
+    for(Node[] diseq: diseqs){
+      if(diseq[0].find()==diseq[1].find()){
+        return false;
+      }
+    }
+
+    boolean sat=complete;
+    for(Node n: nodes.values()){
+      if(n.parent!=n){
+        continue;
+      }
+
+      // an excluded bound moves inwards
+      if(n.excluded!=null){
+        while(n.lo!=null && n.excluded.contains(n.lo) && (n.hi==null || n.lo<=n.hi)){
+          n.lo=n.lo+1;
+        }
+        while(n.hi!=null && n.excluded.contains(n.hi) && (n.lo==null || n.lo<=n.hi)){
+          n.hi=n.hi-1;
+        }
+      }
+      if(n.lo!=null && n.hi!=null && n.lo>n.hi){
+        return false;
+      }
+
+      // every class of the int disequalities can take a value of its own, one at a time
+      if(n.lo!=null && n.hi!=null && n.hi-n.lo>=0 && n.hi-n.lo<Integer.MAX_VALUE){
+        long size=n.hi-n.lo+1;
+        long taken=n.degree;
+        if(n.excluded!=null){
+          for(long v: n.excluded){
+            if(v>=n.lo && v<=n.hi){
+              ++taken;
+            }
+          }
+        }
+        if(size<=taken){
+          sat=false;
+        }
+      }
+    }
+
+    for(Node[] diseq: diseqs){
+      Node a=diseq[0].find();
+      Node b=diseq[1].find();
+      if(a.lo!=null && a.lo.equals(a.hi) && b.lo!=null && b.lo.equals(b.hi) && a.lo.equals(b.lo)){
+        return false;
+      }
+    }
+
+    return sat?Boolean.TRUE:null;
+  }
+}
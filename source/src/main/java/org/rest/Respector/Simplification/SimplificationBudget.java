@@ -0,0 +1,116 @@
+package org.rest.Respector.Simplification;
+
+import java.util.HashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.microsoft.z3.ApplyResult;
+import com.microsoft.z3.BoolExpr;
+import com.microsoft.z3.Context;
+import com.microsoft.z3.Goal;
+import com.microsoft.z3.Tactic;
+import com.microsoft.z3.Z3Exception;
+
+/**
+ * Limits of the tactic chains that simplify the conditions of a spec, and what happens when a chain hits them.
+ * A goal goes to the full chain first, then to a cheap chain of rewrites, and is kept as it is when both fail.
+ * Every application of a chain gets timeoutMs of wall time and rlimit steps of Z3's resource counter, which
+ * does not depend on the machine. Disjunctions of more than chunkSize disjuncts are simplified chunk by chunk
+ * before the simplified chunks are combined. A limit of 0 means unlimited.
+ */
+public class SimplificationBudget {
+  public final int timeoutMs;
+  public final int rlimit;
+  public final int chunkSize;
+
+  // how often each level produced the result, for the run metrics
+  public final AtomicLong numFullChain=new AtomicLong();
+  public final AtomicLong numCheapChain=new AtomicLong();
+  public final AtomicLong numUnsimplified=new AtomicLong();
+  public final AtomicLong numChunked=new AtomicLong();
+
+  // of contexts configured with the rlimit
+  final Z3ContextPool pool;
+
+  public static final SimplificationBudget UNLIMITED=new SimplificationBudget(0, 0, 0);
+
+  private static Logger logger = LoggerFactory.getLogger(SimplificationBudget.class);
+
+  public SimplificationBudget(int timeoutMs, int rlimit, int chunkSize) {
+    this.timeoutMs = timeoutMs;
+    this.rlimit = rlimit;
+    this.chunkSize = chunkSize;
+
+    if(rlimit<=0){
+      this.pool=Z3ContextPool.DEFAULT;
+    }
+    else{
+      // the rlimit of a context bounds each apply of a tactic on it, not the context as a whole
+      HashMap<String, String> cfg=new HashMap<>();
+      cfg.put("rlimit", Integer.toString(rlimit));
+      this.pool=new Z3ContextPool(cfg, Z3ContextPool.DEFAULT_MAX_LEASES, Z3ContextPool.DEFAULT.maxIdle);
+    }
+  }
+
+  public Z3ContextPool.PooledContext acquireContext(){
+    return pool.acquire();
+  }
+
+  public void drain(){
+    pool.drain();
+  }
+
+  public static Tactic cheapChain(Context ctx){
+    return ctx.andThen(ctx.mkTactic("simplify"), ctx.mkTactic("propagate-values"));
+  }
+
+  // the formulas of goal after the first chain that finishes within the limits, goal itself if none does
+  public BoolExpr[] simplify(Context ctx, Goal goal, Tactic fullChain){
+    BoolExpr[] rtv=tryApply(ctx, fullChain, goal);
+    if(rtv!=null){
+      numFullChain.incrementAndGet();
+      return rtv;
+    }
+
+    rtv=tryApply(ctx, cheapChain(ctx), goal);
+    if(rtv!=null){
+      numCheapChain.incrementAndGet();
+      return rtv;
+    }
+
+    numUnsimplified.incrementAndGet();
+    return goal.getFormulas();
+  }
+
+  BoolExpr[] tryApply(Context ctx, Tactic chain, Goal goal){
+    Tactic t=timeoutMs>0?ctx.tryFor(chain, timeoutMs):chain;
+
+    try{
+      ApplyResult ar=t.apply(goal);
+      Goal[] subGoals=ar.getSubgoals();
+
+      if(subGoals.length==1){
+        return subGoals[0].getFormulas();
+      }
+
+      // the chains do not split goals, but the disjunction of the subgoals is the goal all the same
+      BoolExpr[] subExprs=new BoolExpr[subGoals.length];
+      for(int i=0;i<subGoals.length;++i){
+        subExprs[i]=subGoals[i].AsBoolExpr();
+      }
+      return new BoolExpr[]{ctx.mkOr(subExprs)};
+    }
+    catch(Z3Exception e){
+      // canceled by tryFor or out of rlimit
+      logger.debug(String.format("simplification gave up on a goal of size %d: %s", goal.size(), e.getMessage()));
+      return null;
+    }
+  }
+
+  public String summary(){
+    return String.format("%d full chain, %d cheap chain, %d unsimplified, %d chunked",
+      numFullChain.get(), numCheapChain.get(), numUnsimplified.get(), numChunked.get());
+  }
+}
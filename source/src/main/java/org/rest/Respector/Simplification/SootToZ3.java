@@ -5,8 +5,11 @@ import java.util.ArrayList;
 import java.util.Collection;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
 
 import org.rest.Respector.PathCondExtract.ConditionPred;
+import org.rest.Respector.PathCondExtract.IteExpr;
 import org.rest.Respector.PathCondExtract.PathConstraint;
 import org.rest.Respector.PathCondExtract.ConditionPred.ConstantComp;
 import org.slf4j.Logger;
@@ -29,7 +32,6 @@ import soot.BooleanType;
 import soot.G;
 import soot.IntType;
 import soot.Local;
-import soot.NullType;
 import soot.RefType;
 import soot.Scene;
 import soot.SootClass;
@@ -85,9 +87,10 @@ import soot.jimple.UshrExpr;
 import soot.jimple.VirtualInvokeExpr;
 import soot.jimple.XorExpr;
 
-public class SootToZ3 {
-  public Context ctx = new Context();
-  public Solver solver=ctx.mkSolver();
+public class SootToZ3 implements AutoCloseable {
+  public final Context ctx;
+  final Z3ContextPool.PooledContext pooled;
+  public Solver solver;
   public ArrayList<Expr<BoolSort>> modelExprs=new ArrayList<>();
   public Status status;
   public ArrayList<ConditionPred> notConverted=new ArrayList<>();
@@ -98,7 +101,8 @@ public class SootToZ3 {
   public HashMap<Value, Expr> varMap=new HashMap<>();
   public HashMap<Expr, Value> varMapRev=new HashMap<>();
 
-  public HashMap<Type, Sort> typeMap=new HashMap<>();
+  // the one of the pooled context
+  public HashMap<Type, Sort> typeMap;
   // HashMap<Sort, Type> typeMapRev=new HashMap<>();
 
   public HashMap<Value, Expr> strMap=new HashMap<>();
@@ -107,6 +111,8 @@ public class SootToZ3 {
   final SootClass stringClass=Scene.v().getSootClass("java.lang.String");
 
   public final boolean simplificationMode;
+  // the facts a conversion implies go to auxiliaryExprs instead of the solver, as in simplification mode
+  protected boolean deferSideConditions=false;
 
   protected ArrayList<Expr<BoolSort>> auxiliaryExprs=new ArrayList<>();
 
@@ -116,9 +122,18 @@ public class SootToZ3 {
     return t;
   }
 
+  // contexts created in this JVM, for the run metrics, see Z3ContextPool
+  public static final AtomicLong numContexts=new AtomicLong();
+
   private static Logger logger=LoggerFactory.getLogger(SootToZ3.class);
 
   public SootToZ3(Collection<ConditionPred> conjunction) {
+    this(conjunction, Z3ContextPool.DEFAULT.acquire());
+  }
+
+  public SootToZ3(Collection<ConditionPred> conjunction, Z3ContextPool.PooledContext pooled) {
+    this.pooled=pooled;
+    this.ctx=pooled.ctx;
     this.simplificationMode=false;
 
     init();
@@ -146,24 +161,58 @@ public class SootToZ3 {
   }
 
   public SootToZ3(boolean simplificationMode) {
+    this(simplificationMode, Z3ContextPool.DEFAULT.acquire());
+  }
+
+  public SootToZ3(boolean simplificationMode, Z3ContextPool.PooledContext pooled) {
+    this.pooled=pooled;
+    this.ctx=pooled.ctx;
     this.simplificationMode=simplificationMode;
     init();
   }
 
   void init(){
-    this.NullConstantSort=ctx.mkUninterpretedSort("NullSort");
-    this.nullConst=ctx.mkConst("nullConst", NullConstantSort);
+    this.solver=pooled.freshSolver();
+
+    this.NullConstantSort=pooled.nullSort;
+    this.nullConst=pooled.nullConst;
+    this.typeMap=pooled.typeMap;
 
-    typeMap.put(NullType.v(), NullConstantSort);
     varMap.put(NullConstant.v(), nullConst);
     varMapRev.put(nullConst, NullConstant.v());
   }
 
+  // gives the context back to its pool, the exprs of this instance must not be used after
   public void closeCtx() {
-    this.ctx.close();
+    pooled.release();
+  }
+
+  @Override
+  public void close() {
+    closeCtx();
+  }
+
+  // the conjunction of terms of the bool sort, which Z3 always creates as BoolExpr
+  BoolExpr mkConjunction(List<? extends Expr<?>> exprs){
+    BoolExpr[] args=new BoolExpr[exprs.size()];
+    for(int i=0;i<args.length;++i){
+      args[i]=(BoolExpr) exprs.get(i);
+    }
+    return ctx.mkAnd(args);
   }
 
   public Expr toZ3Expr(Value v){
+    if(v instanceof IteExpr){
+      IteExpr ite=(IteExpr) v;
+      ArrayList<Expr<?>> guard=new ArrayList<>();
+      for(Value c: ite.getGuard()){
+        guard.add(toZ3Expr(c));
+      }
+      Expr<?> thenEx=toZ3Expr(ite.getThen());
+      Expr<?> elseEx=toZ3Expr(ite.getElse());
+      return ctx.mkITE(mkConjunction(guard), thenEx, elseEx);
+    }
+
     AbstractGrimpValueSwitch sw=new AbstractGrimpValueSwitch() {
       @Override
       public void caseLocal(Local v) {
@@ -476,7 +525,7 @@ public class SootToZ3 {
         Type t=base.getType();
 
         if(ConditionPred.evalToNullConstant(v)==ConstantComp.EvalTrue){
-          if(simplificationMode){
+          if(simplificationMode || deferSideConditions){
             auxiliaryExprs.add(ctx.mkFalse());
           }
           else{
@@ -496,7 +545,7 @@ public class SootToZ3 {
           varMapRev.putIfAbsent(ex, v);
 
           BoolExpr nonNullExpr=ctx.mkNot(ctx.mkEq(ex, ctx.mkConst("null", sort)));
-          if(simplificationMode){
+          if(simplificationMode || deferSideConditions){
             auxiliaryExprs.add(nonNullExpr);
           }
           else{
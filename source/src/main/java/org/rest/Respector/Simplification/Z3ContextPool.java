@@ -0,0 +1,160 @@
+package org.rest.Respector.Simplification;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.microsoft.z3.Context;
+import com.microsoft.z3.Expr;
+import com.microsoft.z3.Native;
+import com.microsoft.z3.Solver;
+import com.microsoft.z3.Sort;
+import com.microsoft.z3.UninterpretedSort;
+
+import soot.NullType;
+import soot.Type;
+
+/**
+ * Z3 contexts shared by the SootToZ3 instances of a run, instead of a new context for every feasibility solver,
+ * commonPreds cluster and parameter. A context is leased to one SootToZ3 at a time and comes back with its
+ * closeCtx(). It keeps the sorts made for Soot types and a solver, which is reset for the next lease.
+ * The terms made on a context are only freed with it, so a context is closed instead of returned after
+ * maxLeases leases, or when maxIdle contexts are idle already.
+ */
+public class Z3ContextPool {
+  public static class PooledContext {
+    public final Context ctx;
+    final Z3ContextPool pool;
+    // shared by the leases, a sort is the same for every SootToZ3 on the context
+    final HashMap<Type, Sort> typeMap=new HashMap<>();
+    final UninterpretedSort nullSort;
+    final Expr<UninterpretedSort> nullConst;
+    Solver solver=null;
+    int leases=0;
+    boolean leased=false;
+
+    PooledContext(Z3ContextPool pool) {
+      this.pool=pool;
+      this.ctx=pool.config==null?new Context():new Context(pool.config);
+
+      this.nullSort=ctx.mkUninterpretedSort("NullSort");
+      this.nullConst=ctx.mkConst("nullConst", nullSort);
+      typeMap.put(NullType.v(), nullSort);
+    }
+
+    // the solver of the context, without the assertions and scopes of the last lease
+    Solver freshSolver(){
+      if(solver==null){
+        solver=ctx.mkSolver();
+      }
+      else{
+        solver.reset();
+      }
+      return solver;
+    }
+
+    public void release(){
+      pool.release(this);
+    }
+  }
+
+  public static final int DEFAULT_MAX_LEASES=64;
+
+  // for contexts with the default configuration
+  public static final Z3ContextPool DEFAULT=new Z3ContextPool(null, DEFAULT_MAX_LEASES, Runtime.getRuntime().availableProcessors()*2);
+
+  // over all pools, for the run metrics
+  public static final AtomicLong numLeases=new AtomicLong();
+  public static final AtomicLong numReused=new AtomicLong();
+  public static final AtomicLong numClosed=new AtomicLong();
+  public static final AtomicLong peakNativeBytes=new AtomicLong();
+
+  // as given to new Context(Map), null for the default one
+  public final Map<String, String> config;
+  public final int maxLeases;
+  public final int maxIdle;
+
+  final ConcurrentLinkedDeque<PooledContext> idle=new ConcurrentLinkedDeque<>();
+  final AtomicInteger numIdle=new AtomicInteger();
+
+  private static Logger logger = LoggerFactory.getLogger(Z3ContextPool.class);
+
+  public Z3ContextPool(Map<String, String> config, int maxLeases, int maxIdle) {
+    this.config = config;
+    this.maxLeases = maxLeases;
+    this.maxIdle = maxIdle;
+  }
+
+  public PooledContext acquire(){
+    numLeases.incrementAndGet();
+    recordNativeBytes();
+
+    PooledContext c=idle.pollFirst();
+    if(c!=null){
+      numIdle.decrementAndGet();
+      numReused.incrementAndGet();
+    }
+    else{
+      c=new PooledContext(this);
+      SootToZ3.numContexts.incrementAndGet();
+    }
+
+    ++c.leases;
+    c.leased=true;
+    return c;
+  }
+
+  void release(PooledContext c){
+    // closeCtx may be called again on a failure path
+    if(!c.leased){
+      return;
+    }
+    c.leased=false;
+
+    if(c.leases<maxLeases && numIdle.incrementAndGet()<=maxIdle){
+      idle.addFirst(c);
+      return;
+    }
+    if(c.leases<maxLeases){
+      numIdle.decrementAndGet();
+    }
+
+    c.ctx.close();
+    numClosed.incrementAndGet();
+  }
+
+  // closes the idle contexts, the leased ones are closed when they come back
+  public void drain(){
+    PooledContext c;
+    while((c=idle.pollFirst())!=null){
+      numIdle.decrementAndGet();
+      c.ctx.close();
+      numClosed.incrementAndGet();
+    }
+  }
+
+  // what Z3 has allocated in native memory, over all contexts of the JVM
+  public static long nativeBytes(){
+    return Native.getEstimatedAllocSize();
+  }
+
+  static void recordNativeBytes(){
+    long bytes=nativeBytes();
+    peakNativeBytes.accumulateAndGet(bytes, Math::max);
+  }
+
+  public static long numLive(){
+    return SootToZ3.numContexts.get()-numClosed.get();
+  }
+
+  public static String summary(){
+    recordNativeBytes();
+    return String.format("%d contexts created, %d leases, %d reused, %d live, %.1f MB native now, %.1f MB peak",
+      SootToZ3.numContexts.get(), numLeases.get(), numReused.get(), numLive(), nativeBytes()/1e6, peakNativeBytes.get()/1e6);
+  }
+}
@@ -0,0 +1,192 @@
+package org.rest.Respector.Simplification;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.microsoft.z3.Status;
+
+/**
+ * Z3 processes that answer check-sat queries written in SMT-LIB2, so a query that runs away or crashes Z3 does
+ * not take the analysis JVM with it. A query goes to an idle process, or waits for one while size of them are
+ * busy. A process gets timeoutMs as the soft timeout of each check-sat; one that has not answered some time
+ * after is killed and replaced on the next query. A query that times out or fails is unknown, which the
+ * analysis takes as feasible, as it does for unknown answers of the JNI solver.
+ */
+public class Z3ProcessPool implements AutoCloseable {
+  static class Worker {
+    final Process process;
+    final BufferedWriter in;
+    final BufferedReader out;
+
+    Worker(Process process) {
+      this.process = process;
+      this.in = new BufferedWriter(new OutputStreamWriter(process.getOutputStream(), StandardCharsets.UTF_8));
+      this.out = new BufferedReader(new InputStreamReader(process.getInputStream(), StandardCharsets.UTF_8));
+    }
+  }
+
+  // past the soft timeout, before a process is taken for hung
+  public static final long KILL_GRACE_MS=2000;
+
+  public final String z3Path;
+  public final int size;
+  public final long timeoutMs;
+
+  final Semaphore slots;
+  final ConcurrentLinkedDeque<Worker> idle=new ConcurrentLinkedDeque<>();
+  // reads the answers, so a query can stop waiting for one
+  final ExecutorService readers;
+  volatile boolean closed=false;
+
+  public final AtomicLong numQueries=new AtomicLong();
+  public final AtomicLong numSpawned=new AtomicLong();
+  public final AtomicLong numTimeouts=new AtomicLong();
+  public final AtomicLong numFailures=new AtomicLong();
+
+  private static Logger logger = LoggerFactory.getLogger(Z3ProcessPool.class);
+
+  public Z3ProcessPool(String z3Path, int size, long timeoutMs) {
+    this.z3Path = z3Path;
+    this.size = size;
+    this.timeoutMs = timeoutMs;
+    this.slots=new Semaphore(size);
+    this.readers=Executors.newCachedThreadPool(r -> {
+      Thread t=new Thread(r, "z3 process reader");
+      t.setDaemon(true);
+      return t;
+    });
+
+    // a wrong z3Path fails the run here, not as unknown answers to every query
+    try{
+      idle.add(spawn());
+    }
+    catch(IOException e){
+      readers.shutdownNow();
+      throw new RuntimeException(String.format("can not start %s", z3Path), e);
+    }
+  }
+
+  Worker spawn() throws IOException {
+    ProcessBuilder pb=timeoutMs>0?new ProcessBuilder(z3Path, "-in", "-smt2", String.format("-t:%d", timeoutMs)):new ProcessBuilder(z3Path, "-in", "-smt2");
+    pb.redirectError(ProcessBuilder.Redirect.DISCARD);
+    numSpawned.incrementAndGet();
+    return new Worker(pb.start());
+  }
+
+  // the answer of a process to the assertions in script, as printed by the toString() of a Solver
+  public Status check(String script){
+    if(closed){
+      throw new RuntimeException("Z3ProcessPool is closed");
+    }
+    numQueries.incrementAndGet();
+
+    try{
+      slots.acquire();
+    }
+    catch(InterruptedException e){
+      Thread.currentThread().interrupt();
+      throw new RuntimeException(e);
+    }
+
+    Worker w=idle.pollFirst();
+    try{
+      if(w==null || !w.process.isAlive()){
+        w=spawn();
+      }
+
+      w.in.write("(reset)\n");
+      w.in.write(script);
+      w.in.write("\n(check-sat)\n");
+      w.in.flush();
+
+      Worker reading=w;
+      Future<String> answer=readers.submit(() -> readAnswer(reading));
+      long waitMs=timeoutMs>0?timeoutMs+KILL_GRACE_MS:Long.MAX_VALUE;
+      String line=answer.get(waitMs, TimeUnit.MILLISECONDS);
+
+      if(line==null){
+        throw new IOException("z3 process exited");
+      }
+
+      idle.addFirst(w);
+      w=null;
+
+      switch(line){
+        case "sat":
+          return Status.SATISFIABLE;
+        case "unsat":
+          return Status.UNSATISFIABLE;
+        default:
+          return Status.UNKNOWN;
+      }
+    }
+    catch(TimeoutException e){
+      numTimeouts.incrementAndGet();
+      logger.warn(String.format("z3 process did not answer within %d ms, killed", timeoutMs+KILL_GRACE_MS));
+      return Status.UNKNOWN;
+    }
+    catch(IOException | ExecutionException e){
+      numFailures.incrementAndGet();
+      logger.warn(String.format("z3 process failed: %s", e.getMessage()));
+      return Status.UNKNOWN;
+    }
+    catch(InterruptedException e){
+      Thread.currentThread().interrupt();
+      throw new RuntimeException(e);
+    }
+    finally{
+      // a process that did not give its answer is in an unknown state
+      if(w!=null){
+        w.process.destroyForcibly();
+      }
+      slots.release();
+    }
+  }
+
+  // the first line that is an answer to check-sat, null at the end of the output
+  static String readAnswer(Worker w) throws IOException {
+    String line;
+    while((line=w.out.readLine())!=null){
+      line=line.trim();
+      if(line.equals("sat") || line.equals("unsat") || line.equals("unknown")){
+        return line;
+      }
+      if(line.startsWith("(error")){
+        logger.debug(String.format("z3 process: %s", line));
+      }
+    }
+    return null;
+  }
+
+  public String summary(){
+    return String.format("%d queries, %d processes spawned, %d timeouts, %d failures",
+      numQueries.get(), numSpawned.get(), numTimeouts.get(), numFailures.get());
+  }
+
+  @Override
+  public void close(){
+    closed=true;
+
+    Worker w;
+    while((w=idle.pollFirst())!=null){
+      w.process.destroy();
+    }
+    readers.shutdownNow();
+  }
+}
@@ -47,6 +47,10 @@ public class EndPointOperationObj {
   @SerializedName("x-raw-invalid")
   public ArrayList<ArrayList<String>> rawInvalid=null;
 
+  // the exploration limit that cut the analysis of this endpoint short, see ExplorationBudget
+  @SerializedName("x-truncated")
+  public String truncated=null;
+
   public JsonElement _bodyParams=null;
 
   
@@ -67,6 +71,7 @@ public class EndPointOperationObj {
     this.xConstraints=rhs.xConstraints;
     this.rawValid=rhs.rawValid;
     this.rawInvalid=rhs.rawInvalid;
+    this.truncated=rhs.truncated;
   }
 
   public EndPointOperationObj(String path, String httpOp, PathItemObj parentPathItem, ArrayList<ParameterObj> parameters,
@@ -1,7 +1,11 @@
 package org.rest.Respector.SpecGen.Spec.Path.EndPointOp.Responses;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.Map;
+
+import org.apache.commons.lang3.tuple.Pair;
 
 import com.google.gson.JsonElement;
 import com.google.gson.JsonObject;
@@ -35,11 +39,13 @@ public class ResponseSchemaGen {
     return toResponseSchema(type, null);
   }
 
-  public static HashMap<Type, JsonElement> cachedSchemas=new HashMap<>();
+  // keyed by the excluded packages too, so the schema does not depend on which endpoint asked first
+  public static Map<Pair<Type, ArrayList<String>>, JsonElement> cachedSchemas=Collections.synchronizedMap(new HashMap<>());
 
   public static JsonElement toResponseSchema(Type type, ArrayList<String> exlcudePackages) {
-    if(cachedSchemas.containsKey(type)){
-      return cachedSchemas.get(type);
+    Pair<Type, ArrayList<String>> key=Pair.of(type, exlcudePackages);
+    if(cachedSchemas.containsKey(key)){
+      return cachedSchemas.get(key);
     }
 
     TypeSwitch sw = new TypeSwitch() {
@@ -215,7 +221,7 @@ public class ResponseSchemaGen {
 
     JsonElement res=(JsonElement) sw.getResult();
 
-    cachedSchemas.put(type, res);
+    cachedSchemas.put(key, res);
 
     return res;
   }
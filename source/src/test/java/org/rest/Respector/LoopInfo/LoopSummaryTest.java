@@ -0,0 +1,120 @@
+package org.rest.Respector.LoopInfo;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Collections;
+import java.util.Set;
+
+import org.junit.Test;
+
+import soot.ArrayType;
+import soot.IntType;
+import soot.Local;
+import soot.SootClass;
+import soot.SootMethod;
+import soot.VoidType;
+import soot.jimple.IntConstant;
+import soot.jimple.Jimple;
+import soot.jimple.JimpleBody;
+import soot.jimple.Stmt;
+import soot.jimple.toolkits.annotation.logic.Loop;
+import soot.jimple.toolkits.annotation.logic.LoopFinder;
+import soot.toolkits.graph.BriefUnitGraph;
+import soot.toolkits.graph.UnitGraph;
+
+public class LoopSummaryTest {
+  static int numMethods=0;
+
+  /**
+   * while(i<n && m!=0){ body; i=i+1; }, with the statement of body given
+   */
+  static class CountingLoop {
+    final JimpleBody body;
+    final Local i, n, m, arr;
+    final Stmt head, guard, exit;
+
+    CountingLoop(boolean writeArray) {
+      SootMethod method=new SootMethod(String.format("loop%d", numMethods++), Collections.emptyList(), VoidType.v());
+      new SootClass("test.Loops").addMethod(method);
+      body=Jimple.v().newBody(method);
+      method.setActiveBody(body);
+
+      i=Jimple.v().newLocal("i", IntType.v());
+      n=Jimple.v().newLocal("n", IntType.v());
+      m=Jimple.v().newLocal("m", IntType.v());
+      arr=Jimple.v().newLocal("arr", ArrayType.v(IntType.v(), 1));
+      body.getLocals().add(i);
+      body.getLocals().add(n);
+      body.getLocals().add(m);
+      body.getLocals().add(arr);
+
+      exit=Jimple.v().newReturnVoidStmt();
+      Stmt init=Jimple.v().newAssignStmt(i, IntConstant.v(0));
+      head=Jimple.v().newIfStmt(Jimple.v().newGeExpr(i, n), exit);
+      guard=Jimple.v().newIfStmt(Jimple.v().newEqExpr(m, IntConstant.v(0)), exit);
+      Stmt work=writeArray?Jimple.v().newAssignStmt(Jimple.v().newArrayRef(arr, i), IntConstant.v(1)):Jimple.v().newNopStmt();
+      Stmt incr=Jimple.v().newAssignStmt(i, Jimple.v().newAddExpr(i, IntConstant.v(1)));
+      Stmt back=Jimple.v().newGotoStmt(head);
+
+      body.getUnits().add(init);
+      body.getUnits().add(head);
+      body.getUnits().add(guard);
+      body.getUnits().add(work);
+      body.getUnits().add(incr);
+      body.getUnits().add(back);
+      body.getUnits().add(exit);
+    }
+
+    LoopSummary summarize(){
+      UnitGraph graph=new BriefUnitGraph(body);
+      Set<Loop> loops=new LoopFinder().getLoops(graph);
+      assertEquals(1, loops.size());
+      return new LoopSummary(loops.iterator().next(), graph);
+    }
+  }
+
+  @Test
+  public void exitsAndInvariance(){
+    CountingLoop l=new CountingLoop(false);
+    LoopSummary summary=l.summarize();
+
+    assertTrue(summary.isSummarizable());
+    assertEquals(l.head, summary.head);
+    assertTrue(summary.havocked.contains(l.i));
+    assertFalse(summary.havocked.contains(l.n));
+    assertFalse(summary.havocked.contains(l.m));
+
+    assertEquals(2, summary.exits.size());
+    for(LoopSummary.Exit e: summary.exits){
+      assertEquals(l.exit, e.to);
+      assertTrue(e.taken);
+      if(e.from==l.head){
+        // i changes in every iteration, i>=n only holds in the last one
+        assertFalse(e.invariant);
+      }
+      else{
+        assertEquals(l.guard, e.from);
+        // m is the same in every iteration, the path that leaves here had m==0 all along
+        assertTrue(e.invariant);
+      }
+    }
+  }
+
+  @Test
+  public void heapWriteIsNotSummarized(){
+    LoopSummary summary=new CountingLoop(true).summarize();
+
+    assertFalse(summary.isSummarizable());
+    assertEquals("heap write", summary.notSummarizable);
+  }
+
+  @Test
+  public void checkStmt(){
+    assertNull(LoopSummary.checkStmt(Jimple.v().newNopStmt()));
+    assertEquals("return", LoopSummary.checkStmt(Jimple.v().newReturnVoidStmt()));
+    assertEquals("throw", LoopSummary.checkStmt(Jimple.v().newThrowStmt(Jimple.v().newLocal("e", IntType.v()))));
+  }
+}
@@ -0,0 +1,116 @@
+package org.rest.Respector.Simplification;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNull;
+import static org.rest.Respector.Simplification.Preds.*;
+
+import java.util.ArrayList;
+import java.util.Random;
+
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.rest.Respector.PathCondExtract.ConditionPred;
+
+public class FeasibilityCacheTest {
+  @BeforeClass
+  public static void setUp(){
+    Preds.setUpScene();
+  }
+
+  @Test
+  public void exactHitIgnoresOrderAndDuplicates(){
+    FeasibilityCache cache=new FeasibilityCache();
+    cache.put(cache.toKey(list(eq(a, k(1)), lt(b, c))), true);
+
+    assertEquals(true, cache.lookup(cache.toKey(list(lt(b, c), eq(a, k(1)), lt(b, c)))));
+    assertEquals(1, cache.hits);
+  }
+
+  @Test
+  public void supersetOfUnsatIsUnsat(){
+    FeasibilityCache cache=new FeasibilityCache();
+    cache.put(cache.toKey(list(eq(a, k(1)), eq(a, k(2)))), false);
+
+    assertEquals(false, cache.lookup(cache.toKey(list(gt(b, k(0)), eq(a, k(2)), eq(a, k(1))))));
+    assertEquals(1, cache.subsetUnsatHits);
+    assertNull(cache.lookup(cache.toKey(list(eq(a, k(1)), gt(b, k(0))))));
+  }
+
+  @Test
+  public void subsetOfSatIsSat(){
+    FeasibilityCache cache=new FeasibilityCache();
+    cache.put(cache.toKey(list(eq(a, k(1)), eq(b, k(2)), lt(a, c))), true);
+
+    assertEquals(true, cache.lookup(cache.toKey(list(lt(a, c), eq(b, k(2))))));
+    assertEquals(1, cache.supersetSatHits);
+    assertNull(cache.lookup(cache.toKey(list(eq(b, k(2)), eq(c, k(0))))));
+  }
+
+  @Test
+  public void loopHeaderConditionsAreLeftOut(){
+    FeasibilityCache cache=new FeasibilityCache();
+    cache.put(cache.toKey(list(eq(a, k(1)), eq(a, k(2)))), false);
+
+    assertNull(cache.lookup(cache.toKey(list(eq(a, k(1)), inLoopHeader(eq(a, k(2)))))));
+  }
+
+  @Test
+  public void evictedSetsAreNotFound(){
+    FeasibilityCache cache=new FeasibilityCache(1, FeasibilityCache.DEFAULT_MAX_SCAN);
+    cache.put(cache.toKey(list(eq(a, k(1)), eq(a, k(2)))), false);
+    cache.put(cache.toKey(list(eq(b, k(1)))), true);
+
+    assertNull(cache.lookup(cache.toKey(list(eq(a, k(1)), eq(a, k(2)), eq(c, k(0))))));
+    assertEquals(true, cache.lookup(cache.toKey(list(eq(b, k(1))))));
+  }
+
+  @Test
+  public void overwrittenVerdictIsReindexed(){
+    FeasibilityCache cache=new FeasibilityCache();
+    cache.put(cache.toKey(list(eq(a, k(1)), eq(b, k(1)))), false);
+    cache.put(cache.toKey(list(eq(b, k(1)), eq(a, k(1)))), true);
+
+    assertNull(cache.lookup(cache.toKey(list(eq(a, k(1)), eq(b, k(1)), eq(c, k(1))))));
+    assertEquals(true, cache.lookup(cache.toKey(list(eq(a, k(1))))));
+  }
+
+  @Test
+  public void scanIsBounded(){
+    FeasibilityCache cache=new FeasibilityCache(FeasibilityCache.DEFAULT_CAPACITY, 4);
+    for(int i=0;i<50;++i){
+      cache.put(cache.toKey(list(eq(a, k(1)), eq(c, k(i)))), true);
+      cache.put(cache.toKey(list(eq(b, k(1)), eq(c, k(i)))), true);
+    }
+
+    // no set has a predicate of c==-1
+    assertNull(cache.lookup(cache.toKey(list(eq(a, k(1)), eq(c, k(-1))))));
+    assertEquals(0, cache.scanned);
+    // 50 candidates under each predicate, none of them has both
+    assertNull(cache.lookup(cache.toKey(list(eq(a, k(1)), eq(b, k(1))))));
+    assertEquals(4, cache.scanned);
+  }
+
+  // the cache answers with the verdict Z3 gives, for conjunctions that share many predicates
+  @Test
+  public void agreesWithZ3(){
+    Random rnd=new Random(7);
+    FeasibilityCache cache=new FeasibilityCache(256, FeasibilityCache.DEFAULT_MAX_SCAN);
+    try(IncrementalPathFeasibility solver=new IncrementalPathFeasibility()){
+      int answered=0;
+      for(int i=0;i<2000;++i){
+        ArrayList<ConditionPred> preds=randomConjunction(rnd, 5);
+        FeasibilityCache.CondSet key=cache.toKey(list(preds));
+        Boolean cached=cache.lookup(key);
+        boolean feasible=z3Feasible(solver, preds);
+        if(cached!=null){
+          ++answered;
+          assertEquals(preds.toString(), feasible, cached.booleanValue());
+        }
+        cache.put(key, feasible);
+      }
+      assertNotEquals(0, answered);
+      assertNotEquals(0, cache.subsetUnsatHits+cache.supersetSatHits);
+    }
+  }
+}
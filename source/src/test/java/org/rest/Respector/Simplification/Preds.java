@@ -0,0 +1,133 @@
+package org.rest.Respector.Simplification;
+
+import java.util.ArrayList;
+import java.util.Random;
+
+import org.rest.Respector.PathCondExtract.ConditionPred;
+import org.rest.Respector.PathCondExtract.ConsList;
+
+import soot.IntType;
+import soot.Local;
+import soot.RefType;
+import soot.Scene;
+import soot.SootClass;
+import soot.Value;
+import soot.jimple.IntConstant;
+import soot.jimple.Jimple;
+import soot.jimple.NullConstant;
+
+/**
+ * Path conditions over a few int and reference locals, for checking the decision procedures against Z3.
+ * The locals are the same objects in every condition, as they are on the paths of one endpoint.
+ */
+class Preds {
+  static final String OBJ_CLASS="test.Obj";
+
+  static final Local a=Jimple.v().newLocal("a", IntType.v());
+  static final Local b=Jimple.v().newLocal("b", IntType.v());
+  static final Local c=Jimple.v().newLocal("c", IntType.v());
+  static final Local[] ints={a, b, c};
+
+  static Local p;
+  static Local q;
+  static Local[] refs;
+
+  // the classes SootToZ3 looks up, without loading a class path
+  static void setUpScene(){
+    for(String name: new String[]{"java.lang.Object", "java.lang.String", OBJ_CLASS}){
+      if(!Scene.v().containsClass(name)){
+        SootClass sc=new SootClass(name);
+        Scene.v().addClass(sc);
+      }
+    }
+    if(p==null){
+      p=Jimple.v().newLocal("p", RefType.v(OBJ_CLASS));
+      q=Jimple.v().newLocal("q", RefType.v(OBJ_CLASS));
+      refs=new Local[]{p, q};
+    }
+  }
+
+  static IntConstant k(int v){
+    return IntConstant.v(v);
+  }
+
+  static ConditionPred eq(Value op1, Value op2){
+    return new ConditionPred(Jimple.v().newEqExpr(op1, op2), true);
+  }
+
+  static ConditionPred ne(Value op1, Value op2){
+    return new ConditionPred(Jimple.v().newNeExpr(op1, op2), true);
+  }
+
+  static ConditionPred lt(Value op1, Value op2){
+    return new ConditionPred(Jimple.v().newLtExpr(op1, op2), true);
+  }
+
+  static ConditionPred le(Value op1, Value op2){
+    return new ConditionPred(Jimple.v().newLeExpr(op1, op2), true);
+  }
+
+  static ConditionPred gt(Value op1, Value op2){
+    return new ConditionPred(Jimple.v().newGtExpr(op1, op2), true);
+  }
+
+  static ConditionPred ge(Value op1, Value op2){
+    return new ConditionPred(Jimple.v().newGeExpr(op1, op2), true);
+  }
+
+  static ConditionPred inLoopHeader(ConditionPred pred){
+    return new ConditionPred(pred.uniCond, true, null, true);
+  }
+
+  static ConsList<ConditionPred> list(ConditionPred... preds){
+    ConsList<ConditionPred> rtv=ConsList.empty();
+    for(ConditionPred pred: preds){
+      rtv=rtv.append(pred);
+    }
+    return rtv;
+  }
+
+  // a comparison of an int local to another one or to a small constant, or of a reference local to another one or null
+  static ConditionPred random(Random rnd){
+    if(rnd.nextInt(4)==0){
+      Local x=refs[rnd.nextInt(refs.length)];
+      Value y=rnd.nextBoolean()?NullConstant.v():refs[rnd.nextInt(refs.length)];
+      return rnd.nextBoolean()?eq(x, y):ne(x, y);
+    }
+
+    Local x=ints[rnd.nextInt(ints.length)];
+    Value y=rnd.nextBoolean()?k(rnd.nextInt(5)-2):ints[rnd.nextInt(ints.length)];
+    switch(rnd.nextInt(6)){
+      case 0:
+        return eq(x, y);
+      case 1:
+        return ne(x, y);
+      case 2:
+        return lt(x, y);
+      case 3:
+        return le(x, y);
+      case 4:
+        return gt(x, y);
+      default:
+        return ge(x, y);
+    }
+  }
+
+  static ArrayList<ConditionPred> randomConjunction(Random rnd, int maxSize){
+    ArrayList<ConditionPred> rtv=new ArrayList<>();
+    int n=1+rnd.nextInt(maxSize);
+    for(int i=0;i<n;++i){
+      rtv.add(random(rnd));
+    }
+    return rtv;
+  }
+
+  static ConsList<ConditionPred> list(ArrayList<ConditionPred> preds){
+    return list(preds.toArray(new ConditionPred[0]));
+  }
+
+  // the verdict of Z3 on preds alone, as checkFeasibility gets it
+  static boolean z3Feasible(IncrementalPathFeasibility solver, ArrayList<ConditionPred> preds){
+    return solver.check(list(preds));
+  }
+}
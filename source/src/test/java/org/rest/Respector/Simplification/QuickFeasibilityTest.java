@@ -0,0 +1,98 @@
+package org.rest.Respector.Simplification;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNull;
+import static org.rest.Respector.Simplification.Preds.*;
+
+import java.util.ArrayList;
+import java.util.Random;
+
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.rest.Respector.PathCondExtract.ConditionPred;
+import org.rest.Respector.PathCondExtract.EndPointParameter;
+
+import soot.IntType;
+import soot.jimple.NullConstant;
+
+public class QuickFeasibilityTest {
+  @BeforeClass
+  public static void setUp(){
+    Preds.setUpScene();
+  }
+
+  @Test
+  public void contradictingConstants(){
+    assertEquals(false, QuickFeasibility.decide(list(eq(a, k(1)), eq(a, k(2)))));
+    assertEquals(false, QuickFeasibility.decide(list(ge(a, k(0)), le(a, k(0)), ne(a, k(0)))));
+    assertEquals(false, QuickFeasibility.decide(list(gt(a, k(3)), lt(a, k(4)))));
+  }
+
+  @Test
+  public void contradictingEqualities(){
+    assertEquals(false, QuickFeasibility.decide(list(eq(a, b), eq(b, c), ne(a, c))));
+    assertEquals(false, QuickFeasibility.decide(list(eq(a, k(1)), eq(b, k(2)), eq(a, b))));
+    assertEquals(false, QuickFeasibility.decide(list(eq(p, NullConstant.v()), ne(p, NullConstant.v()))));
+    assertEquals(false, QuickFeasibility.decide(list(eq(p, q), eq(q, NullConstant.v()), ne(p, NullConstant.v()))));
+  }
+
+  @Test
+  public void satisfiable(){
+    assertEquals(true, QuickFeasibility.decide(list(gt(a, k(5)))));
+    assertEquals(true, QuickFeasibility.decide(list(ne(p, NullConstant.v()), eq(p, q))));
+    assertEquals(true, QuickFeasibility.decide(list(ge(a, k(0)), le(a, k(2)), ne(a, k(0)), ne(a, b))));
+  }
+
+  @Test
+  public void loopHeaderConditionsAreLeftOut(){
+    // the solver does not get them either
+    assertEquals(true, QuickFeasibility.decide(list(inLoopHeader(eq(a, k(1))), eq(a, k(2)))));
+  }
+
+  @Test
+  public void parameterAndLocalOfOneNameDiffer(){
+    // SootToZ3 names them {a} and a
+    EndPointParameter epp=new EndPointParameter(a.getName(), true, 0, IntType.v());
+    assertNotEquals(false, QuickFeasibility.decide(list(eq(epp, k(1)), eq(a, k(2)))));
+    assertEquals(false, QuickFeasibility.decide(list(eq(epp, k(1)), eq(epp, k(2)))));
+  }
+
+  @Test
+  public void undecidedWithoutEnoughValues(){
+    // three pairwise different values in {0, 1}
+    ArrayList<ConditionPred> pigeons=new ArrayList<>();
+    for(int i=0;i<ints.length;++i){
+      pigeons.add(ge(ints[i], k(0)));
+      pigeons.add(le(ints[i], k(1)));
+      for(int j=i+1;j<ints.length;++j){
+        pigeons.add(ne(ints[i], ints[j]));
+      }
+    }
+    assertNotEquals(true, QuickFeasibility.decide(list(pigeons)));
+  }
+
+  @Test
+  public void undecidedOnOrderOfLocals(){
+    assertNull(QuickFeasibility.decide(list(lt(a, b), lt(b, c))));
+  }
+
+  // every verdict QuickFeasibility gives is the one of the incremental solver
+  @Test
+  public void agreesWithZ3(){
+    Random rnd=new Random(42);
+    try(IncrementalPathFeasibility solver=new IncrementalPathFeasibility()){
+      int decided=0;
+      for(int i=0;i<2000;++i){
+        ArrayList<ConditionPred> preds=randomConjunction(rnd, 6);
+        Boolean quick=QuickFeasibility.decide(list(preds));
+        if(quick==null){
+          continue;
+        }
+        ++decided;
+        assertEquals(preds.toString(), z3Feasible(solver, preds), quick.booleanValue());
+      }
+      assertNotEquals(0, decided);
+    }
+  }
+}
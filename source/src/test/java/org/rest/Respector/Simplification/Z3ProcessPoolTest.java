@@ -0,0 +1,97 @@
+package org.rest.Respector.Simplification;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assume.assumeNoException;
+import static org.rest.Respector.Simplification.Preds.*;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Random;
+
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.rest.Respector.PathCondExtract.ConditionPred;
+
+import com.microsoft.z3.Status;
+
+public class Z3ProcessPoolTest {
+  @BeforeClass
+  public static void setUp(){
+    Preds.setUpScene();
+  }
+
+  // a z3 binary from -Dz3.path, or the one on PATH; the test is skipped without one
+  static Z3ProcessPool z3Pool(int size, long timeoutMs){
+    try{
+      return new Z3ProcessPool(System.getProperty("z3.path", "z3"), size, timeoutMs);
+    }
+    catch(RuntimeException e){
+      assumeNoException(e);
+      return null;
+    }
+  }
+
+  // a shell script standing in for z3
+  static String fakeZ3(String body) throws IOException {
+    File f=File.createTempFile("fake-z3", ".sh");
+    f.deleteOnExit();
+    Files.write(f.toPath(), String.format("#!/bin/sh\n%s\n", body).getBytes(StandardCharsets.UTF_8));
+    f.setExecutable(true);
+    return f.getAbsolutePath();
+  }
+
+  @Test
+  public void answers(){
+    try(Z3ProcessPool pool=z3Pool(1, 0)){
+      assertEquals(Status.SATISFIABLE, pool.check("(declare-const x Int)\n(assert (> x 0))"));
+      assertEquals(Status.UNSATISFIABLE, pool.check("(declare-const x Int)\n(assert (> x 0))\n(assert (< x 0))"));
+      // the reset between queries drops the declarations and assertions of the one before
+      assertEquals(Status.SATISFIABLE, pool.check("(declare-const x Int)\n(assert (< x 0))"));
+      assertEquals(1, pool.numSpawned.get());
+    }
+  }
+
+  // the processes give the verdicts of the solver in the JVM
+  @Test
+  public void agreesWithJni(){
+    Random rnd=new Random(13);
+    try(Z3ProcessPool pool=z3Pool(2, 0);
+        IncrementalPathFeasibility jni=new IncrementalPathFeasibility();
+        IncrementalPathFeasibility processes=new IncrementalPathFeasibility(pool)){
+      for(int i=0;i<500;++i){
+        ArrayList<ConditionPred> preds=randomConjunction(rnd, 6);
+        assertEquals(preds.toString(), z3Feasible(jni, preds), z3Feasible(processes, preds));
+      }
+      assertEquals(0, pool.numFailures.get()+pool.numTimeouts.get());
+    }
+  }
+
+  @Test
+  public void hungProcessIsUnknown() throws IOException {
+    try(Z3ProcessPool pool=new Z3ProcessPool(fakeZ3("exec sleep 30"), 1, 100)){
+      assertEquals(Status.UNKNOWN, pool.check("(assert false)"));
+      assertEquals(1, pool.numTimeouts.get());
+      // the killed process is replaced
+      assertEquals(Status.UNKNOWN, pool.check("(assert false)"));
+      assertEquals(2, pool.numSpawned.get());
+    }
+  }
+
+  @Test
+  public void exitedProcessIsUnknown() throws IOException {
+    try(Z3ProcessPool pool=new Z3ProcessPool(fakeZ3("exit 0"), 1, 100)){
+      assertEquals(Status.UNKNOWN, pool.check("(assert false)"));
+      assertTrue(pool.numFailures.get()>=1);
+      assertEquals(0, pool.numTimeouts.get());
+    }
+  }
+
+  @Test(expected=RuntimeException.class)
+  public void missingBinaryFailsAtStart(){
+    new Z3ProcessPool("/nonexistent/z3", 1, 100).close();
+  }
+}